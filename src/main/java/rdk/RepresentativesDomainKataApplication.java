@@ -1,12 +1,29 @@
 package rdk;
 
+import java.util.Arrays;
+
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import rdk.init.LeanApplicationConfig;
+
 @SpringBootApplication
 public class RepresentativesDomainKataApplication {
 
+    public static final String LEAN_ARGUMENT = "--lean";
+
     public static void main(String[] args) {
-        SpringApplication.run(RepresentativesDomainKataApplication.class, args);
+        if (Arrays.asList(args).contains(LEAN_ARGUMENT)) {
+            leanApplication().run(args);
+        } else {
+            SpringApplication.run(RepresentativesDomainKataApplication.class, args);
+        }
+    }
+
+    public static SpringApplication leanApplication() {
+        SpringApplication application = new SpringApplication(LeanApplicationConfig.class);
+        application.setWebEnvironment(false);
+        application.setAdditionalProfiles(LeanApplicationConfig.LEAN_PROFILE);
+        return application;
     }
 }
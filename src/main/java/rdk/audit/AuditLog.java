@@ -0,0 +1,223 @@
+package rdk.audit;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import rdk.event.OrganizationChange;
+import rdk.event.OrganizationChangeListener;
+import rdk.model.AuthorizationCheck;
+import rdk.model.AuthorizationListener;
+import rdk.model.Organization;
+import rdk.model.User;
+
+
+/**
+ * Records authorization decisions and organization mutations in an append-only file.
+ * Callers only enqueue a record; a background writer drains the queue in batches, writes
+ * each batch and syncs it to disk with a single fsync (group commit). When the bounded
+ * queue is full the {@link BackpressurePolicy} decides whether callers wait or records
+ * are dropped. Records submitted once the log is closed are dropped; records accepted
+ * before that are written before {@link #close()} returns.
+ */
+public class AuditLog implements OrganizationChangeListener, AuthorizationListener, Closeable {
+
+    public static final String AUTHORIZATION = "AUTHORIZATION";
+
+    public static final String MUTATION = "MUTATION";
+
+    private static final long POLL_MILLIS = 100;
+
+    private final BlockingQueue<AuditRecord> queue;
+
+    private final BackpressurePolicy backpressurePolicy;
+
+    private final int maxBatchSize;
+
+    private final FileChannel channel;
+
+    private final Thread writer;
+
+    private final LongAdder submitted = new LongAdder();
+
+    private final LongAdder dropped = new LongAdder();
+
+    private final AtomicInteger numOfSubmitting = new AtomicInteger();
+
+    private final AtomicLong written = new AtomicLong();
+
+    private final AtomicLong commits = new AtomicLong();
+
+    private final Object progress = new Object();
+
+    private final long startNanos = System.nanoTime();
+
+    private volatile boolean closed = false;
+
+    private volatile IOException failure;
+
+    public AuditLog(Path file, int queueCapacity, int maxBatchSize, BackpressurePolicy backpressurePolicy) throws IOException {
+        this.queue = new ArrayBlockingQueue<AuditRecord>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.backpressurePolicy = backpressurePolicy;
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+
+        this.writer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeRecords();
+            }
+        }, "audit-log-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    @Override
+    public void onDecision(Organization organization, AuthorizationCheck check, User user, boolean allowed) {
+        String organizationName = organization == null ? null : organization.getName();
+        submit(new AuditRecord(System.currentTimeMillis(), AUTHORIZATION, organizationName, check.name(), nameOf(user), null,
+                allowed ? "ALLOWED" : "DENIED"));
+    }
+
+    @Override
+    public void onChange(OrganizationChange change) {
+        String organizationName = change.getOrganization() == null ? null : change.getOrganization().getName();
+        submit(new AuditRecord(System.currentTimeMillis(), MUTATION, organizationName, change.getType().name(),
+                nameOf(change.getActor()), nameOf(change.getSubject()), "APPLIED"));
+    }
+
+    public void submit(AuditRecord record) {
+        submitted.increment();
+        numOfSubmitting.incrementAndGet();
+        try {
+            if (closed || failure != null) {
+                dropped.increment();
+            } else if (backpressurePolicy == BackpressurePolicy.BLOCK) {
+                put(record);
+            } else if (!queue.offer(record)) {
+                dropped.increment();
+            }
+        } finally {
+            numOfSubmitting.decrementAndGet();
+        }
+    }
+
+    private void put(AuditRecord record) {
+        try {
+            while (!queue.offer(record, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (failure != null) {
+                    dropped.increment();
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            dropped.increment();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public AuditStatistics getStatistics() {
+        AuditRecord oldest = queue.peek();
+        long oldestPendingMillis = oldest == null ? 0 : Math.max(0, System.currentTimeMillis() - oldest.getTimestamp());
+        double elapsedSeconds = (System.nanoTime() - startNanos) / 1e9;
+
+        return new AuditStatistics(submitted.sum(), written.get(), dropped.sum(), commits.get(), oldestPendingMillis,
+                written.get() / elapsedSeconds);
+    }
+
+    public IOException getFailure() {
+        return failure;
+    }
+
+    /**
+     * Waits until every record submitted before this call is on disk or dropped.
+     */
+    public boolean flush(long timeoutMillis) throws InterruptedException {
+        long target = submitted.sum();
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (progress) {
+            while (written.get() + dropped.sum() < target) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || failure != null) {
+                    return false;
+                }
+                progress.wait(remaining);
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeRecords() {
+        List<AuditRecord> batch = new ArrayList<AuditRecord>(maxBatchSize);
+        StringBuilder lines = new StringBuilder();
+        try {
+            // a producer that saw the log open is still submitting, possibly blocked on a full queue
+            while (!closed || numOfSubmitting.get() > 0 || !queue.isEmpty()) {
+                AuditRecord first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatchSize - 1);
+                commit(batch, lines);
+                batch.clear();
+                lines.setLength(0);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            failure = e;
+            dropped.add(batch.size() + queue.size());
+            queue.clear();
+        } finally {
+            synchronized (progress) {
+                progress.notifyAll();
+            }
+        }
+    }
+
+    private void commit(List<AuditRecord> batch, StringBuilder lines) throws IOException {
+        for (AuditRecord record : batch) {
+            record.appendTo(lines);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+
+        written.addAndGet(batch.size());
+        commits.incrementAndGet();
+        synchronized (progress) {
+            progress.notifyAll();
+        }
+    }
+
+    private static String nameOf(User user) {
+        return user == null ? null : user.getName();
+    }
+}
@@ -0,0 +1,75 @@
+package rdk.audit;
+
+
+public class AuditRecord {
+
+    private final long timestamp;
+
+    private final String category;
+
+    private final String organizationName;
+
+    private final String operation;
+
+    private final String userName;
+
+    private final String subjectName;
+
+    private final String outcome;
+
+    public AuditRecord(long timestamp, String category, String organizationName, String operation, String userName,
+            String subjectName, String outcome) {
+        this.timestamp = timestamp;
+        this.category = category;
+        this.organizationName = organizationName;
+        this.operation = operation;
+        this.userName = userName;
+        this.subjectName = subjectName;
+        this.outcome = outcome;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public String getOrganizationName() {
+        return organizationName;
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public String getSubjectName() {
+        return subjectName;
+    }
+
+    public String getOutcome() {
+        return outcome;
+    }
+
+    void appendTo(StringBuilder line) {
+        line.append(timestamp).append('\t')
+            .append(category).append('\t')
+            .append(escape(organizationName)).append('\t')
+            .append(operation).append('\t')
+            .append(escape(userName)).append('\t')
+            .append(escape(subjectName)).append('\t')
+            .append(outcome).append('\n');
+    }
+
+    private static String escape(String value) {
+        if (value == null) {
+            return "-";
+        }
+        return value.replace('\t', ' ').replace('\n', ' ');
+    }
+}
@@ -0,0 +1,61 @@
+package rdk.audit;
+
+
+public class AuditStatistics {
+
+    private final long numOfSubmitted;
+
+    private final long numOfWritten;
+
+    private final long numOfDropped;
+
+    private final long numOfCommits;
+
+    private final long oldestPendingMillis;
+
+    private final double recordsPerSecond;
+
+    AuditStatistics(long numOfSubmitted, long numOfWritten, long numOfDropped, long numOfCommits, long oldestPendingMillis,
+            double recordsPerSecond) {
+        this.numOfSubmitted = numOfSubmitted;
+        this.numOfWritten = numOfWritten;
+        this.numOfDropped = numOfDropped;
+        this.numOfCommits = numOfCommits;
+        this.oldestPendingMillis = oldestPendingMillis;
+        this.recordsPerSecond = recordsPerSecond;
+    }
+
+    public long getNumOfSubmitted() {
+        return numOfSubmitted;
+    }
+
+    public long getNumOfWritten() {
+        return numOfWritten;
+    }
+
+    public long getNumOfDropped() {
+        return numOfDropped;
+    }
+
+    public long getNumOfCommits() {
+        return numOfCommits;
+    }
+
+    /**
+     * Records accepted but not yet on disk.
+     */
+    public long getLag() {
+        return numOfSubmitted - numOfDropped - numOfWritten;
+    }
+
+    /**
+     * Age of the oldest record still waiting in the queue, zero when the queue is empty.
+     */
+    public long getOldestPendingMillis() {
+        return oldestPendingMillis;
+    }
+
+    public double getRecordsPerSecond() {
+        return recordsPerSecond;
+    }
+}
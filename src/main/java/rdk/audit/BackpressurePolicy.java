@@ -0,0 +1,9 @@
+package rdk.audit;
+
+
+public enum BackpressurePolicy {
+    /** The caller waits until the writer makes room in the queue. */
+    BLOCK,
+    /** The record is dropped and counted when the queue is full. */
+    DROP;
+}
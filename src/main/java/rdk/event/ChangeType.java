@@ -0,0 +1,20 @@
+package rdk.event;
+
+
+public enum ChangeType {
+    ORGANIZATION_CREATED,
+    ACTIVATION_REQUESTED,
+    MEMBER_ADDED,
+    ACKNOWLEDGMENTS_CHANGED,
+    ORGANIZATION_ACTIVATED,
+    MEMBER_PROMOTED,
+    REPRESENTATIVE_CANCELLED,
+    DOCUMENT_ADDED,
+    DOCUMENT_CONFIRMATIONS_CHANGED,
+    DOCUMENT_CONFIRMED,
+    DEFAULT_ACKNOWLEDGMENTS_CHANGED,
+    DEFAULT_DOCUMENT_CONFIRMATIONS_CHANGED,
+    DOCUMENT_EXPIRED,
+    MEMBER_ROLE_CHANGED,
+    DOCUMENT_STATUS_CHANGED;
+}
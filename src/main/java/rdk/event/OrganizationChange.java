@@ -0,0 +1,98 @@
+package rdk.event;
+
+import rdk.model.Document;
+import rdk.model.Organization;
+import rdk.model.User;
+
+
+/**
+ * A successful mutation. Changes of global defaults are published once without an
+ * organization, followed by a change for every organization they applied to. A published
+ * change of an organization carries the version it advanced the organization to. Members
+ * promoted by a changed threshold, or whose role changed in another organization, are
+ * published as {@link ChangeType#MEMBER_ROLE_CHANGED}, and documents confirmed by a
+ * changed threshold as {@link ChangeType#DOCUMENT_STATUS_CHANGED}, both without an actor.
+ */
+public class OrganizationChange {
+
+    private final ChangeType type;
+
+    private final Organization organization;
+
+    private final User actor;
+
+    private final User subject;
+
+    private final Document document;
+
+    private final int value;
+
+    private final long version;
+
+    public OrganizationChange(ChangeType type, Organization organization, User actor, User subject, Document document, int value) {
+        this(type, organization, actor, subject, document, value, 0);
+    }
+
+    private OrganizationChange(ChangeType type, Organization organization, User actor, User subject, Document document, int value,
+            long version) {
+        this.type = type;
+        this.organization = organization;
+        this.actor = actor;
+        this.subject = subject;
+        this.document = document;
+        this.value = value;
+        this.version = version;
+    }
+
+    public static OrganizationChange of(ChangeType type, Organization organization, User actor) {
+        return new OrganizationChange(type, organization, actor, null, null, 0);
+    }
+
+    public static OrganizationChange of(ChangeType type, Organization organization, User actor, User subject) {
+        return new OrganizationChange(type, organization, actor, subject, null, 0);
+    }
+
+    public static OrganizationChange of(ChangeType type, Organization organization, User actor, int value) {
+        return new OrganizationChange(type, organization, actor, null, null, value);
+    }
+
+    public static OrganizationChange of(ChangeType type, Organization organization, User actor, Document document) {
+        return new OrganizationChange(type, organization, actor, null, document, 0);
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public Organization getOrganization() {
+        return organization;
+    }
+
+    public User getActor() {
+        return actor;
+    }
+
+    public User getSubject() {
+        return subject;
+    }
+
+    public Document getDocument() {
+        return document;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * @return the organization's version right after this change, {@code 0} for changes of
+     *         global defaults and changes not published yet
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public OrganizationChange withVersion(long version) {
+        return new OrganizationChange(type, organization, actor, subject, document, value, version);
+    }
+}
@@ -0,0 +1,11 @@
+package rdk.event;
+
+
+/**
+ * Notified synchronously, on the calling thread, after a mutation made through
+ * {@link rdk.service.OrganizationService} has succeeded.
+ */
+public interface OrganizationChangeListener {
+
+    void onChange(OrganizationChange change);
+}
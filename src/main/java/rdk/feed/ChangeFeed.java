@@ -0,0 +1,141 @@
+package rdk.feed;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+import org.springframework.stereotype.Component;
+
+import rdk.event.OrganizationChange;
+import rdk.event.OrganizationChangeListener;
+import rdk.model.Organization;
+
+
+/**
+ * Keeps the latest changes of every organization, numbered with the organization's
+ * version, and signals subscribers when there are new ones. Subscribers are not handed
+ * the changes themselves: they read everything after the last sequence number they saw
+ * when they are ready, so a slow subscriber gets one coalesced page instead of a backlog.
+ * Feeds without subscribers that have not changed for a while can be evicted with
+ * {@link #evictIdleFeeds(long)}; readers of an evicted feed get a reset page.
+ */
+@Component
+public class ChangeFeed implements OrganizationChangeListener {
+
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    public static final int MAX_PAGE_SIZE = 256;
+
+    public interface Subscriber {
+
+        /**
+         * Called on the thread that changed the organization, so it must not block.
+         */
+        void changesAvailable(Organization organization);
+    }
+
+    private final int capacity;
+
+    private final Map<Organization, OrganizationFeed> feeds = new ConcurrentHashMap<Organization, OrganizationFeed>();
+
+    public ChangeFeed() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ChangeFeed(int capacity) {
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void onChange(OrganizationChange change) {
+        Organization organization = change.getOrganization();
+        if (organization == null) {
+            return;
+        }
+        final FeedEntry entry = new FeedEntry(change.getVersion(), change);
+        OrganizationFeed feed = feeds.compute(organization, new BiFunction<Organization, OrganizationFeed, OrganizationFeed>() {
+            @Override
+            public OrganizationFeed apply(Organization organization, OrganizationFeed feed) {
+                if (feed == null) {
+                    feed = new OrganizationFeed(capacity);
+                }
+                feed.append(entry);
+                return feed;
+            }
+        });
+        for (Subscriber subscriber : feed.subscribers) {
+            subscriber.changesAvailable(organization);
+        }
+    }
+
+    public FeedPage read(Organization organization, long since) {
+        OrganizationFeed feed = feeds.get(organization);
+        if (feed == null || feed.getLastSequence() == 0) {
+            // nothing kept: the version is bumped after the mutation, so reloading the
+            // organization includes every change up to it
+            long version = organization.getVersion();
+            return since == version ? FeedPage.empty(since) : FeedPage.reset(version);
+        }
+        return feed.read(since, MAX_PAGE_SIZE);
+    }
+
+    /**
+     * Signals the subscriber right away when there already are changes after
+     * {@code since}, or when they are no longer kept.
+     */
+    public void subscribe(Organization organization, long since, final Subscriber subscriber) {
+        feeds.compute(organization, new BiFunction<Organization, OrganizationFeed, OrganizationFeed>() {
+            @Override
+            public OrganizationFeed apply(Organization organization, OrganizationFeed feed) {
+                if (feed == null) {
+                    feed = new OrganizationFeed(capacity);
+                }
+                feed.subscribers.add(subscriber);
+                return feed;
+            }
+        });
+        if (!read(organization, since).isEmpty()) {
+            subscriber.changesAvailable(organization);
+        }
+    }
+
+    public void unsubscribe(Organization organization, Subscriber subscriber) {
+        OrganizationFeed feed = feeds.get(organization);
+        if (feed != null) {
+            feed.subscribers.remove(subscriber);
+        }
+    }
+
+    public int getNumOfSubscribers(Organization organization) {
+        OrganizationFeed feed = feeds.get(organization);
+        return feed == null ? 0 : feed.subscribers.size();
+    }
+
+    public int getNumOfFeeds() {
+        return feeds.size();
+    }
+
+    /**
+     * Drops the feeds without subscribers whose last change is older than the given time.
+     *
+     * @return the number of feeds dropped
+     */
+    public int evictIdleFeeds(final long changedBeforeMillis) {
+        final int[] evicted = new int[1];
+        BiFunction<Organization, OrganizationFeed, OrganizationFeed> evictIfIdle =
+                new BiFunction<Organization, OrganizationFeed, OrganizationFeed>() {
+            @Override
+            public OrganizationFeed apply(Organization organization, OrganizationFeed feed) {
+                if (feed.subscribers.isEmpty() && feed.getLastAppendMillis() < changedBeforeMillis) {
+                    evicted[0]++;
+                    return null;
+                }
+                return feed;
+            }
+        };
+        for (Organization organization : feeds.keySet()) {
+            feeds.computeIfPresent(organization, evictIfIdle);
+        }
+        return evicted[0];
+    }
+}
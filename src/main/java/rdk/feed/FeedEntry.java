@@ -0,0 +1,70 @@
+package rdk.feed;
+
+import rdk.event.ChangeType;
+import rdk.event.OrganizationChange;
+import rdk.model.User;
+
+
+/**
+ * A change as served to subscribers, identified by its sequence number within the
+ * organization. Users are referred to by name and documents by number.
+ */
+public class FeedEntry {
+
+    private final long sequence;
+
+    private final ChangeType type;
+
+    private final String actor;
+
+    private final String subject;
+
+    private final Integer document;
+
+    private final int value;
+
+    FeedEntry(long sequence, OrganizationChange change) {
+        this.sequence = sequence;
+        this.type = change.getType();
+        this.actor = nameOf(change.getActor());
+        this.subject = nameOf(change.getSubject());
+        this.document = change.getDocument() == null ? null : change.getDocument().getNumber();
+        this.value = change.getValue();
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public String getActor() {
+        return actor;
+    }
+
+    public String getSubject() {
+        return subject;
+    }
+
+    public Integer getDocument() {
+        return document;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Entries with equal keys describe the same thing, so only the latest of them matters to
+     * a subscriber that receives both at once.
+     */
+    String coalescingKey() {
+        return type + "/" + subject + "/" + document;
+    }
+
+    private static String nameOf(User user) {
+        return user == null ? null : user.getName();
+    }
+}
@@ -0,0 +1,62 @@
+package rdk.feed;
+
+import java.util.Collections;
+import java.util.List;
+
+
+/**
+ * Changes after the sequence number a subscriber asked for. A reset page has no entries
+ * and tells the subscriber that the changes it missed are no longer kept, so it has to
+ * reload the organization and continue from {@link #getNextSequence()}.
+ */
+public class FeedPage {
+
+    private final List<FeedEntry> entries;
+
+    private final long nextSequence;
+
+    private final boolean reset;
+
+    private final int numOfCoalesced;
+
+    FeedPage(List<FeedEntry> entries, long nextSequence, boolean reset, int numOfCoalesced) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.nextSequence = nextSequence;
+        this.reset = reset;
+        this.numOfCoalesced = numOfCoalesced;
+    }
+
+    static FeedPage empty(long since) {
+        return new FeedPage(Collections.<FeedEntry> emptyList(), since, false, 0);
+    }
+
+    static FeedPage reset(long lastSequence) {
+        return new FeedPage(Collections.<FeedEntry> emptyList(), lastSequence, true, 0);
+    }
+
+    public List<FeedEntry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Sequence number to ask for the following changes with.
+     */
+    public long getNextSequence() {
+        return nextSequence;
+    }
+
+    public boolean isReset() {
+        return reset;
+    }
+
+    /**
+     * Number of entries left out because a later entry in this page replaces them.
+     */
+    public int getNumOfCoalesced() {
+        return numOfCoalesced;
+    }
+
+    public boolean isEmpty() {
+        return entries.isEmpty() && !reset;
+    }
+}
@@ -0,0 +1,93 @@
+package rdk.feed;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Latest changes of one organization in a ring buffer that grows up to its capacity, and
+ * the subscribers waiting for more of them.
+ */
+class OrganizationFeed {
+
+    private static final int INITIAL_CAPACITY = 8;
+
+    private final int capacity;
+
+    private FeedEntry[] entries;
+
+    private int newest = -1;
+
+    private int size = 0;
+
+    private volatile long lastAppendMillis = System.currentTimeMillis();
+
+    final Set<ChangeFeed.Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    OrganizationFeed(int capacity) {
+        this.capacity = capacity;
+        this.entries = new FeedEntry[Math.min(INITIAL_CAPACITY, capacity)];
+    }
+
+    synchronized void append(FeedEntry entry) {
+        if (size == entries.length && size < capacity) {
+            FeedEntry[] grown = new FeedEntry[Math.min(size * 2, capacity)];
+            for (int age = 0; age < size; age++) {
+                grown[size - 1 - age] = entryAt(age);
+            }
+            entries = grown;
+            newest = size - 1;
+        }
+        newest = (newest + 1) % entries.length;
+        entries[newest] = entry;
+        size = Math.min(size + 1, entries.length);
+        lastAppendMillis = System.currentTimeMillis();
+    }
+
+    long getLastAppendMillis() {
+        return lastAppendMillis;
+    }
+
+    synchronized long getLastSequence() {
+        return size == 0 ? 0 : entries[newest].getSequence();
+    }
+
+    /**
+     * Reads at most {@code maxEntries} changes after {@code since}, keeping only the latest
+     * of the entries that describe the same thing.
+     */
+    synchronized FeedPage read(long since, int maxEntries) {
+        long lastSequence = entries[newest].getSequence();
+        long oldestSequence = entryAt(size - 1).getSequence();
+        if (since > lastSequence || since < oldestSequence - 1) {
+            return FeedPage.reset(lastSequence);
+        }
+
+        int available = 0;
+        while (available < size && entryAt(available).getSequence() > since) {
+            available++;
+        }
+        int count = Math.min(available, maxEntries);
+        if (count == 0) {
+            return FeedPage.empty(since);
+        }
+        Map<String, FeedEntry> latest = new LinkedHashMap<String, FeedEntry>();
+        for (int age = available - 1; age >= available - count; age--) {
+            FeedEntry entry = entryAt(age);
+            latest.remove(entry.coalescingKey());
+            latest.put(entry.coalescingKey(), entry);
+        }
+        long nextSequence = entryAt(available - count).getSequence();
+        return new FeedPage(new ArrayList<FeedEntry>(latest.values()), nextSequence, false, count - latest.size());
+    }
+
+    /**
+     * @param age 0 for the newest entry
+     */
+    private FeedEntry entryAt(int age) {
+        return entries[Math.floorMod(newest - age, entries.length)];
+    }
+}
@@ -0,0 +1,157 @@
+package rdk.idempotency;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Remembers the results of actions by key for a limited time, so an action retried with
+ * the same key is performed only once. Claiming a new key is a single
+ * {@code putIfAbsent}; concurrent calls with a key whose action is still running wait for
+ * its result. Only non-null results are remembered: when the action fails or returns
+ * {@code null} the key is released and the next call performs it again.
+ * <p>
+ * Keys are evicted in insertion order once they are older than the time to live or there
+ * are more than {@code maxEntries} of them. An evicted key is forgotten, so capacity should
+ * cover the keys expected within the time to live. A key whose action is still running is
+ * never evicted nor expired, so retries keep waiting for it instead of running the action
+ * again. Beyond capacity eviction does not stop at it either: it leaves the queue, no
+ * longer counts against capacity, and is queued again behind the newer keys once its
+ * action completes.
+ */
+public class IdempotencyCache<K, V> {
+
+    public static final int DEFAULT_MAX_ENTRIES = 100000;
+
+    public static final long DEFAULT_TIME_TO_LIVE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    public interface Action<V, E extends Exception> {
+
+        V perform() throws E;
+    }
+
+    private final int maxEntries;
+
+    private final long timeToLiveMillis;
+
+    private final LongSupplier millisClock;
+
+    private final ConcurrentMap<K, Entry<K, V>> entries = new ConcurrentHashMap<K, Entry<K, V>>();
+
+    private final Queue<Entry<K, V>> evictionQueue = new ConcurrentLinkedQueue<Entry<K, V>>();
+
+    private final AtomicInteger numOfQueued = new AtomicInteger();
+
+    public IdempotencyCache(int maxEntries, long timeToLiveMillis) {
+        this(maxEntries, timeToLiveMillis, new LongSupplier() {
+            @Override
+            public long getAsLong() {
+                return System.currentTimeMillis();
+            }
+        });
+    }
+
+    public IdempotencyCache(int maxEntries, long timeToLiveMillis, LongSupplier millisClock) {
+        this.maxEntries = maxEntries;
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.millisClock = millisClock;
+    }
+
+    /**
+     * @return the remembered result for the key, or the result of performing the action
+     */
+    public <E extends Exception> V performOnce(K key, Action<V, E> action) throws E {
+        while (true) {
+            long now = millisClock.getAsLong();
+            Entry<K, V> entry = entries.get(key);
+            if (entry != null && !entry.isExpired(now, timeToLiveMillis)) {
+                V result = entry.result.join();
+                if (result != null) {
+                    return result;
+                }
+                continue;
+            }
+
+            Entry<K, V> claimed = new Entry<K, V>(key, now);
+            if (entry == null ? entries.putIfAbsent(key, claimed) != null : !entries.replace(key, entry, claimed)) {
+                continue;
+            }
+            queue(claimed);
+            evict(now);
+            return perform(claimed, action);
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private <E extends Exception> V perform(Entry<K, V> claimed, Action<V, E> action) throws E {
+        V result = null;
+        try {
+            result = action.perform();
+            return result;
+        } finally {
+            if (result == null) {
+                entries.remove(claimed.key, claimed);
+            }
+            claimed.result.complete(result);
+        }
+    }
+
+    private void queue(Entry<K, V> entry) {
+        evictionQueue.offer(entry);
+        numOfQueued.incrementAndGet();
+    }
+
+    private void evict(long now) {
+        Entry<K, V> oldest;
+        while ((oldest = evictionQueue.peek()) != null
+                && (numOfQueued.get() > maxEntries || oldest.isExpired(now, timeToLiveMillis))) {
+            if (evictionQueue.remove(oldest)) {
+                numOfQueued.decrementAndGet();
+                if (oldest.result.isDone()) {
+                    entries.remove(oldest.key, oldest);
+                } else {
+                    requeueWhenDone(oldest);
+                }
+            }
+        }
+    }
+
+    private void requeueWhenDone(final Entry<K, V> running) {
+        running.result.whenComplete(new BiConsumer<V, Throwable>() {
+            @Override
+            public void accept(V result, Throwable failure) {
+                if (entries.get(running.key) == running) {
+                    queue(running);
+                }
+            }
+        });
+    }
+
+    private static class Entry<K, V> {
+
+        private final K key;
+
+        private final long created;
+
+        private final CompletableFuture<V> result = new CompletableFuture<V>();
+
+        Entry(K key, long created) {
+            this.key = key;
+            this.created = created;
+        }
+
+        boolean isExpired(long now, long timeToLiveMillis) {
+            return result.isDone() && now - created >= timeToLiveMillis;
+        }
+    }
+}
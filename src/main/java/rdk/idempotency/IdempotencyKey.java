@@ -0,0 +1,48 @@
+package rdk.idempotency;
+
+import java.util.Objects;
+
+import rdk.model.Organization;
+import rdk.model.User;
+
+
+/**
+ * A key chosen by a client, scoped to the organization and the user it acts as, so
+ * clients cannot collide with each other's keys.
+ */
+public class IdempotencyKey {
+
+    private final Organization organization;
+
+    private final User user;
+
+    private final String key;
+
+    public IdempotencyKey(Organization organization, User user, String key) {
+        this.organization = organization;
+        this.user = user;
+        this.key = key;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof IdempotencyKey)) {
+            return false;
+        }
+        IdempotencyKey that = (IdempotencyKey) other;
+        return organization == that.organization && Objects.equals(user, that.user) && key.equals(that.key);
+    }
+
+    @Override
+    public int hashCode() {
+        return (System.identityHashCode(organization) * 31 + Objects.hashCode(user)) * 31 + key.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return organization.getName() + "/" + user.getName() + "/" + key;
+    }
+}
@@ -3,6 +3,7 @@ package rdk.init;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
 import org.springframework.context.annotation.PropertySource;
 import org.springframework.context.annotation.ComponentScan.Filter;
 import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
@@ -11,6 +12,7 @@ import org.springframework.stereotype.Controller;
 @Configuration
 @ComponentScan(value = "rdk", excludeFilters = @Filter({ Configuration.class, Controller.class}))
 @PropertySource({"classpath:application.properties"})
+@Import({ RateLimitConfig.class, ReadModelConfig.class })
 public class ApplicationConfig {
 
     @Bean
@@ -0,0 +1,40 @@
+package rdk.init;
+
+import rdk.service.DocumentService;
+import rdk.service.OrganizationRegistry;
+import rdk.service.OrganizationService;
+
+/**
+ * Plain Java wiring of the domain services for embedding them where no Spring context is
+ * wanted, e.g. batch jobs.
+ */
+public class DomainEngine {
+
+    private final DocumentService documentService;
+
+    private final OrganizationRegistry organizationRegistry;
+
+    private final OrganizationService organizationService;
+
+    private DomainEngine(DocumentService documentService, OrganizationRegistry organizationRegistry) {
+        this.documentService = documentService;
+        this.organizationRegistry = organizationRegistry;
+        this.organizationService = new OrganizationService(documentService, organizationRegistry);
+    }
+
+    public static DomainEngine create() {
+        return new DomainEngine(new DocumentService(), new OrganizationRegistry());
+    }
+
+    public DocumentService getDocumentService() {
+        return documentService;
+    }
+
+    public OrganizationRegistry getOrganizationRegistry() {
+        return organizationRegistry;
+    }
+
+    public OrganizationService getOrganizationService() {
+        return organizationService;
+    }
+}
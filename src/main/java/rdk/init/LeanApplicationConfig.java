@@ -0,0 +1,35 @@
+package rdk.init;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import rdk.service.DocumentService;
+import rdk.service.OrganizationRegistry;
+import rdk.service.OrganizationService;
+
+/**
+ * Wires only the domain services, without component scanning and without Spring Boot
+ * autoconfiguration of JPA and the web stack.
+ */
+@Configuration
+@Profile(LeanApplicationConfig.LEAN_PROFILE)
+public class LeanApplicationConfig {
+
+    public static final String LEAN_PROFILE = "lean";
+
+    @Bean
+    public DocumentService documentService() {
+        return new DocumentService();
+    }
+
+    @Bean
+    public OrganizationRegistry organizationRegistry() {
+        return new OrganizationRegistry();
+    }
+
+    @Bean
+    public OrganizationService organizationService() {
+        return new OrganizationService(documentService(), organizationRegistry());
+    }
+}
@@ -0,0 +1,32 @@
+package rdk.init;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import rdk.ratelimit.DocumentRateLimiter;
+
+
+/**
+ * Document creation is only rate limited with {@code rdk.ratelimit.enabled=true}; the
+ * limits are taken from the remaining {@code rdk.ratelimit.*} properties.
+ */
+@Configuration
+public class RateLimitConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "rdk.ratelimit", name = "enabled", havingValue = "true")
+    public DocumentRateLimiter documentRateLimiter(
+            @Value("${rdk.ratelimit.organization.permits-per-second}") double organizationPermitsPerSecond,
+            @Value("${rdk.ratelimit.organization.capacity}") int organizationCapacity,
+            @Value("${rdk.ratelimit.user.permits-per-second}") double userPermitsPerSecond,
+            @Value("${rdk.ratelimit.user.capacity}") int userCapacity,
+            @Value("${rdk.ratelimit.max-buckets}") int maxBuckets,
+            @Value("${rdk.ratelimit.sweep-interval-millis}") long sweepIntervalMillis) {
+        DocumentRateLimiter documentRateLimiter = new DocumentRateLimiter(organizationPermitsPerSecond, organizationCapacity,
+                userPermitsPerSecond, userCapacity, maxBuckets);
+        documentRateLimiter.startSweeping(sweepIntervalMillis);
+        return documentRateLimiter;
+    }
+}
@@ -0,0 +1,27 @@
+package rdk.init;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import rdk.readmodel.OrganizationReadModel;
+import rdk.service.OrganizationService;
+
+
+/**
+ * Organization summaries are only projected with {@code rdk.readmodel.enabled=true}; how
+ * far they may lag behind is taken from {@code rdk.readmodel.max-staleness-millis}.
+ */
+@Configuration
+public class ReadModelConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "rdk.readmodel", name = "enabled", havingValue = "true")
+    public OrganizationReadModel organizationReadModel(OrganizationService organizationService,
+            @Value("${rdk.readmodel.max-staleness-millis}") long maxStalenessMillis) {
+        OrganizationReadModel organizationReadModel = new OrganizationReadModel(organizationService, maxStalenessMillis);
+        organizationReadModel.start();
+        return organizationReadModel;
+    }
+}
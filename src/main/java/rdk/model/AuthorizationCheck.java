@@ -0,0 +1,16 @@
+package rdk.model;
+
+
+public enum AuthorizationCheck {
+    OWNERSHIP, ADMIN, MEMBERSHIP,
+
+    /**
+     * The user has the role an action requires, such as being a representative.
+     */
+    ROLE,
+
+    /**
+     * The user is not the owner, who cannot join the organization as a member.
+     */
+    NOT_OWNER;
+}
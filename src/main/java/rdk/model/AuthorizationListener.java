@@ -0,0 +1,18 @@
+package rdk.model;
+
+
+/**
+ * Notified of every authorization decision an {@link Organization} makes, whether the
+ * user was allowed or denied. Decisions about the global defaults, which concern no
+ * organization, are reported with a {@code null} organization.
+ */
+public interface AuthorizationListener {
+
+    AuthorizationListener NONE = new AuthorizationListener() {
+        @Override
+        public void onDecision(Organization organization, AuthorizationCheck check, User user, boolean allowed) {
+        }
+    };
+
+    void onDecision(Organization organization, AuthorizationCheck check, User user, boolean allowed);
+}
@@ -1,6 +1,8 @@
 package rdk.model;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
 
 
 public class Document {
@@ -11,6 +13,10 @@ public class Document {
     
     private DocumentStatus status = DocumentStatus.UNCONFIRMED;
 
+    private int number = -1;
+
+    private Set<User> confirmations;
+
     public Document(User creator) {
         this.creator = creator;
     }
@@ -26,4 +32,30 @@ public class Document {
     public DocumentStatus getStatus() {
         return status;
     }
+
+    /**
+     * Position of this document in its organization's documents, -1 until it is added.
+     */
+    public int getNumber() {
+        return number;
+    }
+
+    void setNumber(int number) {
+        this.number = number;
+    }
+
+    public Set<User> getConfirmations() {
+        if (confirmations == null) {
+            confirmations = new HashSet<User>();
+        }
+        return confirmations;
+    }
+
+    void confirmBy(User representative) {
+        getConfirmations().add(representative);
+    }
+
+    void setStatus(DocumentStatus status) {
+        this.status = status;
+    }
 }
@@ -0,0 +1,76 @@
+package rdk.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+
+/**
+ * Numbers of an organization's documents partitioned by status, each partition a compact
+ * array. Every document remembers its slot in its partition, so moving a document to
+ * another status is O(1): the last number of the old partition takes its slot. The order
+ * within a partition is therefore unspecified.
+ */
+class DocumentIndex {
+
+    private static final int INITIAL_CAPACITY = 4;
+
+    private final int[][] numbers = new int[DocumentStatus.values().length][];
+
+    private final int[] sizes = new int[DocumentStatus.values().length];
+
+    private int[] slots = new int[INITIAL_CAPACITY];
+
+    DocumentIndex() {
+        for (int status = 0; status < numbers.length; status++) {
+            numbers[status] = new int[INITIAL_CAPACITY];
+        }
+    }
+
+    void documentAdded(Document document) {
+        if (document.getNumber() >= slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(slots.length * 2, document.getNumber() + 1));
+        }
+        add(document.getStatus(), document.getNumber());
+    }
+
+    void documentChanged(DocumentStatus statusBefore, Document document) {
+        if (statusBefore != document.getStatus()) {
+            remove(statusBefore, document.getNumber());
+            add(document.getStatus(), document.getNumber());
+        }
+    }
+
+    int size(DocumentStatus status) {
+        return sizes[status.ordinal()];
+    }
+
+    /**
+     * Copy of the documents with the given status.
+     */
+    List<Document> documents(DocumentStatus status, List<Document> documents) {
+        int partition = status.ordinal();
+        List<Document> copy = new ArrayList<Document>(sizes[partition]);
+        for (int slot = 0; slot < sizes[partition]; slot++) {
+            copy.add(documents.get(numbers[partition][slot]));
+        }
+        return copy;
+    }
+
+    private void add(DocumentStatus status, int number) {
+        int partition = status.ordinal();
+        if (sizes[partition] == numbers[partition].length) {
+            numbers[partition] = Arrays.copyOf(numbers[partition], sizes[partition] * 2);
+        }
+        slots[number] = sizes[partition];
+        numbers[partition][sizes[partition]++] = number;
+    }
+
+    private void remove(DocumentStatus status, int number) {
+        int partition = status.ordinal();
+        int slot = slots[number];
+        int last = numbers[partition][--sizes[partition]];
+        numbers[partition][slot] = last;
+        slots[last] = slot;
+    }
+}
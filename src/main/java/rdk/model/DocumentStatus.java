@@ -2,5 +2,5 @@ package rdk.model;
 
 
 public enum DocumentStatus {
-    UNCONFIRMED, CONFIRMED;
+    UNCONFIRMED, CONFIRMED, EXPIRED;
 }
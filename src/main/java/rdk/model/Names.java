@@ -0,0 +1,50 @@
+package rdk.model;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+
+/**
+ * Deduplicates user and organization names, which repeat across many instances. The
+ * canonical copies are held weakly in our own striped maps rather than the JVM string
+ * table, so names no longer referenced are collected and arbitrary user input cannot fill
+ * a shared, fixed-size table.
+ */
+public final class Names {
+
+    private static final int NUM_OF_STRIPES = 16;
+
+    private static final Stripe[] STRIPES = new Stripe[NUM_OF_STRIPES];
+
+    static {
+        for (int i = 0; i < NUM_OF_STRIPES; i++) {
+            STRIPES[i] = new Stripe();
+        }
+    }
+
+    private Names() {
+    }
+
+    public static String canonical(String name) {
+        if (name == null) {
+            return null;
+        }
+        return STRIPES[(name.hashCode() & Integer.MAX_VALUE) % NUM_OF_STRIPES].canonical(name);
+    }
+
+    private static class Stripe {
+
+        private final Map<String, WeakReference<String>> names = new WeakHashMap<String, WeakReference<String>>();
+
+        synchronized String canonical(String name) {
+            WeakReference<String> reference = names.get(name);
+            String canonical = reference == null ? null : reference.get();
+            if (canonical == null) {
+                canonical = name;
+                names.put(canonical, new WeakReference<String>(canonical));
+            }
+            return canonical;
+        }
+    }
+}
@@ -1,17 +1,29 @@
 package rdk.model;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
 
 import rdk.exception.UnauthorizedAccessException;
 import rdk.exception.UnauthorizedDocumentCreationException;
+import rdk.monitoring.DomainEvents;
 
 
 public class Organization {
 
+    public static final int DEFAULT_NUM_OF_ACKNOWLEDGMENTS = 3;
+
+    public static final int DEFAULT_NUM_OF_DOCUMENT_CONFIRMATIONS = 3;
+
+    private static final AtomicLongFieldUpdater<Organization> VERSION = AtomicLongFieldUpdater.newUpdater(Organization.class, "version");
+
     private String name;
 
     private User owner;
@@ -22,12 +34,26 @@ public class Organization {
 
     private boolean activationAwaiting = false;
 
-    private int numOfAcknowledgments = 3;
+    private int numOfAcknowledgments = DEFAULT_NUM_OF_ACKNOWLEDGMENTS;
+
+    private int numOfDocumentConfirmations = DEFAULT_NUM_OF_DOCUMENT_CONFIRMATIONS;
 
-    private int numOfDocumentConfirmations = 3;
+    private boolean defaultNumOfAcknowledgments = true;
+
+    private boolean defaultNumOfDocumentConfirmations = true;
 
     private List<Document> documents;
 
+    private final OrganizationCounters counters = new OrganizationCounters();
+
+    private final DocumentIndex documentIndex = new DocumentIndex();
+
+    private PromotionEdges promotionEdges;
+
+    private AuthorizationListener authorizationListener = AuthorizationListener.NONE;
+
+    private volatile long version = 1;
+
     public Organization(String name, User owner, boolean active, boolean activationAwaiting, Set<User> members) {
         owner.setOwnerRole();
 
@@ -36,6 +62,22 @@ public class Organization {
         this.active = active;
         this.activationAwaiting = activationAwaiting;
         this.members = members;
+
+        for (User member : getMembers()) {
+            counters.memberAdded(member);
+            for (User promotor : member.getPromoters()) {
+                promotionEdges().promoted(member, promotor);
+            }
+        }
+    }
+
+    /**
+     * A new inactive organization without members, using the given defaults.
+     */
+    public Organization(String name, User owner, int numOfAcknowledgments, int numOfDocumentConfirmations) {
+        this(name, owner, false, false, null);
+        this.numOfAcknowledgments = numOfAcknowledgments;
+        this.numOfDocumentConfirmations = numOfDocumentConfirmations;
     }
 
     public boolean isActive() {
@@ -49,8 +91,9 @@ public class Organization {
     public void awaitForActivation(User user) throws UnauthorizedAccessException {
         if (isOwnedBy(user)) {
             this.activationAwaiting = true;
+            advanceVersion(1);
         } else {
-            throw new UnauthorizedAccessException("This can be done only by owner");
+            throw denied("awaitForActivation", user, "This can be done only by owner");
         }
     }
 
@@ -69,23 +112,38 @@ public class Organization {
         return members;
     }
 
+    /**
+     * Checks the user acting on this organization, reporting the decision to the
+     * {@link AuthorizationListener}.
+     */
     public boolean isOwnedBy(User user) {
-        return java.util.Objects.equals(user, owner);
+        boolean owned = isOwner(user);
+        authorizationListener.onDecision(this, AuthorizationCheck.OWNERSHIP, user, owned);
+        return owned;
+    }
+
+    private boolean isOwner(User user) {
+        return Objects.equals(user, owner);
     }
 
     public void addMemberBy(User newMember, User owner) throws UnauthorizedAccessException {
-        if (!isOwnedBy(newMember)) {
+        boolean notOwner = !isOwner(newMember);
+        authorizationListener.onDecision(this, AuthorizationCheck.NOT_OWNER, newMember, notOwner);
+        if (notOwner) {
             addNewMember(newMember, owner);
         } else {
-            throw new UnauthorizedAccessException("Owner cannot become representative user");
+            throw denied("addMember", newMember, "Owner cannot become representative user");
         }
     }
 
     private void addNewMember(User newMember, User owner) throws UnauthorizedAccessException {
         if (isOwnedBy(owner)) {
-            getMembers().add(newMember);
+            if (getMembers().add(newMember)) {
+                counters.memberAdded(newMember);
+            }
+            advanceVersion(1);
         } else {
-            throw new UnauthorizedAccessException("Only organization owner can add new members");
+            throw denied("addMember", owner, "Only organization owner can add new members");
         }
 
     }
@@ -94,24 +152,80 @@ public class Organization {
         return (user.getRole() == UserRole.OWNER) && (isOwnedBy(user)) ? true : false;
     }
 
-    public void setNumOfRequiredAcknowledgments(int numOfRequiredAcknowledgments, User owner) throws UnauthorizedAccessException {
+    /**
+     * @throws IllegalArgumentException when fewer than one acknowledgment would be required
+     */
+    public ReevaluationReport setNumOfRequiredAcknowledgments(int numOfRequiredAcknowledgments, User owner) throws UnauthorizedAccessException {
         if (isOwnedBy(owner)) {
+            assertIsValidNumOfAcknowledgments(numOfRequiredAcknowledgments);
             this.numOfAcknowledgments = numOfRequiredAcknowledgments;
+            this.defaultNumOfAcknowledgments = false;
+            return reevaluated(promoteMembersWithEnoughAcknowledgments());
         } else {
-            throw new UnauthorizedAccessException("User " + owner.getName() + " has no rights to change number of acknowledgments");
+            throw denied("setNumOfRequiredAcknowledgments", owner, "User " + owner.getName()
+                    + " has no rights to change number of acknowledgments");
+        }
+    }
+
+    public static void assertIsValidNumOfAcknowledgments(int numOfAcknowledgments) {
+        if (numOfAcknowledgments < 1) {
+            throw new IllegalArgumentException("At least one acknowledgment must be required, not " + numOfAcknowledgments);
+        }
+    }
+
+    public int getNumOfRequiredAcknowledgments() {
+        return numOfAcknowledgments;
+    }
+
+    public boolean isUsingDefaultNumOfRequiredAcknowledgments() {
+        return defaultNumOfAcknowledgments;
+    }
+
+    /**
+     * Applies a changed global default, unless the owner has set this organization's own
+     * number of acknowledgments.
+     */
+    public ReevaluationReport applyDefaultNumOfRequiredAcknowledgments(int numOfRequiredAcknowledgments) {
+        assertIsValidNumOfAcknowledgments(numOfRequiredAcknowledgments);
+        if (!defaultNumOfAcknowledgments) {
+            return ReevaluationReport.EMPTY;
+        }
+        this.numOfAcknowledgments = numOfRequiredAcknowledgments;
+        return reevaluated(promoteMembersWithEnoughAcknowledgments());
+    }
+
+    private ReevaluationReport promoteMembersWithEnoughAcknowledgments() {
+        long start = System.nanoTime();
+        User[] snapshot = getMembers().toArray(new User[getMembers().size()]);
+        List<User> promoted = ThresholdReevaluation.promoteQualifiedMembers(snapshot, numOfAcknowledgments);
+        for (User member : promoted) {
+            counters.memberChanged(member);
         }
+        return new ReevaluationReport(snapshot.length, 0, promoted, Collections.<Document> emptyList(), System.nanoTime() - start);
+    }
+
+    /**
+     * Advances the version by the changed threshold and every member or document the
+     * re-evaluation changed, each of which is published as a change of its own.
+     */
+    private ReevaluationReport reevaluated(ReevaluationReport report) {
+        advanceVersion(1 + report.getPromotedMembers().size() + report.getConfirmedDocuments().size());
+        return report;
     }
 
     public void activateBy(User admin) throws UnauthorizedAccessException {
         if (assertIsAdmin(admin)) {
             active = true;
+            advanceVersion(1);
         } else {
-            throw new UnauthorizedAccessException("Only admin can activate organisation");
+            throw denied("activate", admin, "Only admin can activate organisation");
         }
     }
 
     private boolean assertIsAdmin(User admin) {
-        return admin.getRole() == UserRole.ADMIN ? true : false;
+        boolean isAdmin = admin.getRole() == UserRole.ADMIN ? true : false;
+        authorizationListener.onDecision(this, AuthorizationCheck.ADMIN, admin, isAdmin);
+        return isAdmin;
     }
 
     public void promote(User member, User promotor) throws UnauthorizedAccessException {
@@ -126,52 +240,162 @@ public class Organization {
         if (isOwnedBy(promotor)) {
             if (userBelongsToThisOrganisation(newMember)) {
                 newMember.setRepresentativeRole();
+                counters.memberChanged(newMember);
             }
+            advanceVersion(1);
         } else {
-            throw new UnauthorizedAccessException("User can be promoted only by owners when organisationis not active");
+            throw denied("promote", promotor, "User can be promoted only by owners when organisationis not active");
         }
     }
     
     private void promoteWhenOrganisationIsActive(User newMember, User promotor) throws UnauthorizedAccessException {
+        if (!hasRole(promotor, UserRole.REPRESENTATIVE)) {
+            throw denied("promote", promotor, "User can be promoted only by representative users");
+        }
         if (userBelongsToThisOrganisation(newMember, promotor)) {
             newMember.promoteBy(promotor);
+            promotionEdges().promoted(newMember, promotor);
         } else {
-            throw new UnauthorizedAccessException("User can be promoted only by users in the same organisation");
+            throw denied("promote", promotor, "User can be promoted only by users in the same organisation");
         }
         if (hasEnoughAcknowledgements(newMember)) {
             newMember.setRepresentativeRole();
         }
+        counters.memberChanged(newMember);
+        advanceVersion(1);
     }
     
+    /**
+     * Snapshot of who promoted whom, rebuilt on the first call after a promotion or
+     * revocation.
+     */
+    public PromotionGraph getPromotionGraph() {
+        return promotionEdges().graph();
+    }
+
+    private PromotionEdges promotionEdges() {
+        if (promotionEdges == null) {
+            promotionEdges = new PromotionEdges();
+        }
+        return promotionEdges;
+    }
+
     private boolean hasEnoughAcknowledgements(User member) {
         return member.getPromoters().size() >= numOfAcknowledgments ? true : false;
     }
 
     private boolean userBelongsToThisOrganisation(User... users) {
-        return getMembers().containsAll(Arrays.asList(users));
+        boolean belongs = true;
+        for (User user : users) {
+            boolean member = getMembers().contains(user);
+            authorizationListener.onDecision(this, AuthorizationCheck.MEMBERSHIP, user, member);
+            belongs &= member;
+        }
+        return belongs;
+    }
+
+    /**
+     * Checks the role of the user acting on this organization, reporting the decision to
+     * the {@link AuthorizationListener}.
+     */
+    public boolean hasRole(User user, UserRole role) {
+        boolean hasRole = user.getRole() == role;
+        authorizationListener.onDecision(this, AuthorizationCheck.ROLE, user, hasRole);
+        return hasRole;
     }
 
     public void cancelMembersRepresentative(User member, User owner) throws UnauthorizedAccessException {
-        if (isOwnedBy(owner)) {
+        cancelMembersRepresentative(member, owner, false);
+    }
+
+    /**
+     * Demotes the member and revokes the acknowledgments it gave. With {@code cascade},
+     * representatives that fall below the required number of acknowledgments because of
+     * that are demoted as well, and so on.
+     * <p>
+     * The cascade is scoped to this organization: it follows only the acknowledgments
+     * recorded in its promotion graph and demotes only against its own number of required
+     * acknowledgments. As acknowledgments and roles live on the shared users, a revoked
+     * acknowledgment is gone in every organization, but representatives of other
+     * organizations left without enough acknowledgments there are not demoted; those
+     * organizations merely recount the users whose roles changed.
+     *
+     * @return the representatives demoted by the cascade, without the given member
+     */
+    public List<User> cancelMembersRepresentative(User member, User owner, boolean cascade) throws UnauthorizedAccessException {
+        return cancelMembersRepresentative(member, owner, cascade, new ArrayList<User>());
+    }
+
+    /**
+     * Like {@link #cancelMembersRepresentative(User, User, boolean)}, also collecting every
+     * user whose acknowledgments were revoked, demoted or not, so other organizations of
+     * those users can recount them.
+     */
+    public List<User> cancelMembersRepresentative(User member, User owner, boolean cascade, Collection<User> revoked)
+            throws UnauthorizedAccessException {
+        if (!isOwnedBy(owner)) {
+            throw denied("cancelRepresentative", owner, "Only owner can demote representative user");
+        }
+        cancelRepresentativeRole(member);
+
+        List<User> cascaded = new ArrayList<User>();
+        Deque<User> demoted = new ArrayDeque<User>();
+        demoted.add(member);
+        while (!demoted.isEmpty()) {
+            User promotor = demoted.poll();
+            for (User promoted : promotionEdges().revokeAll(promotor)) {
+                revoked.add(promoted);
+                if (revokeAcknowledgment(promoted, promotor, cascade)) {
+                    cascaded.add(promoted);
+                    demoted.add(promoted);
+                }
+            }
+        }
+        advanceVersion(1 + cascaded.size());
+        return cascaded;
+    }
+
+    /**
+     * @return {@code true} when the member was demoted because of the revocation
+     */
+    private boolean revokeAcknowledgment(User member, User promotor, boolean cascade) {
+        UserRole roleBefore = member.getRole();
+        boolean hadEnough = hasEnoughAcknowledgements(member);
+        member.getPromoters().remove(promotor);
+        boolean demote = cascade && roleBefore == UserRole.REPRESENTATIVE && hadEnough && !hasEnoughAcknowledgements(member);
+        if (demote) {
             member.cancelRepresentativeRole();
-        } else {
-            throw new UnauthorizedAccessException("Only owner can demote representative user");
+        }
+        if (getMembers().contains(member)) {
+            counters.memberChanged(member);
+        }
+        return demote;
+    }
+
+    private void cancelRepresentativeRole(User member) {
+        member.cancelRepresentativeRole();
+        if (getMembers().contains(member)) {
+            counters.memberChanged(member);
         }
     }
 
     public void addDocumentByUser(Document document, User user) throws UnauthorizedDocumentCreationException {
         if (userBelongsToThisOrganisation(user)) {
-            addDocumentTo(document);
+            addDocumentTo(document, user);
         } else {
-            throw new UnauthorizedDocumentCreationException("Document can be created only by users from within this organisation");
+            throw documentCreationDenied(user, "Document can be created only by users from within this organisation");
         }
     }
 
-    private void addDocumentTo(Document document) throws UnauthorizedDocumentCreationException {
+    private void addDocumentTo(Document document, User user) throws UnauthorizedDocumentCreationException {
         if (active) {
+            document.setNumber(getDocuments().size());
             getDocuments().add(document);
+            counters.documentAdded(document);
+            documentIndex.documentAdded(document);
+            advanceVersion(1);
         } else {
-            throw new UnauthorizedDocumentCreationException("Documents cannot be made when organization is inactive");
+            throw documentCreationDenied(user, "Documents cannot be made when organization is inactive");
         }
     }
 
@@ -182,11 +406,166 @@ public class Organization {
         return documents;
     }
 
+    /**
+     * Copy of the documents with the given status, in no particular order, served from an
+     * index instead of filtering all documents.
+     */
+    public List<Document> getDocuments(DocumentStatus status) {
+        return documentIndex.documents(status, getDocuments());
+    }
+
+    public int getNumOfDocuments(DocumentStatus status) {
+        return documentIndex.size(status);
+    }
+
+    /**
+     * Starts at 1 for the created organization and advances by one for every change
+     * {@link rdk.service.OrganizationService} publishes, after the change is made, so a
+     * reader that sees a version also sees at least the changes it stands for.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    private void advanceVersion(int numOfChanges) {
+        VERSION.addAndGet(this, numOfChanges);
+    }
+
+    /**
+     * Counts the member again after its role or acknowledgments changed in another
+     * organization, as roles are shared by every organization of the user.
+     *
+     * @return {@code true} when the member is counted differently than before, which
+     *         advances the version
+     */
+    public boolean recountMember(User member) {
+        if (getMembers().contains(member) && counters.memberChanged(member)) {
+            advanceVersion(1);
+            return true;
+        }
+        return false;
+    }
+
+    private UnauthorizedAccessException denied(String operation, User user, String reason) {
+        emitDenial(operation, user, reason);
+        return new UnauthorizedAccessException(reason);
+    }
+
+    private UnauthorizedDocumentCreationException documentCreationDenied(User user, String reason) {
+        emitDenial("addDocument", user, reason);
+        return new UnauthorizedDocumentCreationException(reason);
+    }
+
+    private void emitDenial(String operation, User user, String reason) {
+        DomainEvents.authorizationDenied(name, operation, user == null ? null : user.getName(),
+                user == null || user.getRole() == null ? null : user.getRole().name(), reason);
+    }
+
+    public AuthorizationListener getAuthorizationListener() {
+        return authorizationListener;
+    }
+
+    public void setAuthorizationListener(AuthorizationListener authorizationListener) {
+        this.authorizationListener = authorizationListener;
+    }
+
+    public OrganizationStatistics getStatistics() {
+        return counters.snapshot();
+    }
+
     public int getNumOfRequiredDocumentConfirmations() {
         return numOfDocumentConfirmations;
     }
 
-    public void setNumOfRequiredDocumentConfirmation(int numOfRequiredDocumentConfirmation, User owner) {
+    /**
+     * @throws IllegalArgumentException when fewer than one confirmation would be required
+     */
+    public ReevaluationReport setNumOfRequiredDocumentConfirmation(int numOfRequiredDocumentConfirmation, User owner)
+            throws UnauthorizedAccessException {
+        if (!isOwnedBy(owner)) {
+            throw denied("setNumOfRequiredDocumentConfirmation", owner, "User " + owner.getName()
+                    + " has no rights to change number of document confirmations");
+        }
+        assertIsValidNumOfDocumentConfirmations(numOfRequiredDocumentConfirmation);
         this.numOfDocumentConfirmations = numOfRequiredDocumentConfirmation;
+        this.defaultNumOfDocumentConfirmations = false;
+        return reevaluated(confirmDocumentsWithEnoughConfirmations());
+    }
+
+    public static void assertIsValidNumOfDocumentConfirmations(int numOfDocumentConfirmations) {
+        if (numOfDocumentConfirmations < 1) {
+            throw new IllegalArgumentException("At least one document confirmation must be required, not " + numOfDocumentConfirmations);
+        }
+    }
+
+    public boolean isUsingDefaultNumOfRequiredDocumentConfirmations() {
+        return defaultNumOfDocumentConfirmations;
+    }
+
+    /**
+     * Applies a changed global default, unless the owner has set this organization's own
+     * number of document confirmations.
+     */
+    public ReevaluationReport applyDefaultNumOfRequiredDocumentConfirmations(int numOfRequiredDocumentConfirmation) {
+        if (!defaultNumOfDocumentConfirmations) {
+            return ReevaluationReport.EMPTY;
+        }
+        this.numOfDocumentConfirmations = numOfRequiredDocumentConfirmation;
+        return reevaluated(confirmDocumentsWithEnoughConfirmations());
+    }
+
+    private ReevaluationReport confirmDocumentsWithEnoughConfirmations() {
+        long start = System.nanoTime();
+        List<Document> pending = getDocuments(DocumentStatus.UNCONFIRMED);
+        Document[] snapshot = pending.toArray(new Document[pending.size()]);
+        List<Document> confirmed = ThresholdReevaluation.confirmQualifiedDocuments(snapshot, numOfDocumentConfirmations);
+        counters.documentsConfirmed(confirmed.size());
+        for (Document document : snapshot) {
+            documentIndex.documentChanged(DocumentStatus.UNCONFIRMED, document);
+        }
+        return new ReevaluationReport(0, snapshot.length, Collections.<User> emptyList(), confirmed, System.nanoTime() - start);
+    }
+
+    public void confirmDocumentBy(Document document, User representative) throws UnauthorizedAccessException {
+        if (!isDocumentOfThisOrganisation(document)) {
+            throw new IllegalArgumentException("Document does not belong to this organisation");
+        }
+        if (userBelongsToThisOrganisation(representative) && hasRole(representative, UserRole.REPRESENTATIVE)) {
+            document.confirmBy(representative);
+        } else {
+            throw denied("confirmDocument", representative, "Documents can be confirmed only by representative members of this organisation");
+        }
+        if (document.getStatus() == DocumentStatus.UNCONFIRMED && hasEnoughConfirmations(document)) {
+            document.setStatus(DocumentStatus.CONFIRMED);
+            counters.documentChanged(DocumentStatus.UNCONFIRMED, document);
+            documentIndex.documentChanged(DocumentStatus.UNCONFIRMED, document);
+        }
+        advanceVersion(1);
+    }
+
+    /**
+     * @return {@code false} when the document was confirmed or expired already
+     */
+    public boolean expireDocument(Document document) {
+        if (!isDocumentOfThisOrganisation(document)) {
+            throw new IllegalArgumentException("Document does not belong to this organisation");
+        }
+        if (document.getStatus() != DocumentStatus.UNCONFIRMED) {
+            return false;
+        }
+        document.setStatus(DocumentStatus.EXPIRED);
+        counters.documentChanged(DocumentStatus.UNCONFIRMED, document);
+        documentIndex.documentChanged(DocumentStatus.UNCONFIRMED, document);
+        advanceVersion(1);
+        return true;
+    }
+
+    private boolean isDocumentOfThisOrganisation(Document document) {
+        int number = document.getNumber();
+        return number >= 0 && number < getDocuments().size() && getDocuments().get(number) == document;
+    }
+
+    private boolean hasEnoughConfirmations(Document document) {
+        return document.getConfirmations().size() >= numOfDocumentConfirmations;
     }
 }
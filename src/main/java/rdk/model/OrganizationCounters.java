@@ -0,0 +1,90 @@
+package rdk.model;
+
+import java.util.HashMap;
+import java.util.Map;
+
+
+/**
+ * Counters kept up to date by {@link Organization} on every member and document change,
+ * so that statistics never have to iterate members or documents. A member is counted as
+ * a pending promotion while it has at least one acknowledgment but is not a representative.
+ * <p>
+ * Roles and acknowledgments live on {@link User}s that may belong to several
+ * organizations, so a member can change without this organization knowing. The counters
+ * therefore remember how each member was counted and move it from that state to its
+ * current one, which keeps them consistent however the member changed in between. A
+ * member changed elsewhere is counted as before until it is recounted here.
+ */
+class OrganizationCounters {
+
+    private static final int PENDING = 1;
+
+    private final int[] membersByRole = new int[UserRole.values().length];
+
+    private final int[] documentsByStatus = new int[DocumentStatus.values().length];
+
+    private int numOfPendingPromotions = 0;
+
+    private final Map<User, Byte> countedMembers = new HashMap<User, Byte>();
+
+    void memberAdded(User member) {
+        memberChanged(member);
+    }
+
+    /**
+     * @return {@code false} when the member is counted as before
+     */
+    boolean memberChanged(User member) {
+        byte state = stateOf(member);
+        Byte counted = countedMembers.put(member, state);
+        if (counted != null) {
+            if (counted == state) {
+                return false;
+            }
+            count(counted, -1);
+        }
+        count(state, 1);
+        return true;
+    }
+
+    void documentAdded(Document document) {
+        documentsByStatus[document.getStatus().ordinal()]++;
+    }
+
+    void documentChanged(DocumentStatus statusBefore, Document document) {
+        documentsByStatus[statusBefore.ordinal()]--;
+        documentsByStatus[document.getStatus().ordinal()]++;
+    }
+
+    void documentsConfirmed(int numOfConfirmed) {
+        documentsByStatus[DocumentStatus.UNCONFIRMED.ordinal()] -= numOfConfirmed;
+        documentsByStatus[DocumentStatus.CONFIRMED.ordinal()] += numOfConfirmed;
+    }
+
+    static boolean isPendingPromotion(User member) {
+        return member.getRole() != UserRole.REPRESENTATIVE && !member.getPromoters().isEmpty();
+    }
+
+    OrganizationStatistics snapshot() {
+        return new OrganizationStatistics(membersByRole.clone(), documentsByStatus.clone(), numOfPendingPromotions);
+    }
+
+    /**
+     * The role's ordinal plus one, or zero without a role, shifted left by one with the
+     * pending promotion as the lowest bit.
+     */
+    private static byte stateOf(User member) {
+        int role = member.getRole() == null ? 0 : member.getRole().ordinal() + 1;
+        return (byte) (role << 1 | (isPendingPromotion(member) ? PENDING : 0));
+    }
+
+    private void count(int state, int delta) {
+        int role = state >> 1;
+        if (role > 0) {
+            membersByRole[role - 1] += delta;
+        }
+        if ((state & PENDING) != 0) {
+            numOfPendingPromotions += delta;
+        }
+    }
+}
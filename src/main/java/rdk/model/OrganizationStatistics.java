@@ -0,0 +1,56 @@
+package rdk.model;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+
+public class OrganizationStatistics {
+
+    private final int[] membersByRole;
+
+    private final int[] documentsByStatus;
+
+    private final int numOfPendingPromotions;
+
+    OrganizationStatistics(int[] membersByRole, int[] documentsByStatus, int numOfPendingPromotions) {
+        this.membersByRole = membersByRole;
+        this.documentsByStatus = documentsByStatus;
+        this.numOfPendingPromotions = numOfPendingPromotions;
+    }
+
+    public int getNumOfMembers() {
+        return sum(membersByRole);
+    }
+
+    public int getNumOfMembers(UserRole role) {
+        return membersByRole[role.ordinal()];
+    }
+
+    public int getNumOfDocuments() {
+        return sum(documentsByStatus);
+    }
+
+    public int getNumOfDocuments(DocumentStatus status) {
+        return documentsByStatus[status.ordinal()];
+    }
+
+    public int getNumOfPendingPromotions() {
+        return numOfPendingPromotions;
+    }
+
+    public Map<UserRole, Integer> getMembersByRole() {
+        Map<UserRole, Integer> histogram = new EnumMap<UserRole, Integer>(UserRole.class);
+        for (UserRole role : UserRole.values()) {
+            histogram.put(role, getNumOfMembers(role));
+        }
+        return histogram;
+    }
+
+    private static int sum(int[] counters) {
+        int sum = 0;
+        for (int counter : counters) {
+            sum += counter;
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,89 @@
+package rdk.model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+
+/**
+ * Who promoted whom in one organization, indexed by promotor, so the acknowledgments a
+ * user gave can be found and revoked without scanning every member. The compact
+ * {@link PromotionGraph} is built from it on demand and kept until the next change.
+ * <p>
+ * Every promotion in this organization is recorded here, even when the promotor had
+ * already acknowledged the member in another one. As acknowledgments live on the shared
+ * users, one revoked by demoting the promotor in another organization is gone here as
+ * well, but its edge stays until the promotor is demoted here too, so the graph may show
+ * promotions whose acknowledgment no longer counts.
+ */
+class PromotionEdges {
+
+    private final Map<User, Set<User>> promotees = new LinkedHashMap<User, Set<User>>();
+
+    private int numOfEdges = 0;
+
+    private PromotionGraph graph;
+
+    void promoted(User member, User promotor) {
+        Set<User> promoted = promotees.get(promotor);
+        if (promoted == null) {
+            promoted = new LinkedHashSet<User>();
+            promotees.put(promotor, promoted);
+        }
+        if (promoted.add(member)) {
+            numOfEdges++;
+            graph = null;
+        }
+    }
+
+    /**
+     * Forgets every promotion made by the given user and returns the users it promoted.
+     */
+    Set<User> revokeAll(User promotor) {
+        Set<User> promoted = promotees.remove(promotor);
+        if (promoted == null) {
+            return Collections.emptySet();
+        }
+        numOfEdges -= promoted.size();
+        graph = null;
+        return promoted;
+    }
+
+    PromotionGraph graph() {
+        if (graph == null) {
+            graph = buildGraph();
+        }
+        return graph;
+    }
+
+    private PromotionGraph buildGraph() {
+        Map<User, Integer> ids = new HashMap<User, Integer>();
+        User[] users = new User[Math.max(numOfEdges * 2, 1)];
+        int[] promotors = new int[numOfEdges];
+        int[] promoted = new int[numOfEdges];
+        int edge = 0;
+        for (Map.Entry<User, Set<User>> entry : promotees.entrySet()) {
+            int from = idOf(entry.getKey(), ids, users);
+            for (User member : entry.getValue()) {
+                promotors[edge] = from;
+                promoted[edge] = idOf(member, ids, users);
+                edge++;
+            }
+        }
+        return PromotionGraph.build(Arrays.copyOf(users, ids.size()), promotors, promoted, numOfEdges);
+    }
+
+    private static int idOf(User user, Map<User, Integer> ids, User[] users) {
+        Integer id = ids.get(user);
+        if (id == null) {
+            id = ids.size();
+            users[id] = user;
+            ids.put(user, id);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,232 @@
+package rdk.model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Immutable snapshot of who promoted whom in an organization, in compressed sparse row
+ * form: the users promoted by user {@code u} are {@code endorsed[offsets[u]]} up to
+ * {@code endorsed[offsets[u + 1]]}. Reachability is answered by a level-synchronous BFS
+ * whose frontier is expanded in fork-join slices, endorsement rings by Tarjan's algorithm
+ * run without recursion so deep chains cannot overflow the stack.
+ */
+public class PromotionGraph {
+
+    private static final int SEQUENTIAL_THRESHOLD = 1024;
+
+    private final User[] users;
+
+    private final int[] offsets;
+
+    private final int[] endorsed;
+
+    private final Map<User, Integer> ids;
+
+    private PromotionGraph(User[] users, int[] offsets, int[] endorsed) {
+        this.users = users;
+        this.offsets = offsets;
+        this.endorsed = endorsed;
+        this.ids = new IdentityHashMap<User, Integer>(users.length);
+        for (int id = 0; id < users.length; id++) {
+            ids.put(users[id], id);
+        }
+    }
+
+    static PromotionGraph build(User[] users, int[] promotors, int[] promoted, int numOfEdges) {
+        int[] offsets = new int[users.length + 1];
+        for (int edge = 0; edge < numOfEdges; edge++) {
+            offsets[promotors[edge] + 1]++;
+        }
+        for (int user = 0; user < users.length; user++) {
+            offsets[user + 1] += offsets[user];
+        }
+        int[] cursors = Arrays.copyOf(offsets, users.length);
+        int[] endorsed = new int[numOfEdges];
+        for (int edge = 0; edge < numOfEdges; edge++) {
+            endorsed[cursors[promotors[edge]]++] = promoted[edge];
+        }
+        return new PromotionGraph(users, offsets, endorsed);
+    }
+
+    public int getNumOfUsers() {
+        return users.length;
+    }
+
+    public int getNumOfPromotions() {
+        return endorsed.length;
+    }
+
+    /**
+     * Users promoted by the given user, directly or through users it promoted, without the
+     * user itself unless it is part of an endorsement ring.
+     */
+    public List<User> transitivelyEndorsedBy(User user) {
+        int start = idOf(user);
+        if (start < 0) {
+            return Collections.emptyList();
+        }
+        AtomicLongArray visited = new AtomicLongArray((users.length + 63) >>> 6);
+        List<User> reached = new ArrayList<User>();
+        int[] frontier = { start };
+        while (frontier.length > 0) {
+            frontier = ForkJoinPool.commonPool().invoke(new ExpandFrontier(frontier, 0, frontier.length, visited));
+            for (int reachedUser : frontier) {
+                reached.add(users[reachedUser]);
+            }
+        }
+        return reached;
+    }
+
+    /**
+     * Groups of users that endorsed each other in a cycle, including users that promoted
+     * themselves.
+     */
+    public List<List<User>> endorsementRings() {
+        int numOfUsers = users.length;
+        int[] index = new int[numOfUsers];
+        int[] lowLink = new int[numOfUsers];
+        int[] edgeCursor = new int[numOfUsers];
+        boolean[] onStack = new boolean[numOfUsers];
+        int[] componentStack = new int[numOfUsers];
+        int[] callStack = new int[numOfUsers];
+        Arrays.fill(index, -1);
+
+        List<List<User>> rings = new ArrayList<List<User>>();
+        int nextIndex = 0;
+        int componentTop = 0;
+        for (int root = 0; root < numOfUsers; root++) {
+            if (index[root] >= 0) {
+                continue;
+            }
+            int callTop = 0;
+            callStack[callTop++] = root;
+            index[root] = lowLink[root] = nextIndex++;
+            edgeCursor[root] = offsets[root];
+            componentStack[componentTop++] = root;
+            onStack[root] = true;
+
+            while (callTop > 0) {
+                int user = callStack[callTop - 1];
+                if (edgeCursor[user] < offsets[user + 1]) {
+                    int next = endorsed[edgeCursor[user]++];
+                    if (index[next] < 0) {
+                        index[next] = lowLink[next] = nextIndex++;
+                        edgeCursor[next] = offsets[next];
+                        componentStack[componentTop++] = next;
+                        onStack[next] = true;
+                        callStack[callTop++] = next;
+                    } else if (onStack[next]) {
+                        lowLink[user] = Math.min(lowLink[user], index[next]);
+                    }
+                    continue;
+                }
+                callTop--;
+                if (callTop > 0) {
+                    int caller = callStack[callTop - 1];
+                    lowLink[caller] = Math.min(lowLink[caller], lowLink[user]);
+                }
+                if (lowLink[user] == index[user]) {
+                    List<User> component = new ArrayList<User>();
+                    int member;
+                    do {
+                        member = componentStack[--componentTop];
+                        onStack[member] = false;
+                        component.add(users[member]);
+                    } while (member != user);
+                    if (component.size() > 1 || promotedItself(user)) {
+                        rings.add(component);
+                    }
+                }
+            }
+        }
+        return rings;
+    }
+
+    private boolean promotedItself(int user) {
+        for (int edge = offsets[user]; edge < offsets[user + 1]; edge++) {
+            if (endorsed[edge] == user) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int idOf(User user) {
+        Integer id = ids.get(user);
+        return id == null ? -1 : id;
+    }
+
+    private class ExpandFrontier extends RecursiveTask<int[]> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final int[] frontier;
+
+        private final int from;
+
+        private final int to;
+
+        private final AtomicLongArray visited;
+
+        ExpandFrontier(int[] frontier, int from, int to, AtomicLongArray visited) {
+            this.frontier = frontier;
+            this.from = from;
+            this.to = to;
+            this.visited = visited;
+        }
+
+        @Override
+        protected int[] compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                return expand();
+            }
+            int middle = (from + to) >>> 1;
+            ExpandFrontier left = new ExpandFrontier(frontier, from, middle, visited);
+            left.fork();
+            int[] right = new ExpandFrontier(frontier, middle, to, visited).compute();
+            int[] leftReached = left.join();
+            int[] reached = Arrays.copyOf(leftReached, leftReached.length + right.length);
+            System.arraycopy(right, 0, reached, leftReached.length, right.length);
+            return reached;
+        }
+
+        private int[] expand() {
+            int[] reached = new int[16];
+            int numOfReached = 0;
+            for (int i = from; i < to; i++) {
+                int user = frontier[i];
+                for (int edge = offsets[user]; edge < offsets[user + 1]; edge++) {
+                    int next = endorsed[edge];
+                    if (visit(next)) {
+                        if (numOfReached == reached.length) {
+                            reached = Arrays.copyOf(reached, numOfReached * 2);
+                        }
+                        reached[numOfReached++] = next;
+                    }
+                }
+            }
+            return Arrays.copyOf(reached, numOfReached);
+        }
+
+        private boolean visit(int user) {
+            int word = user >>> 6;
+            long bit = 1L << user;
+            long bits = visited.get(word);
+            while ((bits & bit) == 0) {
+                if (visited.compareAndSet(word, bits, bits | bit)) {
+                    return true;
+                }
+                bits = visited.get(word);
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package rdk.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+
+public class ReevaluationReport {
+
+    public static final ReevaluationReport EMPTY = new ReevaluationReport(0, 0, Collections.<User> emptyList(),
+            Collections.<Document> emptyList(), 0);
+
+    private final long numOfMembersScanned;
+
+    private final long numOfDocumentsScanned;
+
+    private final List<User> promotedMembers;
+
+    private final List<Document> confirmedDocuments;
+
+    private final long elapsedNanos;
+
+    public ReevaluationReport(long numOfMembersScanned, long numOfDocumentsScanned, List<User> promotedMembers,
+            List<Document> confirmedDocuments, long elapsedNanos) {
+        this.numOfMembersScanned = numOfMembersScanned;
+        this.numOfDocumentsScanned = numOfDocumentsScanned;
+        this.promotedMembers = Collections.unmodifiableList(promotedMembers);
+        this.confirmedDocuments = Collections.unmodifiableList(confirmedDocuments);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getNumOfMembersScanned() {
+        return numOfMembersScanned;
+    }
+
+    public long getNumOfDocumentsScanned() {
+        return numOfDocumentsScanned;
+    }
+
+    public long getNumOfPromotedMembers() {
+        return promotedMembers.size();
+    }
+
+    public List<User> getPromotedMembers() {
+        return promotedMembers;
+    }
+
+    public long getNumOfConfirmedDocuments() {
+        return confirmedDocuments.size();
+    }
+
+    public List<Document> getConfirmedDocuments() {
+        return confirmedDocuments;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * Members and documents scanned per second.
+     */
+    public double getThroughput() {
+        return elapsedNanos == 0 ? 0 : (numOfMembersScanned + numOfDocumentsScanned) * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Sums the counts and joins the promoted members and confirmed documents of both reports; the elapsed time is the longer one, as reports
+     * are merged from work that ran in parallel.
+     */
+    public ReevaluationReport merge(ReevaluationReport other) {
+        return new ReevaluationReport(numOfMembersScanned + other.numOfMembersScanned,
+                numOfDocumentsScanned + other.numOfDocumentsScanned,
+                concat(promotedMembers, other.promotedMembers),
+                concat(confirmedDocuments, other.confirmedDocuments),
+                Math.max(elapsedNanos, other.elapsedNanos));
+    }
+
+    public ReevaluationReport withElapsedNanos(long elapsedNanos) {
+        return new ReevaluationReport(numOfMembersScanned, numOfDocumentsScanned, promotedMembers, confirmedDocuments,
+                elapsedNanos);
+    }
+
+    private static <T> List<T> concat(List<T> first, List<T> second) {
+        if (first.isEmpty()) {
+            return second;
+        }
+        if (second.isEmpty()) {
+            return first;
+        }
+        List<T> both = new ArrayList<T>(first.size() + second.size());
+        both.addAll(first);
+        both.addAll(second);
+        return both;
+    }
+}
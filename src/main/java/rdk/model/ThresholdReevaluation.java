@@ -0,0 +1,118 @@
+package rdk.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+
+/**
+ * Fork-join passes applying a changed threshold to members and documents that already
+ * meet it. Slices of the snapshot are processed in parallel; each slice only touches its
+ * own members or documents and reports what it changed, so the organization counters can
+ * be updated after the pass.
+ */
+class ThresholdReevaluation {
+
+    private static final int SEQUENTIAL_THRESHOLD = 4096;
+
+    static List<User> promoteQualifiedMembers(User[] members, int numOfAcknowledgments) {
+        return ForkJoinPool.commonPool().invoke(new PromoteMembers(members, 0, members.length, numOfAcknowledgments));
+    }
+
+    static List<Document> confirmQualifiedDocuments(Document[] documents, int numOfConfirmations) {
+        return ForkJoinPool.commonPool().invoke(new ConfirmDocuments(documents, 0, documents.length, numOfConfirmations));
+    }
+
+    private static class PromoteMembers extends RecursiveTask<List<User>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final User[] members;
+
+        private final int from;
+
+        private final int to;
+
+        private final int numOfAcknowledgments;
+
+        PromoteMembers(User[] members, int from, int to, int numOfAcknowledgments) {
+            this.members = members;
+            this.from = from;
+            this.to = to;
+            this.numOfAcknowledgments = numOfAcknowledgments;
+        }
+
+        @Override
+        protected List<User> compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                return promote();
+            }
+            int middle = (from + to) >>> 1;
+            PromoteMembers left = new PromoteMembers(members, from, middle, numOfAcknowledgments);
+            left.fork();
+            List<User> right = new PromoteMembers(members, middle, to, numOfAcknowledgments).compute();
+            List<User> promoted = left.join();
+            promoted.addAll(right);
+            return promoted;
+        }
+
+        private List<User> promote() {
+            List<User> promoted = new ArrayList<User>();
+            for (int i = from; i < to; i++) {
+                User member = members[i];
+                if (member.getRole() != UserRole.REPRESENTATIVE && member.getPromoters().size() >= numOfAcknowledgments) {
+                    member.setRepresentativeRole();
+                    promoted.add(member);
+                }
+            }
+            return promoted;
+        }
+    }
+
+    private static class ConfirmDocuments extends RecursiveTask<List<Document>> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Document[] documents;
+
+        private final int from;
+
+        private final int to;
+
+        private final int numOfConfirmations;
+
+        ConfirmDocuments(Document[] documents, int from, int to, int numOfConfirmations) {
+            this.documents = documents;
+            this.from = from;
+            this.to = to;
+            this.numOfConfirmations = numOfConfirmations;
+        }
+
+        @Override
+        protected List<Document> compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                return confirm();
+            }
+            int middle = (from + to) >>> 1;
+            ConfirmDocuments left = new ConfirmDocuments(documents, from, middle, numOfConfirmations);
+            left.fork();
+            List<Document> right = new ConfirmDocuments(documents, middle, to, numOfConfirmations).compute();
+            List<Document> confirmed = left.join();
+            confirmed.addAll(right);
+            return confirmed;
+        }
+
+        private List<Document> confirm() {
+            List<Document> confirmed = new ArrayList<Document>();
+            for (int i = from; i < to; i++) {
+                Document document = documents[i];
+                if (document.getStatus() == DocumentStatus.UNCONFIRMED && document.getConfirmations().size() >= numOfConfirmations) {
+                    document.setStatus(DocumentStatus.CONFIRMED);
+                    confirmed.add(document);
+                }
+            }
+            return confirmed;
+        }
+    }
+}
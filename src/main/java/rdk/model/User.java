@@ -1,10 +1,14 @@
 package rdk.model;
 
-import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import rdk.exception.UnauthorizedAccessException;
 
+/**
+ * A user shared by all of its organizations, so its role and acknowledgments may be
+ * changed from the mailboxes of several organizations at once.
+ */
 public class User {
 
     private static final User USER_NO_ORGANISATION = UserBuilder.user("without organisation").withRole(UserRole.REGULAR)
@@ -12,9 +16,9 @@ public class User {
 
     private String name;
 
-    private UserRole role;
+    private volatile UserRole role;
 
-    private Set<User> promoters;
+    private volatile Set<User> promoters;
     
     public User() {
     }
@@ -53,7 +57,7 @@ public class User {
         public User build() {
             User user = new User();
 
-            user.name = this.name;
+            user.name = Names.canonical(this.name);
             user.role = this.role;
 
             return user;
@@ -70,8 +74,15 @@ public class User {
     }
 
     public Set<User> getPromoters() {
+        Set<User> promoters = this.promoters;
         if (promoters == null) {
-            promoters = new HashSet<User>();
+            synchronized (this) {
+                promoters = this.promoters;
+                if (promoters == null) {
+                    promoters = ConcurrentHashMap.newKeySet();
+                    this.promoters = promoters;
+                }
+            }
         }
         return promoters;
     }
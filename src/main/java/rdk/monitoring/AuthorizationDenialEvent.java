@@ -0,0 +1,42 @@
+package rdk.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+@Name("rdk.AuthorizationDenial")
+@Label("Authorization Denial")
+@Category({ "Representatives Domain", "Authorization" })
+@Description("Operation on an organization refused to a user")
+public class AuthorizationDenialEvent extends Event {
+
+    @Label("Organization")
+    public String organization;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("User")
+    public String user;
+
+    @Label("User Role")
+    public String role;
+
+    @Label("Reason")
+    public String reason;
+
+    static void emit(String organization, String operation, String user, String role, String reason) {
+        AuthorizationDenialEvent event = new AuthorizationDenialEvent();
+        if (event.isEnabled()) {
+            event.organization = organization;
+            event.operation = operation;
+            event.user = user;
+            event.role = role;
+            event.reason = reason;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package rdk.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+
+@Name("rdk.Document")
+@Label("Document Operation")
+@Category({ "Representatives Domain", "Documents" })
+@Description("Creation or confirmation of a document, including notifying change listeners")
+@Threshold("1 ms")
+@StackTrace(false)
+public class DocumentEvent extends Event {
+
+    @Label("Organization")
+    public String organization;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("User")
+    public String user;
+
+    @Label("Document Number")
+    public int documentNumber = -1;
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("Denial Reason")
+    public String denialReason;
+
+    static Object begun() {
+        DocumentEvent event = new DocumentEvent();
+        event.begin();
+        return event;
+    }
+
+    static void end(Object begun, String organization, String operation, String user, int documentNumber, String outcome,
+            String denialReason) {
+        DocumentEvent event = (DocumentEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.organization = organization;
+            event.operation = operation;
+            event.user = user;
+            event.documentNumber = documentNumber;
+            event.outcome = outcome;
+            event.denialReason = denialReason;
+            event.commit();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package rdk.monitoring;
+
+
+/**
+ * The only way into the JFR events of this package. Whether {@code jdk.jfr.Event} can be
+ * loaded is checked once; on runtimes without Flight Recorder operations are not recorded
+ * and the event classes are never loaded.
+ */
+public final class DomainEvents {
+
+    private static final boolean RECORDING = isFlightRecorderAvailable();
+
+    private DomainEvents() {
+    }
+
+    public static boolean isRecording() {
+        return RECORDING;
+    }
+
+    public static void authorizationDenied(String organization, String operation, String user, String role, String reason) {
+        if (RECORDING) {
+            AuthorizationDenialEvent.emit(organization, operation, user, role, reason);
+        }
+    }
+
+    public static Operation beginPromotion() {
+        return new Operation(RECORDING ? PromotionEvent.begun() : null);
+    }
+
+    public static void endPromotion(Operation promotion, String organization, String member, String promotor) {
+        if (promotion.event != null) {
+            PromotionEvent.end(promotion.event, organization, member, promotor, promotion.outcome, promotion.denialReason);
+        }
+    }
+
+    public static Operation beginDocument() {
+        return new Operation(RECORDING ? DocumentEvent.begun() : null);
+    }
+
+    public static void endDocument(Operation document, String operation, String organization, String user) {
+        if (document.event != null) {
+            DocumentEvent.end(document.event, organization, operation, user, document.documentNumber, document.outcome,
+                    document.denialReason);
+        }
+    }
+
+    private static boolean isFlightRecorderAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event", false, DomainEvents.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * What an operation came to, filled in while it runs. The event it is timed by is held
+     * untyped, so this class links without Flight Recorder.
+     */
+    public static final class Operation {
+
+        private final Object event;
+
+        public int documentNumber = -1;
+
+        public String outcome;
+
+        public String denialReason;
+
+        private Operation(Object event) {
+            this.event = event;
+        }
+    }
+}
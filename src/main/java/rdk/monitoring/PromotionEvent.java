@@ -0,0 +1,53 @@
+package rdk.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+
+@Name("rdk.Promotion")
+@Label("Promotion")
+@Category({ "Representatives Domain", "Promotion" })
+@Description("Promotion of a member, including notifying change listeners")
+@Threshold("1 ms")
+@StackTrace(false)
+public class PromotionEvent extends Event {
+
+    @Label("Organization")
+    public String organization;
+
+    @Label("Member")
+    public String member;
+
+    @Label("Promotor")
+    public String promotor;
+
+    @Label("Outcome")
+    public String outcome;
+
+    @Label("Denial Reason")
+    public String denialReason;
+
+    static Object begun() {
+        PromotionEvent event = new PromotionEvent();
+        event.begin();
+        return event;
+    }
+
+    static void end(Object begun, String organization, String member, String promotor, String outcome, String denialReason) {
+        PromotionEvent event = (PromotionEvent) begun;
+        event.end();
+        if (event.shouldCommit()) {
+            event.organization = organization;
+            event.member = member;
+            event.promotor = promotor;
+            event.outcome = outcome;
+            event.denialReason = denialReason;
+            event.commit();
+        }
+    }
+}
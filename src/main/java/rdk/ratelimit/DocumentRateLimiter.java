@@ -0,0 +1,111 @@
+package rdk.ratelimit;
+
+import java.io.Closeable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import rdk.model.Organization;
+import rdk.model.User;
+
+
+/**
+ * Admission control for document creation, limited both per organization and per user.
+ * A request is admitted only when both buckets have a permit. Full buckets are dropped by
+ * a sweeper thread started with {@link #startSweeping(long)}.
+ */
+public class DocumentRateLimiter implements Closeable {
+
+    private static final DocumentRateLimiter UNLIMITED = new DocumentRateLimiter(null, null);
+
+    private final KeyedRateLimiter<Organization> organizationLimiter;
+
+    private final KeyedRateLimiter<User> userLimiter;
+
+    private final LongAdder rejections = new LongAdder();
+
+    private ScheduledExecutorService sweeper;
+
+    private DocumentRateLimiter(KeyedRateLimiter<Organization> organizationLimiter, KeyedRateLimiter<User> userLimiter) {
+        this.organizationLimiter = organizationLimiter;
+        this.userLimiter = userLimiter;
+    }
+
+    public DocumentRateLimiter(double organizationPermitsPerSecond, int organizationCapacity, double userPermitsPerSecond,
+            int userCapacity, int maxBuckets) {
+        this(organizationPermitsPerSecond, organizationCapacity, userPermitsPerSecond, userCapacity, maxBuckets, new LongSupplier() {
+            @Override
+            public long getAsLong() {
+                return System.nanoTime();
+            }
+        });
+    }
+
+    public DocumentRateLimiter(double organizationPermitsPerSecond, int organizationCapacity, double userPermitsPerSecond,
+            int userCapacity, int maxBuckets, LongSupplier nanoClock) {
+        this(new KeyedRateLimiter<Organization>(organizationPermitsPerSecond, organizationCapacity, maxBuckets, nanoClock),
+                new KeyedRateLimiter<User>(userPermitsPerSecond, userCapacity, maxBuckets, nanoClock));
+    }
+
+    public static DocumentRateLimiter unlimited() {
+        return UNLIMITED;
+    }
+
+    public boolean tryAcquire(Organization organization, User user) {
+        if (this == UNLIMITED) {
+            return true;
+        }
+        if (!userLimiter.tryAcquire(user)) {
+            rejections.increment();
+            return false;
+        }
+        if (!organizationLimiter.tryAcquire(organization)) {
+            userLimiter.release(user);
+            rejections.increment();
+            return false;
+        }
+        return true;
+    }
+
+    public long getNumOfRejections() {
+        return rejections.sum();
+    }
+
+    public void sweep() {
+        if (this != UNLIMITED) {
+            organizationLimiter.sweepFullBuckets();
+            userLimiter.sweepFullBuckets();
+        }
+    }
+
+    public synchronized void startSweeping(long intervalMillis) {
+        if (this == UNLIMITED || sweeper != null) {
+            return;
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "document-rate-limiter-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        sweeper.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                sweep();
+            }
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+            sweeper = null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package rdk.ratelimit;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+
+/**
+ * One {@link TokenBucket} per key, tracking at most {@code maxBuckets} keys. Keys arriving
+ * while that many buckets are tracked share a single overflow bucket until
+ * {@link #sweepFullBuckets()} drops the full ones, which does not change behaviour because
+ * a new bucket starts full. Sweeping is left to a background thread so that requests never
+ * iterate the buckets.
+ */
+public class KeyedRateLimiter<K> {
+
+    private final double permitsPerSecond;
+
+    private final int capacity;
+
+    private final int maxBuckets;
+
+    private final LongSupplier nanoClock;
+
+    private final ConcurrentMap<K, TokenBucket> buckets = new ConcurrentHashMap<K, TokenBucket>();
+
+    private final TokenBucket overflowBucket;
+
+    public KeyedRateLimiter(double permitsPerSecond, int capacity, int maxBuckets, LongSupplier nanoClock) {
+        this.permitsPerSecond = permitsPerSecond;
+        this.capacity = capacity;
+        this.maxBuckets = maxBuckets;
+        this.nanoClock = nanoClock;
+        this.overflowBucket = new TokenBucket(permitsPerSecond, capacity, nanoClock);
+    }
+
+    public boolean tryAcquire(K key) {
+        return bucketOf(key).tryAcquire();
+    }
+
+    public void release(K key) {
+        TokenBucket bucket = buckets.get(key);
+        (bucket == null ? overflowBucket : bucket).release();
+    }
+
+    public int getNumOfBuckets() {
+        return buckets.size();
+    }
+
+    private TokenBucket bucketOf(K key) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxBuckets) {
+            return overflowBucket;
+        }
+        TokenBucket newBucket = new TokenBucket(permitsPerSecond, capacity, nanoClock);
+        bucket = buckets.putIfAbsent(key, newBucket);
+        return bucket == null ? newBucket : bucket;
+    }
+
+    /**
+     * @return the number of buckets dropped
+     */
+    public int sweepFullBuckets() {
+        int dropped = 0;
+        for (Iterator<TokenBucket> iterator = buckets.values().iterator(); iterator.hasNext();) {
+            if (iterator.next().isFull()) {
+                iterator.remove();
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+}
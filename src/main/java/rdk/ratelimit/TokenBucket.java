@@ -0,0 +1,55 @@
+package rdk.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Token bucket holding up to {@code capacity} permits, refilled at {@code permitsPerSecond}.
+ * The whole state is the single instant at which the bucket would be full again, updated
+ * with compare-and-set, so acquiring never locks and a rejection is a read and a compare.
+ * A bucket whose refill instant has passed is full, hence indistinguishable from a new one.
+ */
+public class TokenBucket {
+
+    private final long nanosPerPermit;
+
+    private final long burstNanos;
+
+    private final LongSupplier nanoClock;
+
+    private final AtomicLong fullAt;
+
+    public TokenBucket(double permitsPerSecond, int capacity, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || capacity < 1) {
+            throw new IllegalArgumentException("Rate and capacity must be positive");
+        }
+        this.nanosPerPermit = (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond);
+        this.burstNanos = nanosPerPermit * capacity;
+        this.nanoClock = nanoClock;
+        this.fullAt = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    public boolean tryAcquire() {
+        while (true) {
+            long now = nanoClock.getAsLong();
+            long current = fullAt.get();
+            long next = Math.max(current, now) + nanosPerPermit;
+            if (next - now > burstNanos) {
+                return false;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        fullAt.addAndGet(-nanosPerPermit);
+    }
+
+    public boolean isFull() {
+        return fullAt.get() - nanoClock.getAsLong() <= 0;
+    }
+}
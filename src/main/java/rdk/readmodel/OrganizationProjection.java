@@ -0,0 +1,208 @@
+package rdk.readmodel;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+import rdk.model.Document;
+import rdk.model.DocumentStatus;
+import rdk.model.Organization;
+import rdk.model.User;
+import rdk.model.UserRole;
+
+
+/**
+ * The read side of one organization. The working state is only touched while projecting
+ * under this projection's own lock, readers only see the published
+ * {@link OrganizationSummary}.
+ * <p>
+ * Changes are captured in the order they were published, which may differ from the order
+ * of their versions, so the working state keeps the version of everything it holds and
+ * ignores what a newer change has already replaced.
+ * <p>
+ * Rows keep the slot they were first seen in and are held in {@link PersistentRows}, also
+ * per document status, so publishing a summary shares all rows a batch has not changed
+ * with the previous summary instead of copying them.
+ */
+class OrganizationProjection {
+
+    static final long NOT_STALE = Long.MIN_VALUE;
+
+    final Organization organization;
+
+    final AtomicBoolean seeded = new AtomicBoolean();
+
+    /**
+     * When the oldest change not yet in the published summary was captured.
+     */
+    final AtomicLong staleSince = new AtomicLong(NOT_STALE);
+
+    volatile OrganizationSummary summary;
+
+    /**
+     * Captured changes not applied yet.
+     */
+    final Queue<ProjectedChange> pending = new ConcurrentLinkedQueue<ProjectedChange>();
+
+    /**
+     * Whether the projection waits for the projector, so it is queued only once.
+     */
+    final AtomicBoolean queued = new AtomicBoolean();
+
+    private final ReentrantLock projecting = new ReentrantLock();
+
+    final String name;
+
+    long version;
+
+    String owner;
+
+    boolean active;
+
+    boolean activationAwaiting;
+
+    int numOfRequiredAcknowledgments;
+
+    int numOfRequiredDocumentConfirmations;
+
+    PersistentRows<OrganizationSummary.Member> members = PersistentRows.empty();
+
+    int numOfRepresentatives;
+
+    PersistentRows<OrganizationSummary.DocumentSummary> documents = PersistentRows.empty();
+
+    final Map<DocumentStatus, PersistentRows<OrganizationSummary.DocumentSummary>> documentsByStatus = new EnumMap<DocumentStatus, PersistentRows<OrganizationSummary.DocumentSummary>>(
+            DocumentStatus.class);
+
+    private final Map<User, Row> memberRows = new HashMap<User, Row>();
+
+    private final Map<Document, Row> documentRows = new HashMap<Document, Row>();
+
+    OrganizationProjection(Organization organization) {
+        this.organization = organization;
+        this.name = organization.getName();
+        for (DocumentStatus status : DocumentStatus.values()) {
+            documentsByStatus.put(status, PersistentRows.<OrganizationSummary.DocumentSummary> empty());
+        }
+    }
+
+    /**
+     * Applies the pending changes and publishes the summary when there were any.
+     *
+     * @return the number of changes applied
+     */
+    int project() {
+        projecting.lock();
+        try {
+            int numOfChanges = 0;
+            ProjectedChange change;
+            while ((change = pending.poll()) != null) {
+                apply(change);
+                numOfChanges++;
+            }
+            if (numOfChanges > 0) {
+                publish();
+            }
+            return numOfChanges;
+        } finally {
+            projecting.unlock();
+        }
+    }
+
+    private void apply(ProjectedChange change) {
+        if (change.version > version) {
+            version = change.version;
+            owner = change.owner;
+            active = change.active;
+            activationAwaiting = change.activationAwaiting;
+            numOfRequiredAcknowledgments = change.numOfRequiredAcknowledgments;
+            numOfRequiredDocumentConfirmations = change.numOfRequiredDocumentConfirmations;
+        }
+        for (Map.Entry<User, OrganizationSummary.Member> member : change.members.entrySet()) {
+            Row row = rowOf(memberRows, member.getKey(), change.version);
+            if (row != null) {
+                applyMember(row.slot, member.getValue());
+            }
+        }
+        for (Map.Entry<Document, OrganizationSummary.DocumentSummary> document : change.documents.entrySet()) {
+            Row row = rowOf(documentRows, document.getKey(), change.version);
+            if (row != null) {
+                applyDocument(row.slot, document.getValue());
+            }
+        }
+    }
+
+    /**
+     * @return the row to replace, or {@code null} when it already holds a newer version
+     */
+    private static <K> Row rowOf(Map<K, Row> rows, K key, long version) {
+        Row row = rows.get(key);
+        if (row == null) {
+            row = new Row(rows.size());
+            rows.put(key, row);
+        } else if (row.version >= version) {
+            return null;
+        }
+        row.version = version;
+        return row;
+    }
+
+    private void applyMember(int slot, OrganizationSummary.Member member) {
+        OrganizationSummary.Member replaced = members.get(slot);
+        if (replaced != null && replaced.getRole() == UserRole.REPRESENTATIVE) {
+            numOfRepresentatives--;
+        }
+        if (member.getRole() == UserRole.REPRESENTATIVE) {
+            numOfRepresentatives++;
+        }
+        members = members.with(slot, member);
+    }
+
+    private void applyDocument(int slot, OrganizationSummary.DocumentSummary document) {
+        OrganizationSummary.DocumentSummary replaced = documents.get(slot);
+        if (replaced != null && replaced.getStatus() != document.getStatus()) {
+            documentsByStatus.put(replaced.getStatus(), documentsByStatus.get(replaced.getStatus()).with(slot, null));
+        }
+        documentsByStatus.put(document.getStatus(), documentsByStatus.get(document.getStatus()).with(slot, document));
+        documents = documents.with(slot, document);
+    }
+
+    /**
+     * Publishes the working state and clears the staleness unless the organization has
+     * changed again in the meantime. The staleness is cleared before the version is
+     * checked, so a change captured concurrently either sees it cleared and sets its own
+     * time, or is seen here and the previous time is put back.
+     */
+    private void publish() {
+        summary = new OrganizationSummary(this);
+
+        long since = staleSince.getAndSet(NOT_STALE);
+        if (organization.getVersion() > version) {
+            staleSince.compareAndSet(NOT_STALE, since);
+        }
+    }
+
+    long getStalenessMillis(long now) {
+        long since = staleSince.get();
+        return since == NOT_STALE ? 0 : Math.max(0, now - since);
+    }
+
+    /**
+     * Where a member or document is kept and the version of the change that last set it.
+     */
+    private static final class Row {
+
+        final int slot;
+
+        long version;
+
+        Row(int slot) {
+            this.slot = slot;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package rdk.readmodel;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+import rdk.event.OrganizationChange;
+import rdk.event.OrganizationChangeListener;
+import rdk.model.Document;
+import rdk.model.Organization;
+import rdk.model.User;
+import rdk.service.OrganizationService;
+
+
+/**
+ * Denormalized summaries of organizations for dashboards, kept apart from the
+ * organizations the service writes to. Every change only captures the members and
+ * documents it touched and enqueues them with its organization's projection; a projector
+ * thread applies the queued changes in batches and publishes an immutable
+ * {@link OrganizationSummary} per organization, so reads never touch an organization.
+ * <p>
+ * A summary may lag behind its organization by at most the staleness bound: a read that
+ * finds its summary older than that applies the changes queued for its organization
+ * itself before answering, without waiting for other organizations. With a bound of zero
+ * every read sees all changes made before it.
+ */
+public class OrganizationReadModel implements OrganizationChangeListener, Closeable {
+
+    private final OrganizationService organizationService;
+
+    private final long maxStalenessMillis;
+
+    private final LongSupplier millisClock;
+
+    private final Map<Organization, OrganizationProjection> projections = new ConcurrentHashMap<Organization, OrganizationProjection>();
+
+    private final Queue<OrganizationProjection> queued = new ConcurrentLinkedQueue<OrganizationProjection>();
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private final LongAdder captured = new LongAdder();
+
+    private final LongAdder applied = new LongAdder();
+
+    private volatile ExecutorService projector;
+
+    private final Runnable projectTask = new Runnable() {
+        @Override
+        public void run() {
+            scheduled.set(false);
+            project();
+        }
+    };
+
+    public OrganizationReadModel(OrganizationService organizationService, long maxStalenessMillis) {
+        this(organizationService, maxStalenessMillis, new LongSupplier() {
+            @Override
+            public long getAsLong() {
+                return System.currentTimeMillis();
+            }
+        });
+    }
+
+    public OrganizationReadModel(OrganizationService organizationService, long maxStalenessMillis, LongSupplier millisClock) {
+        this.organizationService = organizationService;
+        this.maxStalenessMillis = maxStalenessMillis;
+        this.millisClock = millisClock;
+        organizationService.addChangeListener(this);
+    }
+
+    /**
+     * Starts the projector thread. Without it changes are only applied by
+     * {@link #project()} and by reads finding their summary too stale.
+     */
+    public synchronized void start() {
+        if (projector != null) {
+            return;
+        }
+        projector = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "organization-read-model");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        if (!queued.isEmpty()) {
+            schedule();
+        }
+    }
+
+    /**
+     * Organizations become known from their first change after the read model was
+     * created, which also captures all of their members and documents.
+     */
+    @Override
+    public void onChange(OrganizationChange change) {
+        Organization organization = change.getOrganization();
+        if (organization == null) {
+            return;
+        }
+        OrganizationProjection projection = projectionOf(organization);
+        projection.pending.offer(capture(projection, change));
+        captured.increment();
+        projection.staleSince.compareAndSet(OrganizationProjection.NOT_STALE, millisClock.getAsLong());
+        if (projection.queued.compareAndSet(false, true)) {
+            queued.offer(projection);
+        }
+        if (projector != null) {
+            schedule();
+        }
+    }
+
+    /**
+     * @return the latest summary, or {@code null} for organizations that have not changed
+     *         since the read model was created
+     */
+    public OrganizationSummary getSummary(Organization organization) {
+        OrganizationProjection projection = projections.get(organization);
+        if (projection == null) {
+            return null;
+        }
+        OrganizationSummary summary = projection.summary;
+        if (summary == null || (summary.getVersion() < organization.getVersion()
+                && projection.getStalenessMillis(millisClock.getAsLong()) > maxStalenessMillis)) {
+            applied.add(projection.project());
+            summary = projection.summary;
+        }
+        return summary;
+    }
+
+    public long getStalenessMillis(Organization organization) {
+        OrganizationProjection projection = projections.get(organization);
+        return projection == null ? 0 : projection.getStalenessMillis(millisClock.getAsLong());
+    }
+
+    public long getNumOfPendingChanges() {
+        return captured.sum() - applied.sum();
+    }
+
+    /**
+     * Applies all queued changes and publishes the summaries they touched. A projection is
+     * unqueued before its changes are applied, so a change captured meanwhile queues it
+     * again.
+     *
+     * @return the number of changes applied
+     */
+    public int project() {
+        int numOfChanges = 0;
+        OrganizationProjection projection;
+        while ((projection = queued.poll()) != null) {
+            projection.queued.set(false);
+            numOfChanges += projection.project();
+        }
+        applied.add(numOfChanges);
+        return numOfChanges;
+    }
+
+    @Override
+    public synchronized void close() {
+        organizationService.removeChangeListener(this);
+        if (projector != null) {
+            projector.shutdownNow();
+            projector = null;
+        }
+    }
+
+    private void schedule() {
+        ExecutorService projector = this.projector;
+        if (projector != null && scheduled.compareAndSet(false, true)) {
+            projector.execute(projectTask);
+        }
+    }
+
+    private OrganizationProjection projectionOf(Organization organization) {
+        OrganizationProjection projection = projections.get(organization);
+        if (projection == null) {
+            projection = projections.computeIfAbsent(organization, new Function<Organization, OrganizationProjection>() {
+                @Override
+                public OrganizationProjection apply(Organization key) {
+                    return new OrganizationProjection(key);
+                }
+            });
+        }
+        return projection;
+    }
+
+    /**
+     * Runs on the thread that changed the organization and captures only the rows the
+     * change names. Changes of thresholds capture none: every member they promote and
+     * every document they confirm is published as a change of its own.
+     */
+    private static ProjectedChange capture(OrganizationProjection projection, OrganizationChange change) {
+        Organization organization = projection.organization;
+        boolean seed = projection.seeded.compareAndSet(false, true);
+
+        Map<User, OrganizationSummary.Member> members = Collections.emptyMap();
+        Map<Document, OrganizationSummary.DocumentSummary> documents = Collections.emptyMap();
+        switch (change.getType()) {
+            case ORGANIZATION_CREATED:
+                members = membersOf(organization.getMembers());
+                break;
+            case MEMBER_ADDED:
+            case MEMBER_PROMOTED:
+            case REPRESENTATIVE_CANCELLED:
+            case MEMBER_ROLE_CHANGED:
+                members = membersOf(Collections.singleton(change.getSubject()));
+                break;
+            case DOCUMENT_ADDED:
+            case DOCUMENT_CONFIRMED:
+            case DOCUMENT_EXPIRED:
+            case DOCUMENT_STATUS_CHANGED:
+                documents = documentsOf(Collections.singletonList(change.getDocument()));
+                break;
+            default:
+                break;
+        }
+        if (seed) {
+            members = membersOf(organization.getMembers());
+            documents = documentsOf(organization.getDocuments());
+        }
+
+        return new ProjectedChange(change.getVersion(), organization.getOwner().getName(), organization.isActive(),
+                organization.isActivationAwaiting(), organization.getNumOfRequiredAcknowledgments(),
+                organization.getNumOfRequiredDocumentConfirmations(), members, documents);
+    }
+
+    private static Map<User, OrganizationSummary.Member> membersOf(Iterable<User> users) {
+        Map<User, OrganizationSummary.Member> members = new LinkedHashMap<User, OrganizationSummary.Member>();
+        for (User user : users) {
+            members.put(user, new OrganizationSummary.Member(user.getName(), user.getRole()));
+        }
+        return members;
+    }
+
+    private static Map<Document, OrganizationSummary.DocumentSummary> documentsOf(Iterable<Document> documents) {
+        Map<Document, OrganizationSummary.DocumentSummary> summaries = new LinkedHashMap<Document, OrganizationSummary.DocumentSummary>();
+        for (Document document : documents) {
+            summaries.put(document, new OrganizationSummary.DocumentSummary(document.getNumber(), document.getCreator().getName(),
+                    document.getStatus(), document.getConfirmations().size()));
+        }
+        return summaries;
+    }
+}
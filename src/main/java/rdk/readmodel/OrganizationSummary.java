@@ -0,0 +1,168 @@
+package rdk.readmodel;
+
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import rdk.model.DocumentStatus;
+import rdk.model.UserRole;
+
+
+/**
+ * Immutable view of an organization as of one of its versions, published by
+ * {@link OrganizationReadModel}. Readers share it without any locking. Its lists share
+ * the rows that did not change with the summaries published before it.
+ */
+public class OrganizationSummary {
+
+    private final String name;
+
+    private final long version;
+
+    private final String owner;
+
+    private final boolean active;
+
+    private final boolean activationAwaiting;
+
+    private final int numOfRequiredAcknowledgments;
+
+    private final int numOfRequiredDocumentConfirmations;
+
+    private final List<Member> members;
+
+    private final int numOfRepresentatives;
+
+    private final List<DocumentSummary> documents;
+
+    private final Map<DocumentStatus, List<DocumentSummary>> documentsByStatus;
+
+    OrganizationSummary(OrganizationProjection projection) {
+        this.name = projection.name;
+        this.version = projection.version;
+        this.owner = projection.owner;
+        this.active = projection.active;
+        this.activationAwaiting = projection.activationAwaiting;
+        this.numOfRequiredAcknowledgments = projection.numOfRequiredAcknowledgments;
+        this.numOfRequiredDocumentConfirmations = projection.numOfRequiredDocumentConfirmations;
+
+        this.members = projection.members.asList();
+        this.numOfRepresentatives = projection.numOfRepresentatives;
+        this.documents = projection.documents.asList();
+
+        Map<DocumentStatus, List<DocumentSummary>> documentsByStatus = new EnumMap<DocumentStatus, List<DocumentSummary>>(DocumentStatus.class);
+        for (Map.Entry<DocumentStatus, PersistentRows<DocumentSummary>> entry : projection.documentsByStatus.entrySet()) {
+            documentsByStatus.put(entry.getKey(), entry.getValue().asList());
+        }
+        this.documentsByStatus = documentsByStatus;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * The version of the organization this summary reflects.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public boolean isActivationAwaiting() {
+        return activationAwaiting;
+    }
+
+    public int getNumOfRequiredAcknowledgments() {
+        return numOfRequiredAcknowledgments;
+    }
+
+    public int getNumOfRequiredDocumentConfirmations() {
+        return numOfRequiredDocumentConfirmations;
+    }
+
+    public List<Member> getMembers() {
+        return members;
+    }
+
+    public int getNumOfMembers() {
+        return members.size();
+    }
+
+    public int getNumOfRepresentatives() {
+        return numOfRepresentatives;
+    }
+
+    public List<DocumentSummary> getDocuments() {
+        return documents;
+    }
+
+    public List<DocumentSummary> getDocuments(DocumentStatus status) {
+        return documentsByStatus.get(status);
+    }
+
+    public int getNumOfDocuments(DocumentStatus status) {
+        return documentsByStatus.get(status).size();
+    }
+
+    public static class Member {
+
+        private final String name;
+
+        private final UserRole role;
+
+        Member(String name, UserRole role) {
+            this.name = name;
+            this.role = role;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public UserRole getRole() {
+            return role;
+        }
+    }
+
+    public static class DocumentSummary {
+
+        private final int number;
+
+        private final String creator;
+
+        private final DocumentStatus status;
+
+        private final int numOfConfirmations;
+
+        DocumentSummary(int number, String creator, DocumentStatus status, int numOfConfirmations) {
+            this.number = number;
+            this.creator = creator;
+            this.status = status;
+            this.numOfConfirmations = numOfConfirmations;
+        }
+
+        public int getNumber() {
+            return number;
+        }
+
+        public String getCreator() {
+            return creator;
+        }
+
+        public DocumentStatus getStatus() {
+            return status;
+        }
+
+        public int getNumOfConfirmations() {
+            return numOfConfirmations;
+        }
+    }
+}
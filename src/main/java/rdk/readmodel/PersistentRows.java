@@ -0,0 +1,232 @@
+package rdk.readmodel;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+
+/**
+ * Immutable rows in slot order, kept in a 32-way trie so that setting a row copies only
+ * the path to its slot and shares everything else with the rows it was made from. Slots
+ * may be empty; every node counts the rows below it, so the rows can be read as a dense
+ * list without walking the empty slots.
+ */
+final class PersistentRows<V> {
+
+    private static final int BITS = 5;
+
+    private static final int WIDTH = 1 << BITS;
+
+    private static final int MASK = WIDTH - 1;
+
+    private static final PersistentRows<Object> EMPTY = new PersistentRows<Object>(null, 0);
+
+    private final Node root;
+
+    /**
+     * How far slots are shifted to pick the child of the root; zero when the root is a leaf.
+     */
+    private final int shift;
+
+    private final List<V> list = new AbstractList<V>() {
+        @Override
+        public V get(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException(String.valueOf(index));
+            }
+            return nth(index);
+        }
+
+        @Override
+        public int size() {
+            return PersistentRows.this.size();
+        }
+
+        @Override
+        public Iterator<V> iterator() {
+            return new RowIterator();
+        }
+    };
+
+    private PersistentRows(Node root, int shift) {
+        this.root = root;
+        this.shift = shift;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <V> PersistentRows<V> empty() {
+        return (PersistentRows<V>) EMPTY;
+    }
+
+    int size() {
+        return root == null ? 0 : root.size;
+    }
+
+    /**
+     * @return the row in the given slot, or {@code null} when it is empty
+     */
+    @SuppressWarnings("unchecked")
+    V get(int slot) {
+        if (root == null || slot >= capacity(shift)) {
+            return null;
+        }
+        Node node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            node = (Node) node.slots[(slot >>> level) & MASK];
+            if (node == null) {
+                return null;
+            }
+        }
+        return (V) node.slots[slot & MASK];
+    }
+
+    /**
+     * @param row the new row, or {@code null} to empty the slot
+     * @return rows sharing all but the path to the given slot with these
+     */
+    PersistentRows<V> with(int slot, V row) {
+        if (slot < 0) {
+            throw new IndexOutOfBoundsException(String.valueOf(slot));
+        }
+        Node root = this.root;
+        int shift = this.shift;
+        while (slot >= capacity(shift)) {
+            if (row == null) {
+                return this;
+            }
+            if (root != null) {
+                Object[] slots = new Object[WIDTH];
+                slots[0] = root;
+                root = new Node(slots, root.size);
+            }
+            shift += BITS;
+        }
+        return new PersistentRows<V>(with(root, shift, slot, row), shift);
+    }
+
+    /**
+     * A read-only list of the rows in slot order, skipping empty slots.
+     */
+    List<V> asList() {
+        return list;
+    }
+
+    private static int capacity(int shift) {
+        return shift + BITS >= Integer.SIZE - 1 ? Integer.MAX_VALUE : 1 << (shift + BITS);
+    }
+
+    private static Node with(Node node, int level, int slot, Object row) {
+        Object[] slots = node == null ? new Object[WIDTH] : node.slots.clone();
+        int size = node == null ? 0 : node.size;
+        int index = (slot >>> level) & MASK;
+        if (level == 0) {
+            size += (row == null ? 0 : 1) - (slots[index] == null ? 0 : 1);
+            slots[index] = row;
+        } else {
+            Node child = (Node) slots[index];
+            Node changed = with(child, level - BITS, slot, row);
+            size += changed.size - (child == null ? 0 : child.size);
+            slots[index] = changed.size == 0 ? null : changed;
+        }
+        return new Node(slots, size);
+    }
+
+    @SuppressWarnings("unchecked")
+    private V nth(int index) {
+        Node node = root;
+        for (int level = shift; level > 0; level -= BITS) {
+            for (Object slot : node.slots) {
+                Node child = (Node) slot;
+                if (child != null) {
+                    if (index < child.size) {
+                        node = child;
+                        break;
+                    }
+                    index -= child.size;
+                }
+            }
+        }
+        for (Object row : node.slots) {
+            if (row != null && index-- == 0) {
+                return (V) row;
+            }
+        }
+        throw new IllegalStateException("Row counts do not match the rows");
+    }
+
+    private static final class Node {
+
+        final Object[] slots;
+
+        /**
+         * The number of rows below this node.
+         */
+        final int size;
+
+        Node(Object[] slots, int size) {
+            this.slots = slots;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Walks the trie depth first, keeping the position within every node on the way down.
+     */
+    private final class RowIterator implements Iterator<V> {
+
+        private final Node[] nodes = new Node[shift / BITS + 1];
+
+        private final int[] positions = new int[nodes.length];
+
+        private int depth;
+
+        private V next;
+
+        RowIterator() {
+            if (root != null) {
+                nodes[0] = root;
+            } else {
+                depth = -1;
+            }
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public V next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            V row = next;
+            advance();
+            return row;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                if (positions[depth] == WIDTH) {
+                    depth--;
+                    continue;
+                }
+                Object slot = nodes[depth].slots[positions[depth]++];
+                if (slot == null) {
+                    continue;
+                }
+                if (depth == nodes.length - 1) {
+                    next = (V) slot;
+                    return;
+                }
+                depth++;
+                nodes[depth] = (Node) slot;
+                positions[depth] = 0;
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package rdk.readmodel;
+
+import java.util.Map;
+
+import rdk.model.Document;
+import rdk.model.User;
+
+
+/**
+ * What a change did to an organization, captured on the thread that made it so it can be
+ * applied later without touching the organization.
+ */
+class ProjectedChange {
+
+    final long version;
+
+    final String owner;
+
+    final boolean active;
+
+    final boolean activationAwaiting;
+
+    final int numOfRequiredAcknowledgments;
+
+    final int numOfRequiredDocumentConfirmations;
+
+    final Map<User, OrganizationSummary.Member> members;
+
+    final Map<Document, OrganizationSummary.DocumentSummary> documents;
+
+    ProjectedChange(long version, String owner, boolean active, boolean activationAwaiting,
+            int numOfRequiredAcknowledgments, int numOfRequiredDocumentConfirmations, Map<User, OrganizationSummary.Member> members,
+            Map<Document, OrganizationSummary.DocumentSummary> documents) {
+        this.version = version;
+        this.owner = owner;
+        this.active = active;
+        this.activationAwaiting = activationAwaiting;
+        this.numOfRequiredAcknowledgments = numOfRequiredAcknowledgments;
+        this.numOfRequiredDocumentConfirmations = numOfRequiredDocumentConfirmations;
+        this.members = members;
+        this.documents = documents;
+    }
+}
@@ -0,0 +1,133 @@
+package rdk.replication;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import rdk.event.ChangeType;
+import rdk.event.OrganizationChange;
+import rdk.model.User;
+import rdk.model.UserRole;
+
+
+/**
+ * Wire form of an {@link OrganizationChange}. Users are identified by name and carry
+ * the role they had when the change was made, organizations are identified by name.
+ */
+public class ChangeRecord {
+
+    private final long sequence;
+
+    private final ChangeType type;
+
+    private final String organizationName;
+
+    private final String actorName;
+
+    private final UserRole actorRole;
+
+    private final String subjectName;
+
+    private final UserRole subjectRole;
+
+    private final int value;
+
+    public ChangeRecord(long sequence, ChangeType type, String organizationName, String actorName, UserRole actorRole,
+            String subjectName, UserRole subjectRole, int value) {
+        this.sequence = sequence;
+        this.type = type;
+        this.organizationName = organizationName;
+        this.actorName = actorName;
+        this.actorRole = actorRole;
+        this.subjectName = subjectName;
+        this.subjectRole = subjectRole;
+        this.value = value;
+    }
+
+    public static ChangeRecord of(long sequence, OrganizationChange change) {
+        User actor = change.getActor();
+        User subject = change.getSubject();
+
+        return new ChangeRecord(sequence, change.getType(),
+                change.getOrganization() == null ? null : change.getOrganization().getName(),
+                actor == null ? null : actor.getName(), actor == null ? null : actor.getRole(),
+                subject == null ? null : subject.getName(), subject == null ? null : subject.getRole(),
+                change.getValue());
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public ChangeType getType() {
+        return type;
+    }
+
+    public String getOrganizationName() {
+        return organizationName;
+    }
+
+    public String getActorName() {
+        return actorName;
+    }
+
+    public UserRole getActorRole() {
+        return actorRole;
+    }
+
+    public String getSubjectName() {
+        return subjectName;
+    }
+
+    public UserRole getSubjectRole() {
+        return subjectRole;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeLong(sequence);
+        out.writeByte(type.ordinal());
+        writeNullableString(out, organizationName);
+        writeNullableString(out, actorName);
+        writeNullableRole(out, actorRole);
+        writeNullableString(out, subjectName);
+        writeNullableRole(out, subjectRole);
+        out.writeInt(value);
+    }
+
+    public static ChangeRecord readFrom(DataInputStream in) throws IOException {
+        long sequence = in.readLong();
+        ChangeType type = ChangeType.values()[in.readByte()];
+        String organizationName = readNullableString(in);
+        String actorName = readNullableString(in);
+        UserRole actorRole = readNullableRole(in);
+        String subjectName = readNullableString(in);
+        UserRole subjectRole = readNullableRole(in);
+        int value = in.readInt();
+
+        return new ChangeRecord(sequence, type, organizationName, actorName, actorRole, subjectName, subjectRole, value);
+    }
+
+    private static void writeNullableString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readNullableString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeNullableRole(DataOutputStream out, UserRole role) throws IOException {
+        out.writeByte(role == null ? -1 : role.ordinal());
+    }
+
+    private static UserRole readNullableRole(DataInputStream in) throws IOException {
+        byte ordinal = in.readByte();
+        return ordinal < 0 ? null : UserRole.values()[ordinal];
+    }
+}
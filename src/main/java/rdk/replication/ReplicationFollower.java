@@ -0,0 +1,299 @@
+package rdk.replication;
+
+import static rdk.model.User.UserBuilder.user;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import rdk.event.ChangeType;
+import rdk.exception.UnauthorizedAccessException;
+import rdk.exception.UnauthorizedDocumentCreationException;
+import rdk.model.Document;
+import rdk.model.Organization;
+import rdk.model.User;
+import rdk.model.UserRole;
+import rdk.service.DocumentService;
+import rdk.service.OrganizationRegistry;
+import rdk.service.OrganizationService;
+
+
+/**
+ * Read-only replica fed by a {@link ReplicationLeader}. Change records are replayed in
+ * sequence order through a private {@link OrganizationService}, so the replica runs the
+ * same domain rules as the leader did. Replicated users are identified by name.
+ * <p>
+ * The handshake tells the leader the last change applied, so a follower that lost its
+ * connection can {@link #reconnect()} and continue from there, as long as the leader
+ * still retains the next change.
+ */
+public class ReplicationFollower implements Closeable {
+
+    private final ReadWriteLock stateLock = new ReentrantReadWriteLock();
+
+    private final OrganizationRegistry organizationRegistry = new OrganizationRegistry();
+
+    private final OrganizationService organizationService = new OrganizationService(new DocumentService(), organizationRegistry);
+
+    private final Map<String, User> users = new HashMap<String, User>();
+
+    private final Object progress = new Object();
+
+    private final String host;
+
+    private final int port;
+
+    private volatile Socket socket;
+
+    private Thread applier;
+
+    private volatile long appliedSequence = 0;
+
+    private volatile Exception failure;
+
+    public ReplicationFollower(String host, int port) throws IOException {
+        this.host = host;
+        this.port = port;
+        connect();
+    }
+
+    /**
+     * Closes the current connection, if still open, and continues after the last change
+     * applied over a new one. Waits for the batch being applied, so the leader is told
+     * about every change applied so far.
+     */
+    public synchronized void reconnect() throws IOException {
+        socket.close();
+        try {
+            applier.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the applied batch");
+        }
+        failure = null;
+        connect();
+    }
+
+    private void connect() throws IOException {
+        final Socket socket = new Socket(host, port);
+        socket.setTcpNoDelay(true);
+        final DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+        final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+
+        out.writeLong(appliedSequence);
+        out.flush();
+        this.socket = socket;
+
+        applier = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                applyRecords(socket, in, out);
+            }
+        }, "replication-follower-" + socket.getLocalPort());
+        applier.setDaemon(true);
+        applier.start();
+    }
+
+    public long getAppliedSequence() {
+        return appliedSequence;
+    }
+
+    public Exception getFailure() {
+        return failure;
+    }
+
+    public boolean awaitSequence(long sequence, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (progress) {
+            while (appliedSequence < sequence) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || failure != null) {
+                    return false;
+                }
+                progress.wait(remaining);
+            }
+            return true;
+        }
+    }
+
+    public Set<User> getMembers(String organizationName) {
+        stateLock.readLock().lock();
+        try {
+            Organization organization = organizationRegistry.find(organizationName);
+            return organization == null ? Collections.<User> emptySet()
+                    : Collections.unmodifiableSet(new HashSet<User>(organization.getMembers()));
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    public boolean isActive(String organizationName) {
+        stateLock.readLock().lock();
+        try {
+            Organization organization = organizationRegistry.find(organizationName);
+            return organization != null && organization.isActive();
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    public long getVersion(String organizationName) {
+        stateLock.readLock().lock();
+        try {
+            Organization organization = organizationRegistry.find(organizationName);
+            return organization == null ? 0 : organization.getVersion();
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    public List<Document> getDocuments(String organizationName) {
+        stateLock.readLock().lock();
+        try {
+            Organization organization = organizationRegistry.find(organizationName);
+            return organization == null ? Collections.<Document> emptyList()
+                    : Collections.unmodifiableList(new ArrayList<Document>(organization.getDocuments()));
+        } finally {
+            stateLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private void applyRecords(Socket socket, DataInputStream in, DataOutputStream out) {
+        try {
+            while (true) {
+                int batchSize = in.readInt();
+                stateLock.writeLock().lock();
+                try {
+                    for (int i = 0; i < batchSize; i++) {
+                        apply(ChangeRecord.readFrom(in));
+                    }
+                } finally {
+                    stateLock.writeLock().unlock();
+                }
+                out.writeLong(appliedSequence);
+                out.flush();
+                synchronized (progress) {
+                    progress.notifyAll();
+                }
+            }
+        } catch (Exception e) {
+            if (!socket.isClosed()) {
+                failure = e;
+            }
+            synchronized (progress) {
+                progress.notifyAll();
+            }
+        }
+    }
+
+    private void apply(ChangeRecord record) throws UnauthorizedAccessException, UnauthorizedDocumentCreationException {
+        if (record.getSequence() != appliedSequence + 1) {
+            throw new IllegalStateException("Expected change " + (appliedSequence + 1) + " but received " + record.getSequence());
+        }
+
+        if (record.getType() == ChangeType.ORGANIZATION_CREATED) {
+            organizationService.createNewOrganisation(record.getOrganizationName(), userOf(record.getActorName(), record.getActorRole()));
+        } else if (record.getType() == ChangeType.DEFAULT_ACKNOWLEDGMENTS_CHANGED) {
+            organizationService.setDefaultNumOfRequiredAcknowledgments(record.getValue(), adminOf(record));
+        } else if (record.getType() == ChangeType.DEFAULT_DOCUMENT_CONFIRMATIONS_CHANGED) {
+            organizationService.setDefaultNumOfRequiredDocumentConfirmations(record.getValue(), adminOf(record));
+        } else if (!isAppliedWithDefault(record)) {
+            replay(record, organizationRegistry.find(record.getOrganizationName()));
+        }
+        appliedSequence = record.getSequence();
+    }
+
+    private void replay(ChangeRecord record, Organization organization) throws UnauthorizedAccessException,
+            UnauthorizedDocumentCreationException {
+        if (organization == null) {
+            throw new IllegalStateException("Change " + record.getSequence() + " refers to unknown organization "
+                    + record.getOrganizationName());
+        }
+        switch (record.getType()) {
+        case ACTIVATION_REQUESTED:
+            organizationService.requestForActivation(organization, organization.getOwner());
+            break;
+        case MEMBER_ADDED:
+            organizationService.addMember(organization, organization.getOwner(), userOf(record.getSubjectName(), record.getSubjectRole()));
+            break;
+        case ACKNOWLEDGMENTS_CHANGED:
+            organizationService.setNumOfRequiredAcknowledgments(organization, record.getValue(), organization.getOwner());
+            break;
+        case ORGANIZATION_ACTIVATED:
+            organizationService.activateOrganisation(organization, adminOf(record));
+            break;
+        case MEMBER_PROMOTED:
+            organizationService.promoteMemberBy(organization, userOf(record.getSubjectName(), record.getSubjectRole()),
+                    userOf(record.getActorName(), record.getActorRole()));
+            break;
+        case REPRESENTATIVE_CANCELLED:
+            if (record.getValue() == OrganizationService.CASCADED_DEMOTION) {
+                // demoted by the replayed cancellation that started the cascade
+                break;
+            }
+            organizationService.cancelMemberRepresentativeRole(organization, userOf(record.getSubjectName(), record.getSubjectRole()),
+                    organization.getOwner(), record.getValue() != 0);
+            break;
+        case DOCUMENT_ADDED:
+            organizationService.addNewDocumentByUser(organization, userOf(record.getActorName(), record.getActorRole()));
+            break;
+        case DOCUMENT_CONFIRMATIONS_CHANGED:
+            organizationService.setNumOfRequiredDocumentConfirmations(organization, record.getValue(), organization.getOwner());
+            break;
+        case DOCUMENT_CONFIRMED:
+            organizationService.confirmDocumentBy(organization, organization.getDocuments().get(record.getValue()),
+                    userOf(record.getActorName(), record.getActorRole()));
+            break;
+        case DOCUMENT_EXPIRED:
+            organizationService.expireDocument(organization, organization.getDocuments().get(record.getValue()));
+            break;
+        case MEMBER_ROLE_CHANGED:
+        case DOCUMENT_STATUS_CHANGED:
+            // follows from another replayed change
+            break;
+        default:
+            throw new IllegalStateException("Unsupported change " + record.getType());
+        }
+    }
+
+    /**
+     * Threshold changes made by an admin follow a change of the global default, whose
+     * replay has already applied them to every organization.
+     */
+    private static boolean isAppliedWithDefault(ChangeRecord record) {
+        return record.getActorRole() == UserRole.ADMIN && (record.getType() == ChangeType.ACKNOWLEDGMENTS_CHANGED
+                || record.getType() == ChangeType.DOCUMENT_CONFIRMATIONS_CHANGED);
+    }
+
+    private static User adminOf(ChangeRecord record) {
+        return user(record.getActorName()).withRole(UserRole.ADMIN).build();
+    }
+
+    private User userOf(String name, UserRole role) {
+        User user = users.get(name);
+        if (user == null) {
+            user = user(name).withRole(role).build();
+            users.put(name, user);
+        }
+        return user;
+    }
+}
@@ -0,0 +1,333 @@
+package rdk.replication;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import rdk.event.OrganizationChange;
+import rdk.event.OrganizationChangeListener;
+
+
+/**
+ * Sequences every change published by the organization service and ships it to the
+ * connected {@link ReplicationFollower}s. Each follower gets batches of up to
+ * {@code maxBatchSize} records and may have up to {@code ackWindow} records sent but not
+ * yet acknowledged, so sending never waits for a round trip while the window is open.
+ * <p>
+ * The log is kept in memory. Once it holds more than {@code maxRetainedRecords}, records
+ * acknowledged by every connected follower are discarded, so memory is only bounded while
+ * followers keep up. A follower continues after the last change it applied, so one that
+ * reconnects after others moved on can only resume while its next record is retained;
+ * otherwise it is disconnected for good. Without a limit the whole log is kept and a
+ * follower can join at any time.
+ * <p>
+ * The leader listens on the loopback address unless given another one to bind to.
+ */
+public class ReplicationLeader implements OrganizationChangeListener, Closeable {
+
+    private static final int HANDSHAKE_TIMEOUT_MILLIS = (int) TimeUnit.SECONDS.toMillis(10);
+
+    private final Object lock = new Object();
+
+    private final List<ChangeRecord> log = new ArrayList<ChangeRecord>();
+
+    private final List<FollowerSession> sessions = new CopyOnWriteArrayList<FollowerSession>();
+
+    private final ServerSocket serverSocket;
+
+    private final int ackWindow;
+
+    private final int maxBatchSize;
+
+    private final int maxRetainedRecords;
+
+    /**
+     * Sequence of the first record still in the log.
+     */
+    private long firstSequence = 1;
+
+    private volatile boolean closed = false;
+
+    public ReplicationLeader(int port, int ackWindow, int maxBatchSize) throws IOException {
+        this(port, ackWindow, maxBatchSize, Integer.MAX_VALUE);
+    }
+
+    public ReplicationLeader(int port, int ackWindow, int maxBatchSize, int maxRetainedRecords) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port, ackWindow, maxBatchSize, maxRetainedRecords);
+    }
+
+    /**
+     * @param bindAddress the address to accept followers on, or {@code null} for all local
+     *        addresses
+     */
+    public ReplicationLeader(InetAddress bindAddress, int port, int ackWindow, int maxBatchSize, int maxRetainedRecords)
+            throws IOException {
+        if (ackWindow < 1 || maxBatchSize < 1 || maxRetainedRecords < 1) {
+            throw new IllegalArgumentException("Acknowledgment window, batch size and retained records must be positive");
+        }
+        this.ackWindow = ackWindow;
+        this.maxBatchSize = maxBatchSize;
+        this.maxRetainedRecords = maxRetainedRecords;
+        this.serverSocket = new ServerSocket(port, 50, bindAddress);
+
+        Thread acceptor = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                acceptFollowers();
+            }
+        }, "replication-leader-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    @Override
+    public void onChange(OrganizationChange change) {
+        synchronized (lock) {
+            log.add(ChangeRecord.of(lastSequence() + 1, change));
+            if (log.size() - maxRetainedRecords >= Math.max(1, maxRetainedRecords / 2)) {
+                discardAcknowledged();
+            }
+            lock.notifyAll();
+        }
+    }
+
+    public long getLastSequence() {
+        synchronized (lock) {
+            return lastSequence();
+        }
+    }
+
+    public long getFirstRetainedSequence() {
+        synchronized (lock) {
+            return firstSequence;
+        }
+    }
+
+    private long lastSequence() {
+        return firstSequence + log.size() - 1;
+    }
+
+    /**
+     * Trims the log in chunks of half the limit, so removing from its front stays cheap.
+     */
+    private void discardAcknowledged() {
+        long discardable = lastSequence() - maxRetainedRecords;
+        for (FollowerSession session : sessions) {
+            discardable = Math.min(discardable, session.acknowledged);
+        }
+        int count = (int) (discardable - firstSequence + 1);
+        if (count > 0) {
+            log.subList(0, count).clear();
+            firstSequence += count;
+        }
+    }
+
+    public int getNumOfFollowers() {
+        return sessions.size();
+    }
+
+    /**
+     * @return {@code false} also when no follower is connected until the timeout
+     */
+    public boolean awaitAcknowledged(long sequence, long timeoutMillis) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (lock) {
+            while (!allAcknowledged(sequence)) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0 || closed) {
+                    return false;
+                }
+                lock.wait(remaining);
+            }
+            return true;
+        }
+    }
+
+    private boolean allAcknowledged(long sequence) {
+        if (sessions.isEmpty()) {
+            return false;
+        }
+        for (FollowerSession session : sessions) {
+            if (session.acknowledged < sequence) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (FollowerSession session : sessions) {
+            session.close();
+        }
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Only accepts connections, the handshake of every follower runs on its own thread so a
+     * silent or failing follower does not hold up the others.
+     */
+    private void acceptFollowers() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                new FollowerSession(socket).start();
+            } catch (IOException e) {
+                // the failed connection is dropped, the server socket keeps accepting until closed
+            }
+        }
+    }
+
+    private class FollowerSession {
+
+        private final Socket socket;
+
+        private final DataInputStream in;
+
+        private final DataOutputStream out;
+
+        private long sent;
+
+        private volatile long acknowledged;
+
+        private volatile boolean open = true;
+
+        FollowerSession(Socket socket) throws IOException {
+            this.socket = socket;
+            this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+            this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+        }
+
+        void start() {
+            startDaemon(new Runnable() {
+                @Override
+                public void run() {
+                    if (handshake()) {
+                        startDaemon(new Runnable() {
+                            @Override
+                            public void run() {
+                                readAcknowledgments();
+                            }
+                        }, "replication-acks-" + socket.getPort());
+                        sendRecords();
+                    }
+                }
+            }, "replication-sender-" + socket.getPort());
+        }
+
+        /**
+         * Reads the last sequence the follower applied and registers the session, unless
+         * the record after it has already been discarded.
+         */
+        private boolean handshake() {
+            try {
+                socket.setTcpNoDelay(true);
+                socket.setSoTimeout(HANDSHAKE_TIMEOUT_MILLIS);
+                long nextSequence = in.readLong() + 1;
+                socket.setSoTimeout(0);
+                synchronized (lock) {
+                    if (closed || nextSequence < firstSequence) {
+                        close();
+                        return false;
+                    }
+                    sent = nextSequence - 1;
+                    acknowledged = nextSequence - 1;
+                    sessions.add(this);
+                    lock.notifyAll();
+                }
+                return true;
+            } catch (IOException e) {
+                close();
+                return false;
+            }
+        }
+
+        private void sendRecords() {
+            try {
+                while (true) {
+                    List<ChangeRecord> batch = nextBatch();
+                    if (batch == null) {
+                        return;
+                    }
+                    out.writeInt(batch.size());
+                    for (ChangeRecord record : batch) {
+                        record.writeTo(out);
+                    }
+                    out.flush();
+                }
+            } catch (IOException e) {
+                close();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                close();
+            }
+        }
+
+        private List<ChangeRecord> nextBatch() throws InterruptedException {
+            synchronized (lock) {
+                while (!closed && open && (sent >= lastSequence() || sent - acknowledged >= ackWindow)) {
+                    lock.wait();
+                }
+                if (closed || !open) {
+                    return null;
+                }
+                long end = Math.min(lastSequence(), Math.min(sent + maxBatchSize, acknowledged + ackWindow));
+                List<ChangeRecord> batch = new ArrayList<ChangeRecord>(log.subList((int) (sent - firstSequence + 1),
+                        (int) (end - firstSequence + 1)));
+                sent = end;
+                return batch;
+            }
+        }
+
+        private void readAcknowledgments() {
+            try {
+                while (true) {
+                    long sequence = in.readLong();
+                    synchronized (lock) {
+                        acknowledged = sequence;
+                        lock.notifyAll();
+                    }
+                }
+            } catch (IOException e) {
+                close();
+            }
+        }
+
+        void close() {
+            open = false;
+            sessions.remove(this);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // already closed by the other side
+            }
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    private static void startDaemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        thread.start();
+    }
+}
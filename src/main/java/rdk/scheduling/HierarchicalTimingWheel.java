@@ -0,0 +1,218 @@
+package rdk.scheduling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * Hierarchical timing wheel (Varghese and Lauck). Level 0 has {@code wheelSize} slots of one
+ * tick; every higher level has slots as long as the whole level below. A timeout is placed
+ * in the lowest level whose range covers its deadline and moves down a level each time the
+ * wheel reaches its slot, so scheduling and cancelling are O(1) and advancing costs O(1) per
+ * tick plus the work for timeouts that move or expire. Deadlines are rounded up to a whole
+ * tick, so a timeout expires at most one tick late and never early. Deadlines beyond the
+ * top level wait in its farthest slot and are placed again when it is reached.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    public interface ExpiryHandler<T> {
+
+        void expired(T payload);
+    }
+
+    private final long tickMillis;
+
+    private final int wheelSize;
+
+    private final long[] slotMillis;
+
+    private final Bucket<T>[][] levels;
+
+    private final Bucket<T> overdue = new Bucket<T>();
+
+    private final ExpiryHandler<T> expiryHandler;
+
+    private long currentTime;
+
+    private int size = 0;
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    public HierarchicalTimingWheel(long tickMillis, int wheelSize, int numOfLevels, long startMillis, ExpiryHandler<T> expiryHandler) {
+        if (tickMillis < 1 || wheelSize < 2 || numOfLevels < 1) {
+            throw new IllegalArgumentException("Tick must be positive, wheel must have at least two slots and one level");
+        }
+        this.tickMillis = tickMillis;
+        this.wheelSize = wheelSize;
+        this.expiryHandler = expiryHandler;
+        this.currentTime = startMillis - Math.floorMod(startMillis, tickMillis);
+
+        this.slotMillis = new long[numOfLevels];
+        this.levels = new Bucket[numOfLevels][wheelSize];
+        for (int level = 0; level < numOfLevels; level++) {
+            slotMillis[level] = level == 0 ? tickMillis : slotMillis[level - 1] * wheelSize;
+            for (int slot = 0; slot < wheelSize; slot++) {
+                levels[level][slot] = new Bucket<T>();
+            }
+        }
+    }
+
+    public synchronized Timeout<T> schedule(long deadlineMillis, T payload) {
+        long expiration = deadlineMillis + Math.floorMod(-deadlineMillis, tickMillis);
+        Timeout<T> timeout = new Timeout<T>(this, expiration, payload);
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long getCurrentTime() {
+        return currentTime;
+    }
+
+    /**
+     * Moves the wheel forward to {@code nowMillis} and hands every timeout that expired on
+     * the way to the expiry handler, on the calling thread and outside the wheel's lock.
+     */
+    public void advanceTo(long nowMillis) {
+        List<T> expired = new ArrayList<T>();
+        synchronized (this) {
+            drain(overdue, expired);
+            while (currentTime + tickMillis <= nowMillis) {
+                currentTime += tickMillis;
+                for (int level = levels.length - 1; level > 0; level--) {
+                    if (currentTime % slotMillis[level] == 0) {
+                        cascade(levels[level][slotOf(currentTime, level)]);
+                    }
+                }
+                drain(levels[0][slotOf(currentTime, 0)], expired);
+                drain(overdue, expired);
+            }
+        }
+        for (T payload : expired) {
+            expiryHandler.expired(payload);
+        }
+    }
+
+    synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.bucket == null) {
+            return false;
+        }
+        timeout.bucket.remove(timeout);
+        size--;
+        return true;
+    }
+
+    private void place(Timeout<T> timeout) {
+        if (timeout.expiration <= currentTime) {
+            overdue.add(timeout);
+            return;
+        }
+        int top = levels.length - 1;
+        for (int level = 0; level <= top; level++) {
+            long range = slotMillis[level] * wheelSize;
+            if (timeout.expiration < currentTime + range) {
+                levels[level][slotOf(timeout.expiration, level)].add(timeout);
+                return;
+            }
+        }
+        long farthest = currentTime + slotMillis[top] * (wheelSize - 1);
+        levels[top][slotOf(farthest, top)].add(timeout);
+    }
+
+    private void cascade(Bucket<T> bucket) {
+        Timeout<T> timeout = bucket.removeFirst();
+        while (timeout != null) {
+            place(timeout);
+            timeout = bucket.removeFirst();
+        }
+    }
+
+    private void drain(Bucket<T> bucket, List<T> expired) {
+        Timeout<T> timeout = bucket.removeFirst();
+        while (timeout != null) {
+            expired.add(timeout.payload);
+            size--;
+            timeout = bucket.removeFirst();
+        }
+    }
+
+    private int slotOf(long time, int level) {
+        return (int) ((time / slotMillis[level]) % wheelSize);
+    }
+
+    public static class Timeout<T> {
+
+        private final HierarchicalTimingWheel<T> wheel;
+
+        private final long expiration;
+
+        private final T payload;
+
+        private Bucket<T> bucket;
+
+        private Timeout<T> previous;
+
+        private Timeout<T> next;
+
+        Timeout(HierarchicalTimingWheel<T> wheel, long expiration, T payload) {
+            this.wheel = wheel;
+            this.expiration = expiration;
+            this.payload = payload;
+        }
+
+        public long getExpiration() {
+            return expiration;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+
+        /**
+         * @return {@code false} when the timeout has already expired or been cancelled
+         */
+        public boolean cancel() {
+            return wheel.cancel(this);
+        }
+    }
+
+    private static class Bucket<T> {
+
+        private Timeout<T> head;
+
+        void add(Timeout<T> timeout) {
+            timeout.bucket = this;
+            timeout.previous = null;
+            timeout.next = head;
+            if (head != null) {
+                head.previous = timeout;
+            }
+            head = timeout;
+        }
+
+        void remove(Timeout<T> timeout) {
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            }
+            timeout.bucket = null;
+            timeout.previous = null;
+            timeout.next = null;
+        }
+
+        Timeout<T> removeFirst() {
+            Timeout<T> first = head;
+            if (first != null) {
+                remove(first);
+            }
+            return first;
+        }
+    }
+}
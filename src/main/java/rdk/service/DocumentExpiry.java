@@ -0,0 +1,167 @@
+package rdk.service;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import rdk.event.ChangeType;
+import rdk.event.OrganizationChange;
+import rdk.event.OrganizationChangeListener;
+import rdk.model.Document;
+import rdk.model.DocumentStatus;
+import rdk.model.Organization;
+import rdk.scheduling.HierarchicalTimingWheel;
+import rdk.scheduling.HierarchicalTimingWheel.Timeout;
+
+
+/**
+ * Expires documents that stay unconfirmed for longer than the configured time to live.
+ * Every added document gets a timeout in a {@link HierarchicalTimingWheel} that is
+ * cancelled when the document is confirmed, so pending documents are never scanned and a
+ * single ticker thread drives all of them. Documents confirmed by a threshold change keep
+ * their timeout, which then finds them confirmed and does nothing. The ticker thread only
+ * hands expirations to {@link OrganizationService#execute}, so they are applied in the
+ * organization's mailbox like any other mutation.
+ */
+public class DocumentExpiry implements OrganizationChangeListener, Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DocumentExpiry.class);
+
+    public static final int DEFAULT_WHEEL_SIZE = 256;
+
+    public static final int DEFAULT_NUM_OF_LEVELS = 4;
+
+    private final OrganizationService organizationService;
+
+    private final long timeToLiveMillis;
+
+    private final long tickMillis;
+
+    private final LongSupplier millisClock;
+
+    private final HierarchicalTimingWheel<Expiration> wheel;
+
+    private final Map<Document, Timeout<Expiration>> pending = new ConcurrentHashMap<Document, Timeout<Expiration>>();
+
+    private ScheduledExecutorService ticker;
+
+    public DocumentExpiry(OrganizationService organizationService, long timeToLiveMillis, long tickMillis) {
+        this(organizationService, timeToLiveMillis, tickMillis, DEFAULT_WHEEL_SIZE, DEFAULT_NUM_OF_LEVELS, new LongSupplier() {
+            @Override
+            public long getAsLong() {
+                return System.currentTimeMillis();
+            }
+        });
+    }
+
+    public DocumentExpiry(OrganizationService organizationService, long timeToLiveMillis, long tickMillis, int wheelSize,
+            int numOfLevels, LongSupplier millisClock) {
+        this.organizationService = organizationService;
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.tickMillis = tickMillis;
+        this.millisClock = millisClock;
+        this.wheel = new HierarchicalTimingWheel<Expiration>(tickMillis, wheelSize, numOfLevels, millisClock.getAsLong(),
+                new HierarchicalTimingWheel.ExpiryHandler<Expiration>() {
+                    @Override
+                    public void expired(Expiration expiration) {
+                        expire(expiration);
+                    }
+                });
+        organizationService.addChangeListener(this);
+    }
+
+    /**
+     * Starts a daemon thread that advances the wheel every tick. Without it expired
+     * documents are only processed by {@link #expireDue()}.
+     */
+    public synchronized void start() {
+        if (ticker != null) {
+            return;
+        }
+        ticker = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "document-expiry");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        ticker.scheduleAtFixedRate(new Runnable() {
+            @Override
+            public void run() {
+                expireDue();
+            }
+        }, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public void expireDue() {
+        wheel.advanceTo(millisClock.getAsLong());
+    }
+
+    public int getNumOfPendingDocuments() {
+        return pending.size();
+    }
+
+    @Override
+    public void onChange(OrganizationChange change) {
+        if (change.getType() == ChangeType.DOCUMENT_ADDED) {
+            Expiration expiration = new Expiration(change.getOrganization(), change.getDocument());
+            pending.put(change.getDocument(), wheel.schedule(millisClock.getAsLong() + timeToLiveMillis, expiration));
+        } else if ((change.getType() == ChangeType.DOCUMENT_CONFIRMED || change.getType() == ChangeType.DOCUMENT_STATUS_CHANGED)
+                && change.getDocument().getStatus() == DocumentStatus.CONFIRMED) {
+            Timeout<Expiration> timeout = pending.remove(change.getDocument());
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        organizationService.removeChangeListener(this);
+        if (ticker != null) {
+            ticker.shutdownNow();
+            ticker = null;
+        }
+    }
+
+    private void expire(final Expiration expiration) {
+        pending.remove(expiration.document);
+        organizationService.execute(expiration.organization, new OrganizationExecutor.OrganizationTask<Void>() {
+            @Override
+            public Void execute(OrganizationService service, Organization organization) {
+                service.expireDocument(organization, expiration.document);
+                return null;
+            }
+        }).whenComplete(new BiConsumer<Void, Throwable>() {
+            @Override
+            public void accept(Void result, Throwable failure) {
+                if (failure != null) {
+                    LOGGER.warn("Failed to expire document {} of {}", expiration.document.getNumber(),
+                            expiration.organization.getName(), failure);
+                }
+            }
+        });
+    }
+
+    private static class Expiration {
+
+        private final Organization organization;
+
+        private final Document document;
+
+        Expiration(Organization organization, Document document) {
+            this.organization = organization;
+            this.document = document;
+        }
+    }
+}
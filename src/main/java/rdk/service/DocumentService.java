@@ -4,14 +4,20 @@ import org.springframework.stereotype.Service;
 
 import rdk.exception.UnauthorizedDocumentCreationException;
 import rdk.model.Document;
+import rdk.model.Organization;
 import rdk.model.User;
 import rdk.model.UserRole;
 
 @Service
 public class DocumentService {
 
-    public Document createDocumentByUser(User organisationRepresentativeMember) throws UnauthorizedDocumentCreationException {
-        if (organisationRepresentativeMember.getRole() != UserRole.REPRESENTATIVE) {
+    /**
+     * Reports the role check to the authorization listener of the organization the
+     * document is created for.
+     */
+    public Document createDocumentByUser(Organization organization, User organisationRepresentativeMember)
+            throws UnauthorizedDocumentCreationException {
+        if (!organization.hasRole(organisationRepresentativeMember, UserRole.REPRESENTATIVE)) {
             throw new UnauthorizedDocumentCreationException("Documents can be created only by representative users");
         }
         return new Document(organisationRepresentativeMember);
@@ -0,0 +1,6 @@
+package rdk.service;
+
+
+public enum ExportFormat {
+    JSON_LINES, CSV;
+}
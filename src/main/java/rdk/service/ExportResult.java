@@ -0,0 +1,28 @@
+package rdk.service;
+
+import java.util.concurrent.TimeUnit;
+
+
+public class ExportResult {
+
+    private final long numOfRows;
+
+    private final long elapsedNanos;
+
+    public ExportResult(long numOfRows, long elapsedNanos) {
+        this.numOfRows = numOfRows;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getNumOfRows() {
+        return numOfRows;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : numOfRows * 1e9 / elapsedNanos;
+    }
+}
@@ -0,0 +1,306 @@
+package rdk.service;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import rdk.model.Document;
+import rdk.model.Organization;
+import rdk.model.ReevaluationReport;
+import rdk.model.User;
+
+
+/**
+ * Runs mutations of {@link OrganizationService} in the actor style: every organization
+ * has its own mailbox whose messages are executed one at a time, and the mailboxes are
+ * multiplexed over a fixed pool of workers. Mutations of one organization are therefore
+ * applied in submission order without locking, while different organizations proceed in
+ * parallel. A mailbox is dropped as soon as it runs empty, so only organizations with
+ * pending mutations are tracked. After {@link #shutdown()} submitted mutations fail with a
+ * {@link RejectedExecutionException}. The executor registers itself with the service, so
+ * work the service starts on its own, such as expirations, goes through the mailboxes too.
+ */
+public class OrganizationExecutor {
+
+    private static final int MESSAGES_PER_TURN = 64;
+
+    private final OrganizationService organizationService;
+
+    private final ExecutorService workers;
+
+    private final ConcurrentMap<Organization, Mailbox> mailboxes = new ConcurrentHashMap<Organization, Mailbox>();
+
+    public OrganizationExecutor(OrganizationService organizationService, int numOfWorkers) {
+        this.organizationService = organizationService;
+        this.workers = Executors.newFixedThreadPool(numOfWorkers, new WorkerThreadFactory());
+        organizationService.setOrganizationExecutor(this);
+    }
+
+    public interface OrganizationTask<T> {
+
+        T execute(OrganizationService organizationService, Organization organization) throws Exception;
+    }
+
+    public <T> CompletableFuture<T> submit(final Organization organization, final OrganizationTask<T> task) {
+        final CompletableFuture<T> result = new CompletableFuture<T>();
+        Message message = new Message() {
+            @Override
+            public void run() {
+                try {
+                    result.complete(task.execute(organizationService, organization));
+                } catch (Exception e) {
+                    result.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void reject(RejectedExecutionException e) {
+                result.completeExceptionally(e);
+            }
+        };
+        while (!mailboxOf(organization).enqueue(message)) {
+            // the mailbox was dropped in the meantime, a new one is created for the message
+        }
+        return result;
+    }
+
+    int getNumOfMailboxes() {
+        return mailboxes.size();
+    }
+
+    public CompletableFuture<Void> requestForActivation(Organization organization, final User owner) {
+        return submit(organization, new OrganizationTask<Void>() {
+            @Override
+            public Void execute(OrganizationService service, Organization organization) throws Exception {
+                service.requestForActivation(organization, owner);
+                return null;
+            }
+        });
+    }
+
+    public CompletableFuture<Void> addMember(Organization organization, final User owner, final User newMember) {
+        return submit(organization, new OrganizationTask<Void>() {
+            @Override
+            public Void execute(OrganizationService service, Organization organization) throws Exception {
+                service.addMember(organization, owner, newMember);
+                return null;
+            }
+        });
+    }
+
+    public CompletableFuture<ReevaluationReport> setNumOfRequiredAcknowledgments(Organization organization,
+            final int numOfAcknowledgments, final User owner) {
+        return submit(organization, new OrganizationTask<ReevaluationReport>() {
+            @Override
+            public ReevaluationReport execute(OrganizationService service, Organization organization) throws Exception {
+                return service.setNumOfRequiredAcknowledgments(organization, numOfAcknowledgments, owner);
+            }
+        });
+    }
+
+    public CompletableFuture<Void> activateOrganisation(Organization organization, final User admin) {
+        return submit(organization, new OrganizationTask<Void>() {
+            @Override
+            public Void execute(OrganizationService service, Organization organization) throws Exception {
+                service.activateOrganisation(organization, admin);
+                return null;
+            }
+        });
+    }
+
+    public CompletableFuture<Void> promoteMemberBy(Organization organization, final User member, final User promotor) {
+        return submit(organization, new OrganizationTask<Void>() {
+            @Override
+            public Void execute(OrganizationService service, Organization organization) throws Exception {
+                service.promoteMemberBy(organization, member, promotor);
+                return null;
+            }
+        });
+    }
+
+    public CompletableFuture<Void> cancelMemberRepresentativeRole(Organization organization, final User representativeUser,
+            final User owner) {
+        return submit(organization, new OrganizationTask<Void>() {
+            @Override
+            public Void execute(OrganizationService service, Organization organization) throws Exception {
+                service.cancelMemberRepresentativeRole(organization, representativeUser, owner);
+                return null;
+            }
+        });
+    }
+
+    public CompletableFuture<List<User>> cancelMemberRepresentativeRole(Organization organization, final User representativeUser,
+            final User owner, final boolean cascade) {
+        return submit(organization, new OrganizationTask<List<User>>() {
+            @Override
+            public List<User> execute(OrganizationService service, Organization organization) throws Exception {
+                return service.cancelMemberRepresentativeRole(organization, representativeUser, owner, cascade);
+            }
+        });
+    }
+
+    public CompletableFuture<Boolean> addNewDocumentByUser(Organization organization, final User organizationRepresentativeMember) {
+        return submit(organization, new OrganizationTask<Boolean>() {
+            @Override
+            public Boolean execute(OrganizationService service, Organization organization) throws Exception {
+                return service.addNewDocumentByUser(organization, organizationRepresentativeMember);
+            }
+        });
+    }
+
+    public CompletableFuture<Document> addNewDocumentByUser(Organization organization, final User organizationRepresentativeMember,
+            final String idempotencyKey) {
+        return submit(organization, new OrganizationTask<Document>() {
+            @Override
+            public Document execute(OrganizationService service, Organization organization) throws Exception {
+                return service.addNewDocumentByUser(organization, organizationRepresentativeMember, idempotencyKey);
+            }
+        });
+    }
+
+    public CompletableFuture<Void> confirmDocumentBy(Organization organization, final Document document, final User representative) {
+        return submit(organization, new OrganizationTask<Void>() {
+            @Override
+            public Void execute(OrganizationService service, Organization organization) throws Exception {
+                service.confirmDocumentBy(organization, document, representative);
+                return null;
+            }
+        });
+    }
+
+    public CompletableFuture<ReevaluationReport> setNumOfRequiredDocumentConfirmations(Organization organization,
+            final int numOfDocumentConfirmations, final User owner) {
+        return submit(organization, new OrganizationTask<ReevaluationReport>() {
+            @Override
+            public ReevaluationReport execute(OrganizationService service, Organization organization) throws Exception {
+                return service.setNumOfRequiredDocumentConfirmations(organization, numOfDocumentConfirmations, owner);
+            }
+        });
+    }
+
+    public void shutdown() {
+        workers.shutdown();
+    }
+
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return workers.awaitTermination(timeout, unit);
+    }
+
+    private Mailbox mailboxOf(Organization organization) {
+        Mailbox mailbox = mailboxes.get(organization);
+        if (mailbox == null) {
+            Mailbox newMailbox = new Mailbox(organization);
+            mailbox = mailboxes.putIfAbsent(organization, newMailbox);
+            if (mailbox == null) {
+                mailbox = newMailbox;
+            }
+        }
+        return mailbox;
+    }
+
+    private interface Message extends Runnable {
+
+        void reject(RejectedExecutionException e);
+    }
+
+    /**
+     * Counts the messages it has been given but not yet run. A mailbox found empty after a
+     * turn is retired by swapping the count to {@code -1}, which makes later enqueues fail
+     * and go to a new mailbox, so there is never more than one live mailbox per organization.
+     */
+    private class Mailbox implements Runnable {
+
+        private static final int RETIRED = -1;
+
+        private final Organization organization;
+
+        private final Queue<Message> messages = new ConcurrentLinkedQueue<Message>();
+
+        private final AtomicInteger numOfPending = new AtomicInteger();
+
+        private final AtomicBoolean scheduled = new AtomicBoolean(false);
+
+        Mailbox(Organization organization) {
+            this.organization = organization;
+        }
+
+        boolean enqueue(Message message) {
+            int pending;
+            do {
+                pending = numOfPending.get();
+                if (pending == RETIRED) {
+                    mailboxes.remove(organization, this);
+                    return false;
+                }
+            } while (!numOfPending.compareAndSet(pending, pending + 1));
+            messages.add(message);
+            schedule();
+            return true;
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    workers.execute(this);
+                } catch (RejectedExecutionException e) {
+                    scheduled.set(false);
+                    rejectAll(e);
+                }
+            }
+        }
+
+        private void rejectAll(RejectedExecutionException e) {
+            Message message;
+            while ((message = messages.poll()) != null) {
+                numOfPending.decrementAndGet();
+                message.reject(e);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                for (int i = 0; i < MESSAGES_PER_TURN; i++) {
+                    Message message = messages.poll();
+                    if (message == null) {
+                        break;
+                    }
+                    try {
+                        message.run();
+                    } finally {
+                        numOfPending.decrementAndGet();
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+                if (!messages.isEmpty()) {
+                    schedule();
+                } else if (numOfPending.compareAndSet(0, RETIRED)) {
+                    mailboxes.remove(organization, this);
+                }
+            }
+        }
+    }
+
+    private static class WorkerThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "organization-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package rdk.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import rdk.model.Document;
+import rdk.model.Organization;
+import rdk.model.User;
+
+
+/**
+ * Writes organizations with their members and documents row by row straight into the
+ * given stream. Every organization produces one organization row followed by one row per
+ * member and per document. The rows of an organization come from a snapshot taken in its
+ * mailbox, so concurrent mutations neither break nor tear them.
+ * <p>
+ * Memory use does not grow with the number of organizations exported, but it does grow
+ * with the size of the largest one: its snapshot holds the names, roles and statuses of
+ * all of its members and documents until its rows are written. That is the price of a
+ * consistent snapshot, as members are not ordered in a way a partial snapshot could be
+ * resumed from.
+ */
+@Service
+public class OrganizationExportService {
+
+    private static final String CSV_HEADER = "organization,type,name,role,active,status\n";
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Autowired
+    private OrganizationRegistry organizationRegistry = new OrganizationRegistry();
+
+    @Autowired
+    private OrganizationService organizationService;
+
+    public OrganizationExportService() {
+    }
+
+    public OrganizationExportService(OrganizationRegistry organizationRegistry, OrganizationService organizationService) {
+        this.organizationRegistry = organizationRegistry;
+        this.organizationService = organizationService;
+    }
+
+    public ExportResult exportAll(ExportFormat format, OutputStream out) throws IOException {
+        return export(organizationRegistry.getOrganizations(), format, out);
+    }
+
+    public ExportResult export(Iterable<Organization> organizations, ExportFormat format, OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        long rows = format == ExportFormat.CSV ? exportCsv(organizations, out) : exportJsonLines(organizations, out);
+        return new ExportResult(rows, System.nanoTime() - start);
+    }
+
+    private long exportJsonLines(Iterable<Organization> organizations, OutputStream out) throws IOException {
+        long rows = 0;
+        JsonGenerator generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        for (Organization organization : organizations) {
+            Snapshot snapshot = snapshotOf(organization);
+            generator.writeStartObject();
+            generator.writeStringField("organization", snapshot.name);
+            generator.writeStringField("type", "organization");
+            generator.writeStringField("owner", snapshot.owner);
+            generator.writeBooleanField("active", snapshot.active);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            rows++;
+
+            for (int i = 0; i < snapshot.memberNames.length; i++) {
+                generator.writeStartObject();
+                generator.writeStringField("organization", snapshot.name);
+                generator.writeStringField("type", "member");
+                generator.writeStringField("name", snapshot.memberNames[i]);
+                generator.writeStringField("role", snapshot.memberRoles[i]);
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                rows++;
+            }
+            for (int i = 0; i < snapshot.documentCreators.length; i++) {
+                generator.writeStartObject();
+                generator.writeStringField("organization", snapshot.name);
+                generator.writeStringField("type", "document");
+                generator.writeStringField("creator", snapshot.documentCreators[i]);
+                generator.writeStringField("status", snapshot.documentStatuses[i]);
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                rows++;
+            }
+        }
+        generator.close();
+        return rows;
+    }
+
+    private long exportCsv(Iterable<Organization> organizations, OutputStream out) throws IOException {
+        long rows = 0;
+        Writer writer = new OutputStreamWriter(out, StandardCharsets.UTF_8);
+        writer.write(CSV_HEADER);
+
+        for (Organization organization : organizations) {
+            Snapshot snapshot = snapshotOf(organization);
+            writeCsvRow(writer, snapshot.name, "organization", snapshot.owner, "OWNER", String.valueOf(snapshot.active), "");
+            rows++;
+
+            for (int i = 0; i < snapshot.memberNames.length; i++) {
+                writeCsvRow(writer, snapshot.name, "member", snapshot.memberNames[i], snapshot.memberRoles[i], "", "");
+                rows++;
+            }
+            for (int i = 0; i < snapshot.documentCreators.length; i++) {
+                writeCsvRow(writer, snapshot.name, "document", snapshot.documentCreators[i], "", "", snapshot.documentStatuses[i]);
+                rows++;
+            }
+        }
+        writer.flush();
+        return rows;
+    }
+
+    private static void writeCsvRow(Writer writer, String... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writeCsvValue(writer, values[i]);
+        }
+        writer.write('\n');
+    }
+
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+        } else {
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private Snapshot snapshotOf(Organization organization) {
+        return organizationService.execute(organization, new OrganizationExecutor.OrganizationTask<Snapshot>() {
+            @Override
+            public Snapshot execute(OrganizationService service, Organization organization) {
+                return new Snapshot(organization);
+            }
+        }).join();
+    }
+
+    private static class Snapshot {
+
+        private final String name;
+
+        private final String owner;
+
+        private final boolean active;
+
+        private final String[] memberNames;
+
+        private final String[] memberRoles;
+
+        private final String[] documentCreators;
+
+        private final String[] documentStatuses;
+
+        Snapshot(Organization organization) {
+            this.name = organization.getName();
+            this.owner = organization.getOwner().getName();
+            this.active = organization.isActive();
+
+            Set<User> members = organization.getMembers();
+            this.memberNames = new String[members.size()];
+            this.memberRoles = new String[members.size()];
+            int i = 0;
+            for (User member : members) {
+                memberNames[i] = member.getName();
+                memberRoles[i++] = String.valueOf(member.getRole());
+            }
+
+            List<Document> documents = organization.getDocuments();
+            this.documentCreators = new String[documents.size()];
+            this.documentStatuses = new String[documents.size()];
+            for (i = 0; i < documents.size(); i++) {
+                documentCreators[i] = documents.get(i).getCreator().getName();
+                documentStatuses[i] = documents.get(i).getStatus().name();
+            }
+        }
+    }
+}
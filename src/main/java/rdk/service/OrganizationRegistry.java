@@ -0,0 +1,74 @@
+package rdk.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+import org.springframework.stereotype.Component;
+
+import rdk.model.Organization;
+import rdk.model.User;
+
+
+/**
+ * In-memory lookup of organizations by name. A later organization registered under
+ * an already used name replaces the earlier one.
+ * <p>
+ * Also indexes the organizations of every member, as users and their roles are shared
+ * by all of their organizations. The index is kept up to date by
+ * {@link OrganizationService}, so it never reads the members of an organization outside
+ * of its mailbox.
+ */
+@Component
+public class OrganizationRegistry {
+
+    private final ConcurrentMap<String, Organization> organizations = new ConcurrentHashMap<String, Organization>();
+
+    private final ConcurrentMap<User, Set<Organization>> organizationsByMember = new ConcurrentHashMap<User, Set<Organization>>();
+
+    public void register(Organization organization) {
+        organizations.put(organization.getName(), organization);
+        for (User member : organization.getMembers()) {
+            memberAdded(organization, member);
+        }
+    }
+
+    public Organization find(String name) {
+        return organizations.get(name);
+    }
+
+    public Collection<Organization> getOrganizations() {
+        return Collections.unmodifiableCollection(organizations.values());
+    }
+
+    void memberAdded(Organization organization, User member) {
+        organizationsByMember.computeIfAbsent(member, new Function<User, Set<Organization>>() {
+            @Override
+            public Set<Organization> apply(User key) {
+                return ConcurrentHashMap.<Organization> newKeySet();
+            }
+        }).add(organization);
+    }
+
+    /**
+     * @return the registered organizations the user is a member of
+     */
+    public List<Organization> getOrganizationsOf(User member) {
+        Set<Organization> indexed = organizationsByMember.get(member);
+        if (indexed == null) {
+            return Collections.emptyList();
+        }
+        List<Organization> registered = new ArrayList<Organization>();
+        for (Organization organization : indexed) {
+            if (find(organization.getName()) == organization) {
+                registered.add(organization);
+            }
+        }
+        return registered;
+    }
+}
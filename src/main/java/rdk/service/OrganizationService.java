@@ -1,57 +1,469 @@
 package rdk.service;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import rdk.event.ChangeType;
+import rdk.event.OrganizationChange;
+import rdk.event.OrganizationChangeListener;
 import rdk.exception.UnauthorizedAccessException;
 import rdk.exception.UnauthorizedDocumentCreationException;
+import rdk.idempotency.IdempotencyCache;
+import rdk.idempotency.IdempotencyKey;
+import rdk.model.AuthorizationCheck;
+import rdk.model.AuthorizationListener;
+import rdk.model.Document;
+import rdk.model.DocumentStatus;
+import rdk.model.Names;
 import rdk.model.Organization;
+import rdk.model.OrganizationStatistics;
+import rdk.model.PromotionGraph;
+import rdk.model.ReevaluationReport;
 import rdk.model.User;
 import rdk.model.UserRole;
+import rdk.monitoring.DomainEvents;
+import rdk.ratelimit.DocumentRateLimiter;
 
 
 @Service
 public class OrganizationService {
 
+    private static final String DENIED = "DENIED";
+
+    /**
+     * Value of the {@link ChangeType#REPRESENTATIVE_CANCELLED} changes published for the
+     * demotions of a cascade, which follow from the cancellation that started it.
+     */
+    public static final int CASCADED_DEMOTION = 2;
+
     @Autowired
     private DocumentService documentService;
 
+    @Autowired
+    private OrganizationRegistry organizationRegistry = new OrganizationRegistry();
+
+    @Autowired(required = false)
+    private DocumentRateLimiter documentRateLimiter = DocumentRateLimiter.unlimited();
+
+    @Autowired(required = false)
+    private AuthorizationListener authorizationListener = AuthorizationListener.NONE;
+
+    private IdempotencyCache<IdempotencyKey, Document> documentIdempotency = new IdempotencyCache<IdempotencyKey, Document>(
+            IdempotencyCache.DEFAULT_MAX_ENTRIES, IdempotencyCache.DEFAULT_TIME_TO_LIVE_MILLIS);
+
+    private volatile int defaultNumOfAcknowledgments = Organization.DEFAULT_NUM_OF_ACKNOWLEDGMENTS;
+
+    private volatile int defaultNumOfDocumentConfirmations = Organization.DEFAULT_NUM_OF_DOCUMENT_CONFIRMATIONS;
+
+    private final CopyOnWriteArrayList<OrganizationChangeListener> changeListeners = new CopyOnWriteArrayList<OrganizationChangeListener>();
+
+    private volatile OrganizationExecutor organizationExecutor;
+
+    public OrganizationService() {
+    }
+
+    public OrganizationService(DocumentService documentService, OrganizationRegistry organizationRegistry) {
+        this.documentService = documentService;
+        this.organizationRegistry = organizationRegistry;
+    }
+
+    @Autowired(required = false)
+    public void setChangeListeners(List<OrganizationChangeListener> changeListeners) {
+        this.changeListeners.addAllAbsent(changeListeners);
+    }
+
+    public void setDocumentRateLimiter(DocumentRateLimiter documentRateLimiter) {
+        this.documentRateLimiter = documentRateLimiter;
+    }
+
+    public void setDocumentIdempotency(IdempotencyCache<IdempotencyKey, Document> documentIdempotency) {
+        this.documentIdempotency = documentIdempotency;
+    }
+
+    public void setAuthorizationListener(AuthorizationListener authorizationListener) {
+        this.authorizationListener = authorizationListener;
+    }
+
+    void setOrganizationExecutor(OrganizationExecutor organizationExecutor) {
+        this.organizationExecutor = organizationExecutor;
+    }
+
+    /**
+     * Runs the task in the organization's mailbox when an {@link OrganizationExecutor}
+     * applies the mutations of this service, otherwise on the calling thread.
+     */
+    public <T> CompletableFuture<T> execute(Organization organization, OrganizationExecutor.OrganizationTask<T> task) {
+        OrganizationExecutor executor = organizationExecutor;
+        if (executor != null) {
+            return executor.submit(organization, task);
+        }
+        CompletableFuture<T> result = new CompletableFuture<T>();
+        try {
+            result.complete(task.execute(this, organization));
+        } catch (Exception e) {
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /**
+     * Listeners that are also wired as beans and register themselves are notified once.
+     */
+    public void addChangeListener(OrganizationChangeListener changeListener) {
+        changeListeners.addIfAbsent(changeListener);
+    }
+
+    public void removeChangeListener(OrganizationChangeListener changeListener) {
+        changeListeners.remove(changeListener);
+    }
+
+    public Organization findOrganization(String name) {
+        return organizationRegistry.find(name);
+    }
+
     public Organization createNewOrganisation(String name, User user) {
-        return new Organization(name, user, false, false, null);
+        Organization organization = watched(new Organization(Names.canonical(name), user, defaultNumOfAcknowledgments,
+                defaultNumOfDocumentConfirmations));
+        organizationRegistry.register(organization);
+        publish(OrganizationChange.of(ChangeType.ORGANIZATION_CREATED, organization, user));
+        return organization;
     }
 
     public void requestForActivation(Organization newOrganization, User owner) throws UnauthorizedAccessException {
-        newOrganization.awaitForActivation(owner);
+        watched(newOrganization).awaitForActivation(owner);
+        publish(OrganizationChange.of(ChangeType.ACTIVATION_REQUESTED, newOrganization, owner));
     }
 
     public void addMember(Organization organization, User owner, User newMember) throws UnauthorizedAccessException {
-        organization.addMemberBy(newMember, owner);
+        watched(organization).addMemberBy(newMember, owner);
+        organizationRegistry.memberAdded(organization, newMember);
+        publish(OrganizationChange.of(ChangeType.MEMBER_ADDED, organization, owner, newMember));
     }
 
-    public void setNumOfRequiredAcknowledgments(Organization organization, int numOfAcknowledgments, User owner)
+    public ReevaluationReport setNumOfRequiredAcknowledgments(Organization organization, int numOfAcknowledgments, User owner)
             throws UnauthorizedAccessException {
-        organization.setNumOfRequiredAcknowledgments(numOfAcknowledgments, owner);
+        ReevaluationReport report = watched(organization).setNumOfRequiredAcknowledgments(numOfAcknowledgments, owner);
+        return reevaluated(OrganizationChange.of(ChangeType.ACKNOWLEDGMENTS_CHANGED, organization, owner, numOfAcknowledgments), report);
+    }
+
+    /**
+     * Changes the number of acknowledgments of every organization whose owner has not set
+     * its own, and promotes the members that already have enough of them. Each organization
+     * is changed in its own mailbox.
+     */
+    public ReevaluationReport setDefaultNumOfRequiredAcknowledgments(final int numOfAcknowledgments, final User admin)
+            throws UnauthorizedAccessException {
+        assertIsAdmin(admin, "Only admin can change default number of acknowledgments");
+        Organization.assertIsValidNumOfAcknowledgments(numOfAcknowledgments);
+        defaultNumOfAcknowledgments = numOfAcknowledgments;
+        publish(OrganizationChange.of(ChangeType.DEFAULT_ACKNOWLEDGMENTS_CHANGED, null, admin, numOfAcknowledgments));
+
+        return applyDefault(new OrganizationExecutor.OrganizationTask<ReevaluationReport>() {
+            @Override
+            public ReevaluationReport execute(OrganizationService service, Organization organization) {
+                ReevaluationReport report = watched(organization).applyDefaultNumOfRequiredAcknowledgments(numOfAcknowledgments);
+                if (report == ReevaluationReport.EMPTY) {
+                    return report;
+                }
+                return reevaluated(OrganizationChange.of(ChangeType.ACKNOWLEDGMENTS_CHANGED, organization, admin, numOfAcknowledgments),
+                        report);
+            }
+        });
     }
 
     public void activateOrganisation(Organization organization, User admin) throws UnauthorizedAccessException {
-        organization.activateBy(admin);
+        watched(organization).activateBy(admin);
+        publish(OrganizationChange.of(ChangeType.ORGANIZATION_ACTIVATED, organization, admin));
     }
 
     public void promoteMemberBy(Organization organization, User member, User promotor) throws UnauthorizedAccessException {
-        organization.promote(member, promotor);
+        DomainEvents.Operation event = DomainEvents.beginPromotion();
+        try {
+            watched(organization).promote(member, promotor);
+            publish(OrganizationChange.of(ChangeType.MEMBER_PROMOTED, organization, promotor, member));
+            rolesChanged(Collections.singletonList(member));
+            event.outcome = member.getRole() == UserRole.REPRESENTATIVE ? "REPRESENTATIVE" : "ACKNOWLEDGED";
+        } catch (UnauthorizedAccessException e) {
+            event.outcome = DENIED;
+            event.denialReason = e.getMessage();
+            throw e;
+        } finally {
+            DomainEvents.endPromotion(event, organization.getName(), member.getName(), promotor.getName());
+        }
     }
 
     public void cancelMemberRepresentativeRole(Organization organization, User representativeUser, User owner)
             throws UnauthorizedAccessException {
-        organization.cancelMembersRepresentative(representativeUser, owner);
+        cancelMemberRepresentativeRole(organization, representativeUser, owner, false);
+    }
+
+    /**
+     * Demotes the representative and revokes its acknowledgments, cascading to the
+     * representatives left without enough of them when asked to. The change carries the
+     * cascade flag as its value, and every cascaded demotion is published as a change of
+     * its own with {@link #CASCADED_DEMOTION} as its value. The cascade does not cross into other organizations of the representative,
+     * see {@link Organization#cancelMembersRepresentative(User, User, boolean)}.
+     */
+    public List<User> cancelMemberRepresentativeRole(Organization organization, User representativeUser, User owner, boolean cascade)
+            throws UnauthorizedAccessException {
+        List<User> changed = new ArrayList<User>();
+        changed.add(representativeUser);
+        List<User> cascaded = watched(organization).cancelMembersRepresentative(representativeUser, owner, cascade, changed);
+        List<OrganizationChange> changes = new ArrayList<OrganizationChange>(1 + cascaded.size());
+        changes.add(new OrganizationChange(ChangeType.REPRESENTATIVE_CANCELLED, organization, owner, representativeUser, null, cascade ? 1 : 0));
+        for (User demoted : cascaded) {
+            changes.add(new OrganizationChange(ChangeType.REPRESENTATIVE_CANCELLED, organization, owner, demoted, null, CASCADED_DEMOTION));
+        }
+        publish(changes);
+        rolesChanged(changed);
+        return cascaded;
+    }
+
+    /**
+     * @return {@code false} when the document was not created because the organization or
+     *         the user exceeded the document creation rate
+     */
+    public boolean addNewDocumentByUser(Organization organization, User organizationRepresentativeMember)
+            throws UnauthorizedDocumentCreationException {
+        return createDocument(organization, organizationRepresentativeMember) != null;
     }
 
-    public void addNewDocumentByUser(Organization organization, User organizationRepresentativeMember)
+    /**
+     * Creates the document only once per idempotency key, so a retry with the key of a
+     * document already created returns that document instead of creating another one.
+     * Keys are scoped to the organization and the user and remembered for a limited time.
+     *
+     * @return {@code null} when the document was not created because the organization or
+     *         the user exceeded the document creation rate
+     */
+    public Document addNewDocumentByUser(final Organization organization, final User organizationRepresentativeMember, String idempotencyKey)
             throws UnauthorizedDocumentCreationException {
-            organization.addDocumentByUser(documentService.createDocumentByUser(organizationRepresentativeMember), organizationRepresentativeMember);
+        if (idempotencyKey == null) {
+            return createDocument(organization, organizationRepresentativeMember);
+        }
+        return documentIdempotency.performOnce(new IdempotencyKey(organization, organizationRepresentativeMember, idempotencyKey),
+                new IdempotencyCache.Action<Document, UnauthorizedDocumentCreationException>() {
+                    @Override
+                    public Document perform() throws UnauthorizedDocumentCreationException {
+                        return createDocument(organization, organizationRepresentativeMember);
+                    }
+                });
+    }
+
+    private Document createDocument(Organization organization, User organizationRepresentativeMember)
+            throws UnauthorizedDocumentCreationException {
+        DomainEvents.Operation event = DomainEvents.beginDocument();
+        try {
+            if (!documentRateLimiter.tryAcquire(organization, organizationRepresentativeMember)) {
+                event.outcome = "RATE_LIMITED";
+                return null;
+            }
+            Document document = documentService.createDocumentByUser(watched(organization), organizationRepresentativeMember);
+            organization.addDocumentByUser(document, organizationRepresentativeMember);
+            publish(OrganizationChange.of(ChangeType.DOCUMENT_ADDED, organization, organizationRepresentativeMember, document));
+            event.documentNumber = document.getNumber();
+            event.outcome = "CREATED";
+            return document;
+        } catch (UnauthorizedDocumentCreationException e) {
+            event.outcome = DENIED;
+            event.denialReason = e.getMessage();
+            throw e;
+        } finally {
+            DomainEvents.endDocument(event, "add", organization.getName(), organizationRepresentativeMember.getName());
+        }
+    }
+
+    public void confirmDocumentBy(Organization organization, Document document, User representative) throws UnauthorizedAccessException {
+        DomainEvents.Operation event = DomainEvents.beginDocument();
+        try {
+            watched(organization).confirmDocumentBy(document, representative);
+            publish(new OrganizationChange(ChangeType.DOCUMENT_CONFIRMED, organization, representative, null, document, document.getNumber()));
+            event.documentNumber = document.getNumber();
+            event.outcome = document.getStatus().name();
+        } catch (UnauthorizedAccessException e) {
+            event.outcome = DENIED;
+            event.denialReason = e.getMessage();
+            throw e;
+        } finally {
+            DomainEvents.endDocument(event, "confirm", organization.getName(), representative.getName());
+        }
+    }
+
+    /**
+     * Expires the document unless it has been confirmed in the meantime. There is no actor,
+     * the change is made on behalf of {@link DocumentExpiry}.
+     */
+    public void expireDocument(Organization organization, Document document) {
+        if (watched(organization).expireDocument(document)) {
+            publish(new OrganizationChange(ChangeType.DOCUMENT_EXPIRED, organization, null, null, document, document.getNumber()));
+        }
+    }
+
+    public ReevaluationReport setNumOfRequiredDocumentConfirmations(Organization organization, int numOfDocumentConfirmations, User owner)
+            throws UnauthorizedAccessException {
+        ReevaluationReport report = watched(organization).setNumOfRequiredDocumentConfirmation(numOfDocumentConfirmations, owner);
+        return reevaluated(OrganizationChange.of(ChangeType.DOCUMENT_CONFIRMATIONS_CHANGED, organization, owner, numOfDocumentConfirmations),
+                report);
+    }
+
+    /**
+     * Changes the number of document confirmations of every organization whose owner has
+     * not set its own, and confirms the documents that already have enough of them. Each
+     * organization is changed in its own mailbox.
+     */
+    public ReevaluationReport setDefaultNumOfRequiredDocumentConfirmations(final int numOfDocumentConfirmations, final User admin)
+            throws UnauthorizedAccessException {
+        assertIsAdmin(admin, "Only admin can change default number of document confirmations");
+        Organization.assertIsValidNumOfDocumentConfirmations(numOfDocumentConfirmations);
+        defaultNumOfDocumentConfirmations = numOfDocumentConfirmations;
+        publish(OrganizationChange.of(ChangeType.DEFAULT_DOCUMENT_CONFIRMATIONS_CHANGED, null, admin, numOfDocumentConfirmations));
+
+        return applyDefault(new OrganizationExecutor.OrganizationTask<ReevaluationReport>() {
+            @Override
+            public ReevaluationReport execute(OrganizationService service, Organization organization) {
+                ReevaluationReport report = watched(organization).applyDefaultNumOfRequiredDocumentConfirmations(numOfDocumentConfirmations);
+                if (report == ReevaluationReport.EMPTY) {
+                    return report;
+                }
+                return reevaluated(OrganizationChange.of(ChangeType.DOCUMENT_CONFIRMATIONS_CHANGED, organization, admin,
+                        numOfDocumentConfirmations), report);
+            }
+        });
+    }
+
+    /**
+     * Runs the task for every organization and waits for all of them, so this must not be
+     * called from the mailbox of an organization.
+     */
+    private ReevaluationReport applyDefault(OrganizationExecutor.OrganizationTask<ReevaluationReport> task) {
+        long start = System.nanoTime();
+        List<CompletableFuture<ReevaluationReport>> results = new ArrayList<CompletableFuture<ReevaluationReport>>();
+        for (Organization organization : organizationRegistry.getOrganizations()) {
+            results.add(execute(organization, task));
+        }
+        ReevaluationReport report = ReevaluationReport.EMPTY;
+        for (CompletableFuture<ReevaluationReport> result : results) {
+            report = report.merge(result.join());
+        }
+        return report.withElapsedNanos(System.nanoTime() - start);
+    }
+
+    /**
+     * Publishes the changed threshold followed by every member it promoted and every
+     * document it confirmed.
+     */
+    private ReevaluationReport reevaluated(OrganizationChange change, ReevaluationReport report) {
+        Organization organization = change.getOrganization();
+        List<OrganizationChange> changes = new ArrayList<OrganizationChange>(
+                1 + report.getPromotedMembers().size() + report.getConfirmedDocuments().size());
+        changes.add(change);
+        for (User member : report.getPromotedMembers()) {
+            changes.add(OrganizationChange.of(ChangeType.MEMBER_ROLE_CHANGED, organization, null, member));
+        }
+        for (Document document : report.getConfirmedDocuments()) {
+            changes.add(new OrganizationChange(ChangeType.DOCUMENT_STATUS_CHANGED, organization, null, null, document, document.getNumber()));
+        }
+        publish(changes);
+        rolesChanged(report.getPromotedMembers());
+        return report;
+    }
+
+    /**
+     * Recounts the member after its role changed in another organization, publishing the
+     * change when the member is counted differently than before. There is no actor, the
+     * change follows from the one made in the other organization.
+     */
+    public void memberRoleChanged(Organization organization, User member) {
+        if (organization.recountMember(member)) {
+            publish(OrganizationChange.of(ChangeType.MEMBER_ROLE_CHANGED, organization, null, member));
+        }
+    }
+
+    /**
+     * Roles and acknowledgments live on users shared by all of their organizations, so
+     * every organization of the users recounts them in its own mailbox. The organization
+     * they were changed in has counted them already and does not change. The recounts are
+     * not awaited, as this may run in the mailbox of another organization.
+     */
+    private void rolesChanged(List<User> users) {
+        Map<Organization, List<User>> usersByOrganization = new LinkedHashMap<Organization, List<User>>();
+        for (User user : users) {
+            for (Organization organization : organizationRegistry.getOrganizationsOf(user)) {
+                List<User> members = usersByOrganization.get(organization);
+                if (members == null) {
+                    members = new ArrayList<User>();
+                    usersByOrganization.put(organization, members);
+                }
+                members.add(user);
+            }
+        }
+        for (Map.Entry<Organization, List<User>> entry : usersByOrganization.entrySet()) {
+            final List<User> members = entry.getValue();
+            execute(entry.getKey(), new OrganizationExecutor.OrganizationTask<Void>() {
+                @Override
+                public Void execute(OrganizationService service, Organization organization) {
+                    for (User member : members) {
+                        service.memberRoleChanged(organization, member);
+                    }
+                    return null;
+                }
+            });
+        }
+    }
+
+    private void assertIsAdmin(User admin, String message) throws UnauthorizedAccessException {
+        boolean isAdmin = admin.getRole() == UserRole.ADMIN;
+        authorizationListener.onDecision(null, AuthorizationCheck.ADMIN, admin, isAdmin);
+        if (!isAdmin) {
+            throw new UnauthorizedAccessException(message);
+        }
+    }
+
+    public OrganizationStatistics getStatistics(Organization organization) {
+        return organization.getStatistics();
+    }
+
+    public PromotionGraph getPromotionGraph(Organization organization) {
+        return organization.getPromotionGraph();
+    }
+
+    public List<Document> getPendingDocuments(Organization organization) {
+        return organization.getDocuments(DocumentStatus.UNCONFIRMED);
+    }
+
+    private Organization watched(Organization organization) {
+        if (organization.getAuthorizationListener() != authorizationListener) {
+            organization.setAuthorizationListener(authorizationListener);
+        }
+        return organization;
+    }
+
+    private void publish(OrganizationChange change) {
+        publish(Collections.singletonList(change));
     }
 
-    public void setNumOfRequiredDocumentConfirmations(Organization organization, int numOfDocumentConfirmations, User owner) {
-        organization.setNumOfRequiredDocumentConfirmation(numOfDocumentConfirmations, owner);
+    /**
+     * Stamps the changes of one organization, which has already advanced its version by
+     * their number, with consecutive versions ending at its current one.
+     */
+    private void publish(List<OrganizationChange> changes) {
+        Organization organization = changes.get(0).getOrganization();
+        long version = organization == null ? 0 : organization.getVersion() - changes.size();
+        for (OrganizationChange change : changes) {
+            if (organization != null) {
+                change = change.withVersion(++version);
+            }
+            for (OrganizationChangeListener changeListener : changeListeners) {
+                changeListener.onChange(change);
+            }
+        }
     }
 }
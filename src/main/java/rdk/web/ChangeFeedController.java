@@ -0,0 +1,169 @@
+package rdk.web;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PreDestroy;
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import rdk.feed.ChangeFeed;
+import rdk.feed.FeedPage;
+import rdk.model.Organization;
+import rdk.service.OrganizationService;
+
+
+/**
+ * Changes of one organization after a sequence number, by long polling or as server-sent
+ * events. Neither transport holds a thread while waiting for changes or for a slow client.
+ * A reaper drops event streams whose client has not taken anything for
+ * {@link #MAX_STALL_MILLIS}, and feeds that nobody follows once they have been idle for
+ * {@link #MAX_FEED_IDLE_MILLIS}.
+ */
+@Controller
+@RequestMapping("/organizations")
+public class ChangeFeedController {
+
+    private static final int NUM_OF_WRITERS = 4;
+
+    static final long MAX_STALL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+
+    static final long MAX_FEED_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private static final long REAP_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    @Autowired
+    private OrganizationService organizationService;
+
+    @Autowired
+    private ChangeFeed changeFeed;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ExecutorService writers = Executors.newFixedThreadPool(NUM_OF_WRITERS, new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "change-stream-writer");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final Set<ChangeStream> openStreams = ConcurrentHashMap.newKeySet();
+
+    private final ScheduledExecutorService reaper = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "change-stream-reaper");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    public ChangeFeedController() {
+        reaper.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                reap(MAX_STALL_MILLIS, MAX_FEED_IDLE_MILLIS);
+            }
+        }, REAP_INTERVAL_MILLIS, REAP_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @RequestMapping(value = "/{name}/changes", method = RequestMethod.GET)
+    @ResponseBody
+    public DeferredResult<FeedPage> poll(@PathVariable("name") String name,
+            @RequestParam(value = "since", defaultValue = "0") final long since,
+            @RequestParam(value = "timeout", defaultValue = "30000") long timeoutMillis, HttpServletResponse response)
+            throws IOException {
+        final Organization organization = organizationService.findOrganization(name);
+        if (organization == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Unknown organization " + name);
+            return null;
+        }
+
+        final DeferredResult<FeedPage> result = new DeferredResult<FeedPage>(timeoutMillis);
+        final ChangeFeed.Subscriber subscriber = new ChangeFeed.Subscriber() {
+            @Override
+            public void changesAvailable(Organization organization) {
+                changeFeed.unsubscribe(organization, this);
+                result.setResult(changeFeed.read(organization, since));
+            }
+        };
+        result.onTimeout(new Runnable() {
+            @Override
+            public void run() {
+                changeFeed.unsubscribe(organization, subscriber);
+                result.setResult(changeFeed.read(organization, since));
+            }
+        });
+        changeFeed.subscribe(organization, since, subscriber);
+        return result;
+    }
+
+    /**
+     * Honours {@code Last-Event-ID}, so a reconnecting event source continues where it
+     * stopped.
+     */
+    @RequestMapping(value = "/{name}/changes/stream", method = RequestMethod.GET)
+    public void stream(@PathVariable("name") String name, @RequestParam(value = "since", defaultValue = "0") long since,
+            @RequestParam(value = "timeout", defaultValue = "300000") long timeoutMillis, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        Organization organization = organizationService.findOrganization(name);
+        if (organization == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Unknown organization " + name);
+            return;
+        }
+        String lastEventId = request.getHeader("Last-Event-ID");
+        if (lastEventId != null && lastEventId.matches("\\d+")) {
+            since = Long.parseLong(lastEventId);
+        }
+
+        response.setContentType("text/event-stream");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        response.flushBuffer();
+
+        AsyncContext asyncContext = request.startAsync(request, response);
+        asyncContext.setTimeout(timeoutMillis);
+        new ChangeStream(changeFeed, organization, since, asyncContext, writers, objectMapper, openStreams).start();
+    }
+
+    int getNumOfOpenStreams() {
+        return openStreams.size();
+    }
+
+    void reap(long maxStallMillis, long maxFeedIdleMillis) {
+        for (ChangeStream stream : openStreams) {
+            if (stream.isStalledFor(TimeUnit.MILLISECONDS.toNanos(maxStallMillis))) {
+                stream.close();
+            }
+        }
+        if (changeFeed != null) {
+            changeFeed.evictIdleFeeds(System.currentTimeMillis() - maxFeedIdleMillis);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        reaper.shutdownNow();
+        writers.shutdownNow();
+    }
+}
@@ -0,0 +1,170 @@
+package rdk.web;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import rdk.feed.ChangeFeed;
+import rdk.feed.FeedPage;
+import rdk.model.Organization;
+
+
+/**
+ * Server-sent events of one subscriber, written with non-blocking servlet output so a
+ * slow client never holds a thread. A signal from the feed only schedules a write on the
+ * shared writer pool; signals arriving while a write is scheduled or running are absorbed,
+ * and the next write sends every change since the last one. While the client does not
+ * take what was written, nothing more is read from the feed, so at most one page per
+ * client is buffered and the rest waits in the feed, coalesced or reset. Clients that stay
+ * stalled are found with {@link #isStalledFor(long)} and dropped.
+ */
+class ChangeStream implements ChangeFeed.Subscriber, AsyncListener, WriteListener, Runnable {
+
+    private final ChangeFeed changeFeed;
+
+    private final Organization organization;
+
+    private final AsyncContext asyncContext;
+
+    private final Executor writers;
+
+    private final ObjectMapper objectMapper;
+
+    private final Set<ChangeStream> openStreams;
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    private ServletOutputStream out;
+
+    private long lastSequence;
+
+    private volatile long stalledSince = 0;
+
+    private volatile boolean closed = false;
+
+    ChangeStream(ChangeFeed changeFeed, Organization organization, long since, AsyncContext asyncContext, Executor writers,
+            ObjectMapper objectMapper, Set<ChangeStream> openStreams) {
+        this.changeFeed = changeFeed;
+        this.organization = organization;
+        this.lastSequence = since;
+        this.asyncContext = asyncContext;
+        this.writers = writers;
+        this.objectMapper = objectMapper;
+        this.openStreams = openStreams;
+    }
+
+    synchronized void start() throws IOException {
+        openStreams.add(this);
+        asyncContext.addListener(this);
+        out = asyncContext.getResponse().getOutputStream();
+        out.setWriteListener(this);
+        changeFeed.subscribe(organization, lastSequence, this);
+    }
+
+    @Override
+    public void changesAvailable(Organization organization) {
+        if (!closed && scheduled.compareAndSet(false, true)) {
+            try {
+                writers.execute(this);
+            } catch (RejectedExecutionException e) {
+                close();
+            }
+        }
+    }
+
+    @Override
+    public void run() {
+        scheduled.set(false);
+        writeAvailable();
+    }
+
+    @Override
+    public void onWritePossible() {
+        stalledSince = 0;
+        writeAvailable();
+    }
+
+    boolean isStalledFor(long nanos) {
+        long since = stalledSince;
+        return since != 0 && System.nanoTime() - since >= nanos;
+    }
+
+    private synchronized void writeAvailable() {
+        if (closed) {
+            return;
+        }
+        try {
+            while (out.isReady()) {
+                FeedPage page = changeFeed.read(organization, lastSequence);
+                if (page.isEmpty()) {
+                    return;
+                }
+                out.write(eventOf(page));
+                lastSequence = page.getNextSequence();
+                if (out.isReady()) {
+                    out.flush();
+                }
+            }
+            if (stalledSince == 0) {
+                stalledSince = System.nanoTime();
+            }
+        } catch (IOException | RuntimeException e) {
+            close();
+        }
+    }
+
+    private byte[] eventOf(FeedPage page) throws IOException {
+        return ("id: " + page.getNextSequence() + "\nevent: " + (page.isReset() ? "reset" : "changes") + "\ndata: "
+                + objectMapper.writeValueAsString(page) + "\n\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    void close() {
+        if (!closed) {
+            closed = true;
+            changeFeed.unsubscribe(organization, this);
+            openStreams.remove(this);
+            try {
+                asyncContext.complete();
+            } catch (IllegalStateException e) {
+                // already completed by the container
+            }
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        close();
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+        closed = true;
+        changeFeed.unsubscribe(organization, this);
+        openStreams.remove(this);
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+        close();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+    }
+}
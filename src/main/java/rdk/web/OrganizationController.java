@@ -0,0 +1,71 @@
+package rdk.web;
+
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.context.request.WebRequest;
+
+import rdk.model.Organization;
+import rdk.service.OrganizationExecutor;
+import rdk.service.OrganizationService;
+
+
+@Controller
+@RequestMapping("/organizations")
+public class OrganizationController {
+
+    @Autowired
+    private OrganizationService organizationService;
+
+    /**
+     * Answers {@code If-None-Match} from the organization's version alone, so unchanged
+     * organizations are never rendered. Changed ones are rendered in the organization's
+     * mailbox, and tagged with the version they were rendered at.
+     */
+    @RequestMapping(value = "/{name}", method = RequestMethod.GET)
+    @ResponseBody
+    public OrganizationView view(@PathVariable("name") String name, WebRequest request, HttpServletResponse response)
+            throws IOException {
+        Organization organization = organizationService.findOrganization(name);
+        if (organization == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "Unknown organization " + name);
+            return null;
+        }
+        long version = organization.getVersion();
+        if (request.checkNotModified(eTagOf(organization, version))) {
+            return null;
+        }
+        OrganizationView view = organizationService.execute(organization, new OrganizationExecutor.OrganizationTask<OrganizationView>() {
+            @Override
+            public OrganizationView execute(OrganizationService service, Organization organization) {
+                return new OrganizationView(organization, organization.getVersion());
+            }
+        }).join();
+        if (view.getVersion() != version) {
+            response.setHeader("ETag", eTagOf(organization, view.getVersion()));
+        }
+        return view;
+    }
+
+    /**
+     * Versions start from 1 for every organization, so the tag also carries the name,
+     * encoded to stay a valid quoted string. Tags stay valid across restarts as long as
+     * the organization reaches the same versions.
+     */
+    static String eTagOf(Organization organization, long version) {
+        try {
+            return "\"" + URLEncoder.encode(organization.getName(), "UTF-8") + "-" + version + "\"";
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package rdk.web;
+
+import java.io.IOException;
+import java.util.Collections;
+
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
+
+import rdk.model.Organization;
+import rdk.service.ExportFormat;
+import rdk.service.ExportResult;
+import rdk.service.OrganizationExportService;
+import rdk.service.OrganizationService;
+
+
+@Controller
+@RequestMapping("/organizations")
+public class OrganizationExportController {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OrganizationExportController.class);
+
+    @Autowired
+    private OrganizationExportService organizationExportService;
+
+    @Autowired
+    private OrganizationService organizationService;
+
+    @RequestMapping(value = "/export", method = RequestMethod.GET)
+    public void export(@RequestParam(value = "format", defaultValue = "jsonl") String format,
+            @RequestParam(value = "organization", required = false) String organizationName, WebRequest request,
+            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = exportFormatOf(format);
+        if (exportFormat == null) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown export format " + format);
+            return;
+        }
+
+        ExportResult result;
+        if (organizationName == null) {
+            response.setContentType(contentTypeOf(exportFormat));
+            result = organizationExportService.exportAll(exportFormat, response.getOutputStream());
+        } else {
+            Organization organization = organizationService.findOrganization(organizationName);
+            if (organization == null) {
+                response.sendError(HttpServletResponse.SC_NOT_FOUND, "Unknown organization " + organizationName);
+                return;
+            }
+            if (request.checkNotModified(OrganizationController.eTagOf(organization, organization.getVersion()))) {
+                return;
+            }
+            response.setContentType(contentTypeOf(exportFormat));
+            result = organizationExportService.export(Collections.singletonList(organization), exportFormat,
+                    response.getOutputStream());
+        }
+
+        LOGGER.info("Exported {} rows in {} ms ({} rows/sec)", result.getNumOfRows(), result.getElapsedMillis(),
+                (long) result.getRowsPerSecond());
+    }
+
+    private static String contentTypeOf(ExportFormat exportFormat) {
+        return exportFormat == ExportFormat.CSV ? "text/csv;charset=UTF-8" : "application/x-ndjson;charset=UTF-8";
+    }
+
+    private static ExportFormat exportFormatOf(String format) {
+        if ("jsonl".equalsIgnoreCase(format)) {
+            return ExportFormat.JSON_LINES;
+        }
+        if ("csv".equalsIgnoreCase(format)) {
+            return ExportFormat.CSV;
+        }
+        return null;
+    }
+}
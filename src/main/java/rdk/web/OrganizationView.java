@@ -0,0 +1,114 @@
+package rdk.web;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import rdk.model.Document;
+import rdk.model.DocumentStatus;
+import rdk.model.Organization;
+import rdk.model.User;
+import rdk.model.UserRole;
+
+
+/**
+ * Members, roles and documents of an organization as served to polling clients.
+ */
+public class OrganizationView {
+
+    private final String name;
+
+    private final long version;
+
+    private final boolean active;
+
+    private final List<Member> members = new ArrayList<Member>();
+
+    private final List<DocumentSummary> documents = new ArrayList<DocumentSummary>();
+
+    OrganizationView(Organization organization, long version) {
+        this.name = organization.getName();
+        this.version = version;
+        this.active = organization.isActive();
+        for (User member : organization.getMembers()) {
+            members.add(new Member(member.getName(), member.getRole()));
+        }
+        for (Document document : organization.getDocuments()) {
+            documents.add(new DocumentSummary(document.getNumber(), document.getCreator().getName(), document.getStatus(),
+                    document.getConfirmations().size()));
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public List<Member> getMembers() {
+        return members;
+    }
+
+    public List<DocumentSummary> getDocuments() {
+        return documents;
+    }
+
+    public static class Member {
+
+        private final String name;
+
+        private final UserRole role;
+
+        Member(String name, UserRole role) {
+            this.name = name;
+            this.role = role;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public UserRole getRole() {
+            return role;
+        }
+    }
+
+    public static class DocumentSummary {
+
+        private final int number;
+
+        private final String creator;
+
+        private final DocumentStatus status;
+
+        private final int numOfConfirmations;
+
+        DocumentSummary(int number, String creator, DocumentStatus status, int numOfConfirmations) {
+            this.number = number;
+            this.creator = creator;
+            this.status = status;
+            this.numOfConfirmations = numOfConfirmations;
+        }
+
+        public int getNumber() {
+            return number;
+        }
+
+        public String getCreator() {
+            return creator;
+        }
+
+        public DocumentStatus getStatus() {
+            return status;
+        }
+
+        public int getNumOfConfirmations() {
+            return numOfConfirmations;
+        }
+    }
+}
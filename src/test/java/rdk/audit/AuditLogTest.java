@@ -0,0 +1,191 @@
+package rdk.audit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rdk.model.User.UserBuilder.user;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import rdk.exception.UnauthorizedAccessException;
+import rdk.exception.UnauthorizedDocumentCreationException;
+import rdk.model.Organization;
+import rdk.model.User;
+import rdk.model.UserRole;
+import rdk.service.DocumentService;
+import rdk.service.OrganizationRegistry;
+import rdk.service.OrganizationService;
+
+
+public class AuditLogTest {
+
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    File file;
+    AuditLog auditLog;
+    OrganizationService organizationService;
+    User owner;
+
+    @Before
+    public void init() throws Exception {
+        file = folder.newFile("audit.log");
+        auditLog = new AuditLog(file.toPath(), 1024, 64, BackpressurePolicy.BLOCK);
+
+        organizationService = new OrganizationService(new DocumentService(), new OrganizationRegistry());
+        organizationService.addChangeListener(auditLog);
+        organizationService.setAuthorizationListener(auditLog);
+
+        owner = user("owner").withRole(UserRole.REGULAR).build();
+    }
+
+    @After
+    public void close() throws Exception {
+        auditLog.close();
+    }
+
+    @Test
+    public void recordsMutationsAndAllowedDecisions() throws Exception {
+        Organization organization = organizationService.createNewOrganisation("audited", owner);
+        organizationService.requestForActivation(organization, owner);
+
+        assertThat(auditLog.flush(TIMEOUT_MILLIS)).isTrue();
+
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertThat(lines).hasSize(3);
+        assertThat(lines.get(0)).contains("MUTATION\taudited\tORGANIZATION_CREATED\towner");
+        assertThat(lines.get(1)).contains("AUTHORIZATION\taudited\tOWNERSHIP\towner\t-\tALLOWED");
+        assertThat(lines.get(2)).contains("MUTATION\taudited\tACTIVATION_REQUESTED\towner");
+    }
+
+    @Test
+    public void recordsDeniedDecisions() throws Exception {
+        User intruder = user("intruder").withRole(UserRole.REGULAR).build();
+        Organization organization = organizationService.createNewOrganisation("audited", owner);
+
+        try {
+            organizationService.activateOrganisation(organization, intruder);
+        } catch (UnauthorizedAccessException e) {
+            // expected
+        }
+
+        assertThat(auditLog.flush(TIMEOUT_MILLIS)).isTrue();
+
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertThat(lines).hasSize(2);
+        assertThat(lines.get(1)).contains("AUTHORIZATION\taudited\tADMIN\tintruder\t-\tDENIED");
+    }
+
+    @Test
+    public void addingMemberRecordsThatTheMemberIsNotTheOwner() throws Exception {
+        User member = user("member").withRole(UserRole.REGULAR).build();
+        Organization organization = organizationService.createNewOrganisation("audited", owner);
+
+        organizationService.addMember(organization, owner, member);
+
+        assertThat(auditLog.flush(TIMEOUT_MILLIS)).isTrue();
+
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertThat(lines).hasSize(4);
+        assertThat(lines.get(1)).contains("AUTHORIZATION\taudited\tNOT_OWNER\tmember\t-\tALLOWED");
+        assertThat(lines.get(2)).contains("AUTHORIZATION\taudited\tOWNERSHIP\towner\t-\tALLOWED");
+        assertThat(lines.get(3)).contains("MUTATION\taudited\tMEMBER_ADDED\towner");
+    }
+
+    @Test
+    public void recordsDeniedRoleAndDefaultDecisions() throws Exception {
+        User member = user("member").withRole(UserRole.REGULAR).build();
+        Organization organization = organizationService.createNewOrganisation("audited", owner);
+        organizationService.addMember(organization, owner, member);
+        organizationService.activateOrganisation(organization, user("admin").withRole(UserRole.ADMIN).build());
+
+        try {
+            organizationService.addNewDocumentByUser(organization, member);
+        } catch (UnauthorizedDocumentCreationException e) {
+            // expected
+        }
+        try {
+            organizationService.setDefaultNumOfRequiredAcknowledgments(2, member);
+        } catch (UnauthorizedAccessException e) {
+            // expected
+        }
+
+        assertThat(auditLog.flush(TIMEOUT_MILLIS)).isTrue();
+
+        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+        assertThat(lines.get(lines.size() - 2)).contains("AUTHORIZATION\taudited\tROLE\tmember\t-\tDENIED");
+        assertThat(lines.get(lines.size() - 1)).contains("AUTHORIZATION\t-\tADMIN\tmember\t-\tDENIED");
+    }
+
+    @Test
+    public void writesOrDropsEveryRecordOfProducersBlockedDuringClose() throws Exception {
+        final AuditLog blockingLog = new AuditLog(folder.newFile("blocking.log").toPath(), 1, 1, BackpressurePolicy.BLOCK);
+        List<Thread> producers = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i++) {
+            Thread producer = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int j = 0; j < 500; j++) {
+                        blockingLog.submit(new AuditRecord(System.currentTimeMillis(), AuditLog.MUTATION, "bulk", "TEST", "user", null,
+                                "APPLIED"));
+                    }
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+        Thread.sleep(20);
+        blockingLog.close();
+        for (Thread producer : producers) {
+            producer.join(TIMEOUT_MILLIS);
+        }
+
+        AuditStatistics statistics = blockingLog.getStatistics();
+        assertThat(statistics.getNumOfSubmitted()).isEqualTo(2000);
+        assertThat(statistics.getNumOfWritten() + statistics.getNumOfDropped()).isEqualTo(2000);
+    }
+
+    @Test
+    public void groupsRecordsIntoCommitsAndReportsProgress() throws Exception {
+        for (int i = 0; i < 5000; i++) {
+            auditLog.submit(new AuditRecord(System.currentTimeMillis(), AuditLog.MUTATION, "bulk", "TEST", "user " + i, null, "APPLIED"));
+        }
+
+        assertThat(auditLog.flush(TIMEOUT_MILLIS)).isTrue();
+
+        AuditStatistics statistics = auditLog.getStatistics();
+        assertThat(statistics.getNumOfWritten()).isEqualTo(5000);
+        assertThat(statistics.getLag()).isEqualTo(0);
+        assertThat(statistics.getNumOfCommits()).isLessThan(5000);
+        assertThat(statistics.getRecordsPerSecond()).isGreaterThan(0);
+        assertThat(Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)).hasSize(5000);
+    }
+
+    @Test
+    public void dropsRecordsWhenQueueIsFullAndPolicyIsDrop() throws Exception {
+        AuditLog droppingLog = new AuditLog(folder.newFile("dropping.log").toPath(), 1, 1, BackpressurePolicy.DROP);
+        try {
+            for (int i = 0; i < 10000; i++) {
+                droppingLog.submit(new AuditRecord(System.currentTimeMillis(), AuditLog.MUTATION, "bulk", "TEST", "user", null, "APPLIED"));
+            }
+
+            assertThat(droppingLog.flush(TIMEOUT_MILLIS)).isTrue();
+
+            AuditStatistics statistics = droppingLog.getStatistics();
+            assertThat(statistics.getNumOfDropped()).isGreaterThan(0);
+            assertThat(statistics.getNumOfWritten() + statistics.getNumOfDropped()).isEqualTo(10000);
+        } finally {
+            droppingLog.close();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package rdk.benchmark;
+
+import static rdk.builders.OrganizationBuilder.organization;
+import static rdk.model.User.UserBuilder.user;
+
+import org.junit.Test;
+
+import rdk.model.Document;
+import rdk.model.Organization;
+import rdk.model.User;
+import rdk.model.UserRole;
+
+/**
+ * Reports approximate retained heap per organization, member, promoter edge and document
+ * at several organization sizes, measured as the growth of used heap after full
+ * collections. Member names are drawn from a small set of freshly built strings, so the
+ * figures include the effect of name deduplication. Run with {@code mvn test -Pbenchmark}.
+ */
+public class FootprintBenchmark {
+
+    private static final int[] SIZES = { 1000, 10000, 100000 };
+
+    private static final int NUM_OF_DISTINCT_NAMES = 100;
+
+    private static volatile Object retained;
+
+    @Test
+    public void reportsRetainedBytes() throws Exception {
+        long organizationBytes = retainedBytes(new Allocation() {
+            @Override
+            public Object allocate(int size) {
+                Organization[] organizations = new Organization[size];
+                for (int i = 0; i < size; i++) {
+                    organizations[i] = organization(nameOf(i)).ownedBy(user(nameOf(i)).withRole(UserRole.OWNER).build()).build();
+                }
+                return organizations;
+            }
+        }, SIZES[SIZES.length - 1]);
+        System.out.println(String.format("organization with owner   %6d bytes", organizationBytes));
+
+        for (final int size : SIZES) {
+            long members = retainedBytes(new Allocation() {
+                @Override
+                public Object allocate(int size) {
+                    return organizationWithMembers(size, false);
+                }
+            }, size);
+            long membersWithPromoters = retainedBytes(new Allocation() {
+                @Override
+                public Object allocate(int size) {
+                    return organizationWithMembers(size, true);
+                }
+            }, size);
+            long documents = retainedBytes(new Allocation() {
+                @Override
+                public Object allocate(int size) {
+                    return organizationWithDocuments(size);
+                }
+            }, size);
+
+            System.out.println(String.format("%7d members: member %4d bytes, promoter edge %4d bytes, document %4d bytes", size,
+                    members, membersWithPromoters - members, documents));
+        }
+    }
+
+    private static Organization organizationWithMembers(int size, boolean withPromoter) {
+        User owner = user("owner").withRole(UserRole.OWNER).build();
+        User promotor = user("promotor").withRole(UserRole.REPRESENTATIVE).build();
+        User[] members = new User[size];
+        for (int i = 0; i < size; i++) {
+            members[i] = user(nameOf(i)).withRole(UserRole.REGULAR).build();
+            if (withPromoter) {
+                members[i].getPromoters().add(promotor);
+            }
+        }
+        return organization("members").ownedBy(owner).withMembers(members).build();
+    }
+
+    private static Organization organizationWithDocuments(int size) {
+        User owner = user("owner").withRole(UserRole.OWNER).build();
+        User representative = user("representative").withRole(UserRole.REPRESENTATIVE).build();
+        Organization organization = organization("documents").ownedBy(owner).withMembers(representative).active().build();
+        try {
+            for (int i = 0; i < size; i++) {
+                organization.addDocumentByUser(new Document(representative), representative);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        return organization;
+    }
+
+    private static String nameOf(int i) {
+        return new String("name " + (i % NUM_OF_DISTINCT_NAMES));
+    }
+
+    private static long retainedBytes(Allocation allocation, int size) throws InterruptedException {
+        allocation.allocate(size);
+        long before = usedHeap();
+        retained = allocation.allocate(size);
+        long after = usedHeap();
+        retained = null;
+        return (after - before) / size;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private interface Allocation {
+
+        Object allocate(int size);
+    }
+}
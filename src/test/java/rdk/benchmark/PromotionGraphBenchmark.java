@@ -0,0 +1,61 @@
+package rdk.benchmark;
+
+import static rdk.builders.OrganizationBuilder.organization;
+import static rdk.model.User.UserBuilder.user;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import rdk.exception.UnauthorizedAccessException;
+import rdk.model.Organization;
+import rdk.model.PromotionGraph;
+import rdk.model.User;
+import rdk.model.UserRole;
+
+/**
+ * Measures building the promotion graph of an organization with one million members and
+ * four million promotions, and running reachability and endorsement ring analysis on it.
+ * Run with {@code mvn test -Pbenchmark}.
+ */
+public class PromotionGraphBenchmark {
+
+    private static final int NUM_OF_MEMBERS = 1000000;
+
+    private static final int PROMOTIONS_PER_MEMBER = 4;
+
+    @Test
+    public void analysesMillionsOfPromotions() throws UnauthorizedAccessException {
+        User owner = user("owner").withRole(UserRole.OWNER).build();
+        User[] members = new User[NUM_OF_MEMBERS];
+        for (int i = 0; i < NUM_OF_MEMBERS; i++) {
+            members[i] = user("member " + i).withRole(UserRole.REPRESENTATIVE).build();
+        }
+        Organization organization = organization("large").ownedBy(owner).active().withMembers(members).build();
+        organization.setNumOfRequiredAcknowledgments(Integer.MAX_VALUE, owner);
+
+        Random random = new Random(42);
+        long start = System.nanoTime();
+        for (User member : members) {
+            for (int p = 0; p < PROMOTIONS_PER_MEMBER; p++) {
+                organization.promote(member, members[random.nextInt(NUM_OF_MEMBERS)]);
+            }
+        }
+        System.out.println(String.format("promoted in %d ms", (System.nanoTime() - start) / 1000000));
+
+        start = System.nanoTime();
+        PromotionGraph graph = organization.getPromotionGraph();
+        System.out.println(String.format("built graph of %d users and %d promotions in %d ms", graph.getNumOfUsers(),
+                graph.getNumOfPromotions(), (System.nanoTime() - start) / 1000000));
+
+        for (int round = 0; round < 3; round++) {
+            start = System.nanoTime();
+            int reached = graph.transitivelyEndorsedBy(members[round]).size();
+            System.out.println(String.format("round %d: reached %d users in %d ms", round, reached, (System.nanoTime() - start) / 1000000));
+        }
+
+        start = System.nanoTime();
+        int rings = graph.endorsementRings().size();
+        System.out.println(String.format("found %d endorsement rings in %d ms", rings, (System.nanoTime() - start) / 1000000));
+    }
+}
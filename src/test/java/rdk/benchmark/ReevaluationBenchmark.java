@@ -0,0 +1,46 @@
+package rdk.benchmark;
+
+import static rdk.builders.OrganizationBuilder.organization;
+import static rdk.model.User.UserBuilder.user;
+
+import org.junit.Test;
+
+import rdk.exception.UnauthorizedAccessException;
+import rdk.model.Organization;
+import rdk.model.ReevaluationReport;
+import rdk.model.User;
+import rdk.model.UserRole;
+
+/**
+ * Measures the re-evaluation pass run when the number of required acknowledgments drops,
+ * on an organization with one million members of which every tenth qualifies. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+public class ReevaluationBenchmark {
+
+    private static final int NUM_OF_MEMBERS = 1000000;
+
+    private static final int NUM_OF_ROUNDS = 5;
+
+    @Test
+    public void reevaluatesMillionMembers() throws UnauthorizedAccessException {
+        for (int round = 0; round < NUM_OF_ROUNDS; round++) {
+            User owner = user("owner").withRole(UserRole.OWNER).build();
+            User promotor = user("promotor").withRole(UserRole.REPRESENTATIVE).build();
+            User[] members = new User[NUM_OF_MEMBERS];
+            for (int i = 0; i < NUM_OF_MEMBERS; i++) {
+                members[i] = user("member " + i).withRole(UserRole.REGULAR).build();
+                if (i % 10 == 0) {
+                    members[i].getPromoters().add(promotor);
+                }
+            }
+            Organization organization = organization("large").ownedBy(owner).active().withMembers(promotor).withMembers(members).build();
+
+            ReevaluationReport report = organization.setNumOfRequiredAcknowledgments(1, owner);
+
+            System.out.println(String.format("round %d: scanned %d members, promoted %d in %d ms (%.0f members/sec)", round,
+                    report.getNumOfMembersScanned(), report.getNumOfPromotedMembers(), report.getElapsedMillis(),
+                    report.getThroughput()));
+        }
+    }
+}
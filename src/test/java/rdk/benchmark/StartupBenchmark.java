@@ -0,0 +1,73 @@
+package rdk.benchmark;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import rdk.RepresentativesDomainKataApplication;
+import rdk.init.DomainEngine;
+import rdk.service.OrganizationService;
+
+/**
+ * Compares the time to a usable {@link OrganizationService} for the full Spring Boot
+ * application, the lean bootstrap and the plain Java engine. The first start of every
+ * mode is reported separately because it also pays for class loading; the lighter modes
+ * run first so that their first start does not reuse classes loaded by the heavier ones. Run with
+ * {@code mvn test -Pbenchmark}.
+ */
+public class StartupBenchmark {
+
+    private static final int NUM_OF_STARTS = 5;
+
+    @Test
+    public void comparesStartupTimes() {
+        report("plain engine", new Startup() {
+            @Override
+            public OrganizationService start() {
+                return DomainEngine.create().getOrganizationService();
+            }
+        });
+        report("lean bootstrap", new Startup() {
+            @Override
+            public OrganizationService start() {
+                SpringApplication application = RepresentativesDomainKataApplication.leanApplication();
+                application.setShowBanner(false);
+                ConfigurableApplicationContext context = application.run();
+                OrganizationService service = context.getBean(OrganizationService.class);
+                context.close();
+                return service;
+            }
+        });
+        report("full application", new Startup() {
+            @Override
+            public OrganizationService start() {
+                ConfigurableApplicationContext context = SpringApplication.run(RepresentativesDomainKataApplication.class,
+                        "--server.port=0", "--spring.main.show-banner=false");
+                OrganizationService service = context.getBean(OrganizationService.class);
+                context.close();
+                return service;
+            }
+        });
+    }
+
+    private void report(String mode, Startup startup) {
+        long[] millis = new long[NUM_OF_STARTS];
+        for (int i = 0; i < NUM_OF_STARTS; i++) {
+            long start = System.nanoTime();
+            startup.start();
+            millis[i] = (System.nanoTime() - start) / 1000000;
+        }
+        long[] warm = Arrays.copyOfRange(millis, 1, NUM_OF_STARTS);
+        Arrays.sort(warm);
+
+        System.out.println(String.format("%-18s first start %6d ms, median of next %d starts %6d ms", mode, millis[0],
+                warm.length, warm[warm.length / 2]));
+    }
+
+    private interface Startup {
+
+        OrganizationService start();
+    }
+}
@@ -0,0 +1,125 @@
+package rdk.feed;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rdk.model.User.UserBuilder.user;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import rdk.event.ChangeType;
+import rdk.event.OrganizationChange;
+import rdk.model.Organization;
+import rdk.model.User;
+import rdk.model.UserRole;
+import rdk.service.DocumentService;
+import rdk.service.OrganizationRegistry;
+import rdk.service.OrganizationService;
+
+
+public class ChangeFeedTest {
+
+    ChangeFeed changeFeed = new ChangeFeed(16);
+
+    OrganizationService organizationService = new OrganizationService(new DocumentService(), new OrganizationRegistry());
+
+    User owner = user("owner").withRole(UserRole.REGULAR).build();
+
+    User representative = user("representative").withRole(UserRole.REPRESENTATIVE).build();
+
+    Organization organization;
+
+    @Before
+    public void init() throws Exception {
+        organizationService.addChangeListener(changeFeed);
+        organization = organizationService.createNewOrganisation("followed", owner);
+        organizationService.addMember(organization, owner, representative);
+        organizationService.activateOrganisation(organization, user("admin").withRole(UserRole.ADMIN).build());
+    }
+
+    @Test
+    public void numbersChangesOfEachOrganizationSeparately() {
+        Organization other = organizationService.createNewOrganisation("other", user("other owner").withRole(UserRole.REGULAR).build());
+
+        FeedPage page = changeFeed.read(organization, 1);
+
+        assertThat(page.getEntries()).extracting("sequence").containsExactly(2L, 3L);
+        assertThat(page.getEntries()).extracting("type").containsExactly(ChangeType.MEMBER_ADDED, ChangeType.ORGANIZATION_ACTIVATED);
+        assertThat(page.getNextSequence()).isEqualTo(3);
+        assertThat(changeFeed.read(other, 0).getEntries()).extracting("sequence").containsExactly(1L);
+        assertThat(changeFeed.read(organization, 3).isEmpty()).isTrue();
+    }
+
+    @Test
+    public void coalescesChangesOfTheSameThing() throws Exception {
+        for (int i = 1; i <= 4; i++) {
+            organizationService.setNumOfRequiredAcknowledgments(organization, i, owner);
+        }
+        organizationService.addNewDocumentByUser(organization, representative);
+
+        FeedPage page = changeFeed.read(organization, 3);
+
+        assertThat(page.getEntries()).extracting("type").containsExactly(ChangeType.ACKNOWLEDGMENTS_CHANGED, ChangeType.DOCUMENT_ADDED);
+        assertThat(page.getEntries().get(0).getValue()).isEqualTo(4);
+        assertThat(page.getNumOfCoalesced()).isEqualTo(3);
+        assertThat(page.getNextSequence()).isEqualTo(8);
+    }
+
+    @Test
+    public void resetsSubscribersThatFellBehindTheKeptChanges() throws Exception {
+        for (int i = 1; i <= 20; i++) {
+            organizationService.setNumOfRequiredAcknowledgments(organization, i, owner);
+        }
+
+        FeedPage page = changeFeed.read(organization, 3);
+
+        assertThat(page.isReset()).isTrue();
+        assertThat(page.getNextSequence()).isEqualTo(organization.getVersion());
+        assertThat(changeFeed.read(organization, organization.getVersion() - 16).isReset()).isFalse();
+    }
+
+    @Test
+    public void signalsSubscribersUntilTheyUnsubscribe() throws Exception {
+        final AtomicInteger signals = new AtomicInteger();
+        ChangeFeed.Subscriber subscriber = new ChangeFeed.Subscriber() {
+            @Override
+            public void changesAvailable(Organization organization) {
+                signals.incrementAndGet();
+            }
+        };
+
+        changeFeed.subscribe(organization, organization.getVersion(), subscriber);
+        organizationService.setNumOfRequiredAcknowledgments(organization, 1, owner);
+        changeFeed.unsubscribe(organization, subscriber);
+        organizationService.setNumOfRequiredAcknowledgments(organization, 2, owner);
+        changeFeed.subscribe(organization, 0, subscriber);
+
+        assertThat(signals.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void numbersEntriesWithTheVersionTheChangeWasPublishedWith() throws Exception {
+        ChangeFeed lateFeed = new ChangeFeed(16);
+        organizationService.setNumOfRequiredAcknowledgments(organization, 1, owner);
+
+        lateFeed.onChange(OrganizationChange.of(ChangeType.MEMBER_ADDED, organization, owner, representative).withVersion(2));
+
+        assertThat(lateFeed.read(organization, 1).getEntries()).extracting("sequence").containsExactly(2L);
+    }
+
+    @Test
+    public void evictsIdleFeedsWithoutSubscribers() {
+        Organization other = organizationService.createNewOrganisation("other", user("other owner").withRole(UserRole.REGULAR).build());
+        changeFeed.subscribe(other, 1, new ChangeFeed.Subscriber() {
+            @Override
+            public void changesAvailable(Organization organization) {
+            }
+        });
+
+        assertThat(changeFeed.evictIdleFeeds(System.currentTimeMillis() + 1)).isEqualTo(1);
+        assertThat(changeFeed.getNumOfFeeds()).isEqualTo(1);
+        assertThat(changeFeed.read(organization, 3).isEmpty()).isTrue();
+        assertThat(changeFeed.read(organization, 1).isReset()).isTrue();
+    }
+}
@@ -0,0 +1,211 @@
+package rdk.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.junit.Test;
+
+
+public class IdempotencyCacheTest {
+
+    private static final long TIME_TO_LIVE = 1000;
+
+    final AtomicLong now = new AtomicLong(0);
+
+    final AtomicInteger performed = new AtomicInteger();
+
+    IdempotencyCache<String, Integer> cache = new IdempotencyCache<String, Integer>(3, TIME_TO_LIVE, new LongSupplier() {
+        @Override
+        public long getAsLong() {
+            return now.get();
+        }
+    });
+
+    IdempotencyCache.Action<Integer, RuntimeException> counting = new IdempotencyCache.Action<Integer, RuntimeException>() {
+        @Override
+        public Integer perform() {
+            return performed.incrementAndGet();
+        }
+    };
+
+    @Test
+    public void performsActionOncePerKey() {
+        assertThat(cache.performOnce("a", counting)).isEqualTo(1);
+        assertThat(cache.performOnce("a", counting)).isEqualTo(1);
+        assertThat(cache.performOnce("b", counting)).isEqualTo(2);
+        assertThat(performed.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void forgetsKeysAfterTimeToLive() {
+        cache.performOnce("a", counting);
+
+        now.addAndGet(TIME_TO_LIVE - 1);
+        assertThat(cache.performOnce("a", counting)).isEqualTo(1);
+
+        now.addAndGet(1);
+        assertThat(cache.performOnce("a", counting)).isEqualTo(2);
+    }
+
+    @Test
+    public void evictsOldestKeysBeyondCapacity() {
+        for (String key : new String[] { "a", "b", "c", "d", "e" }) {
+            cache.performOnce(key, counting);
+        }
+        assertThat(cache.size()).isEqualTo(3);
+
+        assertThat(cache.performOnce("e", counting)).isEqualTo(5);
+        assertThat(cache.performOnce("a", counting)).isEqualTo(6);
+    }
+
+    @Test
+    public void doesNotRememberFailedActions() {
+        try {
+            cache.performOnce("a", new IdempotencyCache.Action<Integer, IllegalStateException>() {
+                @Override
+                public Integer perform() {
+                    throw new IllegalStateException("failed");
+                }
+            });
+        } catch (IllegalStateException expected) {
+        }
+        assertThat(cache.performOnce("a", new IdempotencyCache.Action<Integer, RuntimeException>() {
+            @Override
+            public Integer perform() {
+                return null;
+            }
+        })).isNull();
+
+        assertThat(cache.performOnce("a", counting)).isEqualTo(1);
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void concurrentRetriesWaitForTheRunningAction() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+            results.add(executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    return cache.performOnce("a", new IdempotencyCache.Action<Integer, InterruptedException>() {
+                        @Override
+                        public Integer perform() throws InterruptedException {
+                            started.countDown();
+                            release.await();
+                            return performed.incrementAndGet();
+                        }
+                    });
+                }
+            }));
+            started.await();
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() {
+                        return cache.performOnce("a", counting);
+                    }
+                }));
+            }
+            release.countDown();
+
+            for (Future<Integer> result : results) {
+                assertThat(result.get()).isEqualTo(1);
+            }
+            assertThat(performed.get()).isEqualTo(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void keepsKeysWhoseActionIsStillRunning() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> running = executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    return cache.performOnce("a", new IdempotencyCache.Action<Integer, InterruptedException>() {
+                        @Override
+                        public Integer perform() throws InterruptedException {
+                            started.countDown();
+                            release.await();
+                            return performed.incrementAndGet();
+                        }
+                    });
+                }
+            });
+            started.await();
+            for (String key : new String[] { "b", "c", "d", "e" }) {
+                cache.performOnce(key, counting);
+            }
+            Future<Integer> retry = executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    return cache.performOnce("a", counting);
+                }
+            });
+            release.countDown();
+
+            assertThat(running.get()).isEqualTo(retry.get());
+            assertThat(performed.get()).isEqualTo(5);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void evictsBeyondCapacityPastKeysWhoseActionIsStillRunning() throws Exception {
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> running = executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() throws Exception {
+                    return cache.performOnce("blocked", new IdempotencyCache.Action<Integer, InterruptedException>() {
+                        @Override
+                        public Integer perform() throws InterruptedException {
+                            started.countDown();
+                            release.await();
+                            return performed.incrementAndGet();
+                        }
+                    });
+                }
+            });
+            started.await();
+            for (int i = 0; i < 100; i++) {
+                cache.performOnce("key " + i, counting);
+            }
+            assertThat(cache.size()).isEqualTo(4);
+
+            Future<Integer> retry = executor.submit(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    return cache.performOnce("blocked", counting);
+                }
+            });
+            release.countDown();
+
+            assertThat(retry.get()).isEqualTo(running.get());
+            cache.performOnce("after", counting);
+            assertThat(cache.size()).isEqualTo(3);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package rdk.init;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rdk.model.User.UserBuilder.user;
+
+import org.junit.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import rdk.RepresentativesDomainKataApplication;
+import rdk.model.Organization;
+import rdk.model.UserRole;
+import rdk.service.OrganizationService;
+
+
+public class LeanBootstrapTest {
+
+    @Test
+    public void leanApplicationWiresOnlyDomainServices() {
+        ConfigurableApplicationContext context = RepresentativesDomainKataApplication.leanApplication().run();
+        try {
+            OrganizationService organizationService = context.getBean(OrganizationService.class);
+            Organization organization = organizationService.createNewOrganisation("lean", user("owner").withRole(UserRole.REGULAR).build());
+
+            assertThat(organizationService.findOrganization("lean")).isSameAs(organization);
+            assertThat(context.getBeanNamesForType(javax.sql.DataSource.class)).isEmpty();
+        } finally {
+            context.close();
+        }
+    }
+
+    @Test
+    public void engineWiresOrganizationServiceWithoutSpring() {
+        DomainEngine engine = DomainEngine.create();
+
+        Organization organization = engine.getOrganizationService().createNewOrganisation("embedded",
+                user("owner").withRole(UserRole.REGULAR).build());
+
+        assertThat(engine.getOrganizationRegistry().find("embedded")).isSameAs(organization);
+    }
+}
@@ -0,0 +1,18 @@
+package rdk.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+
+public class NamesTest {
+
+    @Test
+    public void returnsOneCopyOfEqualNames() {
+        String first = Names.canonical(new String("organization name"));
+        String second = Names.canonical(new String("organization name"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(Names.canonical(null)).isNull();
+    }
+}
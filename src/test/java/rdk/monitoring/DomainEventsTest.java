@@ -0,0 +1,128 @@
+package rdk.monitoring;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rdk.model.User.UserBuilder.user;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import rdk.exception.UnauthorizedAccessException;
+import rdk.exception.UnauthorizedDocumentCreationException;
+import rdk.model.Organization;
+import rdk.model.User;
+import rdk.model.UserRole;
+import rdk.service.DocumentService;
+import rdk.service.OrganizationRegistry;
+import rdk.service.OrganizationService;
+
+
+public class DomainEventsTest {
+
+    OrganizationService organizationService = new OrganizationService(new DocumentService(), new OrganizationRegistry());
+
+    User owner = user("owner").withRole(UserRole.REGULAR).build();
+
+    User representative = user("representative").withRole(UserRole.REPRESENTATIVE).build();
+
+    User member = user("member").withRole(UserRole.REGULAR).build();
+
+    Recording recording = new Recording();
+
+    Path file;
+
+    @Before
+    public void startRecording() throws Exception {
+        file = Files.createTempFile("domain-events", ".jfr");
+        recording.enable("rdk.Promotion").withThreshold(java.time.Duration.ZERO);
+        recording.enable("rdk.Document").withThreshold(java.time.Duration.ZERO);
+        recording.enable("rdk.AuthorizationDenial");
+        recording.start();
+    }
+
+    @After
+    public void deleteRecording() throws Exception {
+        recording.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void recordsOnRuntimesWithFlightRecorder() {
+        assertThat(DomainEvents.isRecording()).isTrue();
+    }
+
+    @Test
+    public void recordsOperationsWithOutcomeAndDenialReason() throws Exception {
+        Organization organization = organizationService.createNewOrganisation("recorded", owner);
+        organizationService.addMember(organization, owner, representative);
+        organizationService.addMember(organization, owner, member);
+        organizationService.activateOrganisation(organization, user("admin").withRole(UserRole.ADMIN).build());
+
+        organizationService.promoteMemberBy(organization, member, representative);
+        try {
+            organizationService.promoteMemberBy(organization, representative, user("stranger").withRole(UserRole.REPRESENTATIVE).build());
+        } catch (UnauthorizedAccessException e) {
+            // recorded as denied
+        }
+        try {
+            organizationService.addNewDocumentByUser(organization, member);
+        } catch (UnauthorizedDocumentCreationException e) {
+            // only representatives create documents
+        }
+        organizationService.addNewDocumentByUser(organization, representative);
+
+        List<RecordedEvent> events = stopRecording();
+
+        assertThat(outcomesOf(events, "rdk.Promotion")).containsExactly("ACKNOWLEDGED", "DENIED");
+        assertThat(outcomesOf(events, "rdk.Document")).containsExactly("DENIED", "CREATED");
+        RecordedEvent denial = eventsOf(events, "rdk.AuthorizationDenial").get(0);
+        assertThat(denial.getString("organization")).isEqualTo("recorded");
+        assertThat(denial.getString("operation")).isEqualTo("promote");
+        assertThat(denial.getString("user")).isEqualTo("stranger");
+        assertThat(denial.getString("reason")).isEqualTo("User can be promoted only by users in the same organisation");
+    }
+
+    @Test
+    public void recordsNothingForDisabledCategories() throws Exception {
+        recording.disable("rdk.Promotion");
+        Organization organization = organizationService.createNewOrganisation("quiet", owner);
+        organizationService.addMember(organization, owner, member);
+
+        organizationService.promoteMemberBy(organization, member, owner);
+
+        assertThat(eventsOf(stopRecording(), "rdk.Promotion")).isEmpty();
+    }
+
+    private List<RecordedEvent> stopRecording() throws Exception {
+        recording.stop();
+        recording.dump(file);
+        return RecordingFile.readAllEvents(file);
+    }
+
+    private static List<RecordedEvent> eventsOf(List<RecordedEvent> events, String name) {
+        List<RecordedEvent> named = new ArrayList<RecordedEvent>();
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(name)) {
+                named.add(event);
+            }
+        }
+        return named;
+    }
+
+    private static List<String> outcomesOf(List<RecordedEvent> events, String name) {
+        List<String> outcomes = new ArrayList<String>();
+        for (RecordedEvent event : eventsOf(events, name)) {
+            outcomes.add(event.getString("outcome"));
+        }
+        return outcomes;
+    }
+}
@@ -0,0 +1,38 @@
+package rdk.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rdk.builders.OrganizationBuilder.organization;
+import static rdk.model.User.UserBuilder.user;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import rdk.IntegrationTestBase;
+import rdk.model.Organization;
+import rdk.model.User;
+import rdk.model.UserRole;
+import rdk.service.OrganizationService;
+
+
+@TestPropertySource(properties = { "rdk.ratelimit.enabled=true", "rdk.ratelimit.user.permits-per-second=0.001",
+        "rdk.ratelimit.user.capacity=1" })
+public class DocumentRateLimiterConfigTest extends IntegrationTestBase {
+
+    @Autowired
+    OrganizationService organizationService;
+
+    @Autowired
+    DocumentRateLimiter documentRateLimiter;
+
+    @Test
+    public void limitsDocumentCreationWhenEnabled() throws Exception {
+        User owner = user("owner").withRole(UserRole.OWNER).build();
+        User representative = user("representative").withRole(UserRole.REPRESENTATIVE).build();
+        Organization organization = organization("limited").active().ownedBy(owner).withMembers(representative).build();
+
+        assertThat(organizationService.addNewDocumentByUser(organization, representative)).isTrue();
+        assertThat(organizationService.addNewDocumentByUser(organization, representative)).isFalse();
+        assertThat(documentRateLimiter.getNumOfRejections()).isEqualTo(1);
+    }
+}
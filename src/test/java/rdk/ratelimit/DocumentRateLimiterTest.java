@@ -0,0 +1,115 @@
+package rdk.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rdk.builders.OrganizationBuilder.organization;
+import static rdk.model.User.UserBuilder.user;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import rdk.model.Organization;
+import rdk.model.User;
+import rdk.model.UserRole;
+
+
+public class DocumentRateLimiterTest {
+
+    private static final long ONE_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    long now = 0;
+
+    LongSupplier clock = new LongSupplier() {
+        @Override
+        public long getAsLong() {
+            return now;
+        }
+    };
+
+    User owner;
+    User firstUser;
+    User secondUser;
+    Organization organization;
+
+    @Before
+    public void init() {
+        owner = user("owner").withRole(UserRole.OWNER).build();
+        firstUser = user("first").withRole(UserRole.REPRESENTATIVE).build();
+        secondUser = user("second").withRole(UserRole.REPRESENTATIVE).build();
+        organization = organization("limited").ownedBy(owner).withMembers(firstUser, secondUser).active().build();
+    }
+
+    @Test
+    public void bucketAdmitsBurstAndRefillsOverTime() {
+        TokenBucket bucket = new TokenBucket(2, 3, clock);
+
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+
+        now += ONE_SECOND / 2;
+
+        assertThat(bucket.tryAcquire()).isTrue();
+        assertThat(bucket.tryAcquire()).isFalse();
+    }
+
+    @Test
+    public void bucketIsFullAgainAfterIdlePeriod() {
+        TokenBucket bucket = new TokenBucket(1, 2, clock);
+        bucket.tryAcquire();
+
+        assertThat(bucket.isFull()).isFalse();
+
+        now += ONE_SECOND;
+
+        assertThat(bucket.isFull()).isTrue();
+    }
+
+    @Test
+    public void limitsEachUserSeparately() {
+        DocumentRateLimiter limiter = new DocumentRateLimiter(100, 100, 1, 1, 10, clock);
+
+        assertThat(limiter.tryAcquire(organization, firstUser)).isTrue();
+        assertThat(limiter.tryAcquire(organization, firstUser)).isFalse();
+        assertThat(limiter.tryAcquire(organization, secondUser)).isTrue();
+        assertThat(limiter.getNumOfRejections()).isEqualTo(1);
+    }
+
+    @Test
+    public void limitsWholeOrganizationWithoutChargingRejectedUser() {
+        DocumentRateLimiter limiter = new DocumentRateLimiter(1, 1, 1, 1, 10, clock);
+
+        assertThat(limiter.tryAcquire(organization, firstUser)).isTrue();
+        assertThat(limiter.tryAcquire(organization, secondUser)).isFalse();
+
+        now += ONE_SECOND;
+
+        assertThat(limiter.tryAcquire(organization, secondUser)).isTrue();
+    }
+
+    @Test
+    public void dropsFullBucketsWhenTrackingLimitIsReached() {
+        KeyedRateLimiter<String> limiter = new KeyedRateLimiter<String>(1, 1, 2, clock);
+        limiter.tryAcquire("first");
+        limiter.tryAcquire("second");
+
+        now += ONE_SECOND;
+        assertThat(limiter.sweepFullBuckets()).isEqualTo(2);
+
+        assertThat(limiter.tryAcquire("third")).isTrue();
+        assertThat(limiter.getNumOfBuckets()).isEqualTo(1);
+    }
+
+    @Test
+    public void sharesOverflowBucketWhenAllTrackedBucketsAreInUse() {
+        KeyedRateLimiter<String> limiter = new KeyedRateLimiter<String>(1, 1, 1, clock);
+        limiter.tryAcquire("first");
+
+        assertThat(limiter.tryAcquire("second")).isTrue();
+        assertThat(limiter.tryAcquire("third")).isFalse();
+        assertThat(limiter.getNumOfBuckets()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,37 @@
+package rdk.readmodel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rdk.model.User.UserBuilder.user;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import rdk.IntegrationTestBase;
+import rdk.model.Organization;
+import rdk.model.User;
+import rdk.model.UserRole;
+import rdk.service.OrganizationService;
+
+
+@TestPropertySource(properties = { "rdk.readmodel.enabled=true", "rdk.readmodel.max-staleness-millis=0" })
+public class OrganizationReadModelConfigTest extends IntegrationTestBase {
+
+    @Autowired
+    OrganizationService organizationService;
+
+    @Autowired
+    OrganizationReadModel organizationReadModel;
+
+    @Test
+    public void projectsOrganizationsWhenEnabled() throws Exception {
+        User owner = user("owner").withRole(UserRole.REGULAR).build();
+        Organization organization = organizationService.createNewOrganisation("projected", owner);
+        organizationService.requestForActivation(organization, owner);
+
+        OrganizationSummary summary = organizationReadModel.getSummary(organization);
+        assertThat(summary.getVersion()).isEqualTo(organization.getVersion());
+        assertThat(summary.isActivationAwaiting()).isTrue();
+        assertThat(organizationReadModel.getNumOfPendingChanges()).isZero();
+    }
+}
@@ -0,0 +1,213 @@
+package rdk.readmodel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rdk.model.User.UserBuilder.user;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import rdk.model.Document;
+import rdk.model.DocumentStatus;
+import rdk.model.Organization;
+import rdk.model.User;
+import rdk.model.UserRole;
+import rdk.service.DocumentService;
+import rdk.service.OrganizationRegistry;
+import rdk.service.OrganizationService;
+
+
+public class OrganizationReadModelTest {
+
+    private static final long MAX_STALENESS = 500;
+
+    final AtomicLong now = new AtomicLong(1000);
+
+    OrganizationService organizationService = new OrganizationService(new DocumentService(), new OrganizationRegistry());
+
+    OrganizationReadModel readModel = new OrganizationReadModel(organizationService, MAX_STALENESS, new LongSupplier() {
+        @Override
+        public long getAsLong() {
+            return now.get();
+        }
+    });
+
+    User owner = user("owner").withRole(UserRole.REGULAR).build();
+
+    User admin = user("admin").withRole(UserRole.ADMIN).build();
+
+    User member = user("member").withRole(UserRole.REGULAR).build();
+
+    User representative = user("representative").withRole(UserRole.REPRESENTATIVE).build();
+
+    Organization organization;
+
+    @Before
+    public void createActiveOrganization() throws Exception {
+        organization = organizationService.createNewOrganisation("dashboard", owner);
+        organizationService.addMember(organization, owner, member);
+        organizationService.addMember(organization, owner, representative);
+        organizationService.activateOrganisation(organization, admin);
+        organizationService.setNumOfRequiredAcknowledgments(organization, 1, owner);
+    }
+
+    @After
+    public void closeReadModel() {
+        readModel.close();
+    }
+
+    @Test
+    public void projectsMembersRolesAndDocuments() throws Exception {
+        organizationService.promoteMemberBy(organization, member, representative);
+        organizationService.addNewDocumentByUser(organization, representative);
+        organizationService.addNewDocumentByUser(organization, member);
+        organizationService.setNumOfRequiredDocumentConfirmations(organization, 1, owner);
+        organizationService.confirmDocumentBy(organization, organization.getDocuments().get(0), member);
+
+        assertThat(readModel.getNumOfPendingChanges()).isEqualTo(10);
+        readModel.project();
+
+        OrganizationSummary summary = readModel.getSummary(organization);
+        assertThat(summary.getVersion()).isEqualTo(organization.getVersion());
+        assertThat(summary.getOwner()).isEqualTo("owner");
+        assertThat(summary.isActive()).isTrue();
+        assertThat(summary.getNumOfRequiredDocumentConfirmations()).isEqualTo(1);
+        assertThat(summary.getNumOfMembers()).isEqualTo(2);
+        assertThat(summary.getNumOfRepresentatives()).isEqualTo(2);
+        assertThat(summary.getDocuments()).hasSize(2);
+        assertThat(summary.getNumOfDocuments(DocumentStatus.CONFIRMED)).isEqualTo(1);
+        assertThat(summary.getDocuments(DocumentStatus.UNCONFIRMED).get(0).getCreator()).isEqualTo("member");
+        assertThat(readModel.getNumOfPendingChanges()).isZero();
+        assertThat(readModel.getStalenessMillis(organization)).isZero();
+    }
+
+    @Test
+    public void sharesUnchangedRowsWithThePreviousSummary() throws Exception {
+        organizationService.promoteMemberBy(organization, member, representative);
+        organizationService.setNumOfRequiredDocumentConfirmations(organization, 1, owner);
+        for (int i = 0; i < 1100; i++) {
+            organizationService.addNewDocumentByUser(organization, representative);
+        }
+        readModel.project();
+        OrganizationSummary before = readModel.getSummary(organization);
+
+        Document confirmed = organization.getDocuments().get(1000);
+        organizationService.confirmDocumentBy(organization, confirmed, member);
+        readModel.project();
+        OrganizationSummary after = readModel.getSummary(organization);
+
+        assertThat(after.getDocuments()).hasSize(1100);
+        assertThat(after.getDocuments().get(999)).isSameAs(before.getDocuments().get(999));
+        assertThat(after.getDocuments().get(1000).getStatus()).isEqualTo(DocumentStatus.CONFIRMED);
+        assertThat(after.getDocuments(DocumentStatus.CONFIRMED)).extracting("number").containsExactly(confirmed.getNumber());
+        assertThat(after.getNumOfDocuments(DocumentStatus.UNCONFIRMED)).isEqualTo(1099);
+        assertThat(before.getNumOfDocuments(DocumentStatus.UNCONFIRMED)).isEqualTo(1100);
+        assertThat(after.getDocuments(DocumentStatus.UNCONFIRMED)).doesNotContain(after.getDocuments().get(1000));
+    }
+
+    @Test
+    public void projectsThresholdChangesFromTheRowsTheyPublish() throws Exception {
+        organizationService.promoteMemberBy(organization, member, representative);
+        organizationService.setNumOfRequiredDocumentConfirmations(organization, 2, owner);
+        organizationService.addNewDocumentByUser(organization, representative);
+        organizationService.confirmDocumentBy(organization, organization.getDocuments().get(0), member);
+        readModel.project();
+
+        organizationService.setNumOfRequiredDocumentConfirmations(organization, 1, owner);
+
+        assertThat(readModel.getNumOfPendingChanges()).isEqualTo(2);
+        readModel.project();
+        OrganizationSummary summary = readModel.getSummary(organization);
+        assertThat(summary.getNumOfRequiredDocumentConfirmations()).isEqualTo(1);
+        assertThat(summary.getNumOfDocuments(DocumentStatus.CONFIRMED)).isEqualTo(1);
+        assertThat(summary.getVersion()).isEqualTo(organization.getVersion());
+    }
+
+    @Test
+    public void servesStaleSummaryOnlyWithinStalenessBound() throws Exception {
+        readModel.project();
+        OrganizationSummary before = readModel.getSummary(organization);
+
+        organizationService.promoteMemberBy(organization, member, representative);
+        now.addAndGet(MAX_STALENESS);
+        assertThat(readModel.getSummary(organization)).isSameAs(before);
+        assertThat(readModel.getStalenessMillis(organization)).isEqualTo(MAX_STALENESS);
+
+        now.addAndGet(1);
+        OrganizationSummary after = readModel.getSummary(organization);
+        assertThat(after.getVersion()).isEqualTo(organization.getVersion());
+        assertThat(after.getNumOfRepresentatives()).isEqualTo(2);
+        assertThat(before.getNumOfRepresentatives()).isEqualTo(1);
+    }
+
+    @Test
+    public void staleReadProjectsOnlyItsOwnOrganization() throws Exception {
+        Organization other = organizationService.createNewOrganisation("other dashboard", user("other owner").withRole(UserRole.REGULAR).build());
+        readModel.project();
+
+        organizationService.promoteMemberBy(organization, member, representative);
+        organizationService.requestForActivation(other, other.getOwner());
+        now.addAndGet(MAX_STALENESS + 1);
+
+        assertThat(readModel.getSummary(organization).getVersion()).isEqualTo(organization.getVersion());
+        assertThat(readModel.getNumOfPendingChanges()).isEqualTo(1);
+        assertThat(readModel.getStalenessMillis(other)).isEqualTo(MAX_STALENESS + 1);
+    }
+
+    @Test
+    public void ignoresChangesOlderThanTheAppliedOnes() {
+        OrganizationProjection projection = new OrganizationProjection(organization);
+        projection.pending.offer(new ProjectedChange(3, "owner", true, false, 1, 1,
+                Collections.singletonMap(member, new OrganizationSummary.Member("member", UserRole.REPRESENTATIVE)),
+                Collections.<Document, OrganizationSummary.DocumentSummary> emptyMap()));
+        projection.pending.offer(new ProjectedChange(2, "owner", false, false, 3, 3,
+                Collections.singletonMap(member, new OrganizationSummary.Member("member", UserRole.REGULAR)),
+                Collections.<Document, OrganizationSummary.DocumentSummary> emptyMap()));
+
+        assertThat(projection.project()).isEqualTo(2);
+
+        OrganizationSummary summary = projection.summary;
+        assertThat(summary.getVersion()).isEqualTo(3);
+        assertThat(summary.isActive()).isTrue();
+        assertThat(summary.getNumOfRequiredAcknowledgments()).isEqualTo(1);
+        assertThat(summary.getMembers().get(0).getRole()).isEqualTo(UserRole.REPRESENTATIVE);
+    }
+
+    @Test
+    public void seedsOrganizationsCreatedBeforeTheReadModel() throws Exception {
+        organizationService.promoteMemberBy(organization, member, representative);
+        OrganizationReadModel lateReadModel = new OrganizationReadModel(organizationService, 0);
+        try {
+            assertThat(lateReadModel.getSummary(organization)).isNull();
+
+            organizationService.addNewDocumentByUser(organization, representative);
+
+            OrganizationSummary summary = lateReadModel.getSummary(organization);
+            assertThat(summary.getNumOfMembers()).isEqualTo(2);
+            assertThat(summary.getNumOfRepresentatives()).isEqualTo(2);
+            assertThat(summary.getDocuments()).hasSize(1);
+        } finally {
+            lateReadModel.close();
+        }
+    }
+
+    @Test
+    public void projectorThreadCatchesUpWithoutReads() throws Exception {
+        readModel.start();
+        organizationService.promoteMemberBy(organization, member, representative);
+        organizationService.cancelMemberRepresentativeRole(organization, representative, owner, true);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (readModel.getNumOfPendingChanges() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+
+        OrganizationSummary summary = readModel.getSummary(organization);
+        assertThat(summary.getVersion()).isEqualTo(organization.getVersion());
+        assertThat(summary.getNumOfRepresentatives()).isZero();
+    }
+}
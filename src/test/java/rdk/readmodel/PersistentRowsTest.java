@@ -0,0 +1,45 @@
+package rdk.readmodel;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+
+public class PersistentRowsTest {
+
+    @Test
+    public void keepsRowsInSlotOrderSkippingEmptySlots() {
+        PersistentRows<Integer> rows = PersistentRows.empty();
+        List<Integer> expected = new ArrayList<Integer>();
+        for (int slot = 0; slot < 2000; slot++) {
+            rows = rows.with(slot, slot);
+            if (slot % 3 != 0) {
+                expected.add(slot);
+            }
+        }
+        for (int slot = 0; slot < 2000; slot += 3) {
+            rows = rows.with(slot, null);
+        }
+
+        assertThat(rows.size()).isEqualTo(expected.size());
+        assertThat(rows.asList()).containsExactlyElementsOf(expected);
+        assertThat(rows.asList().get(1000)).isEqualTo(expected.get(1000));
+        assertThat(rows.get(3)).isNull();
+        assertThat(rows.get(4)).isEqualTo(4);
+    }
+
+    @Test
+    public void leavesTheRowsItWasMadeFromUnchanged() {
+        PersistentRows<String> rows = PersistentRows.<String> empty().with(0, "a").with(40, "b");
+
+        PersistentRows<String> changed = rows.with(40, "c").with(5000, "d");
+
+        assertThat(rows.asList()).containsExactly("a", "b");
+        assertThat(changed.asList()).containsExactly("a", "c", "d");
+        assertThat(PersistentRows.<String> empty().with(5000, null).asList()).isEmpty();
+        assertThat(rows.with(0, null).with(40, null).asList()).isEmpty();
+    }
+}
@@ -0,0 +1,230 @@
+package rdk.replication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rdk.model.User.UserBuilder.user;
+
+import java.net.InetAddress;
+import java.net.Socket;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import rdk.exception.UnauthorizedAccessException;
+import rdk.exception.UnauthorizedDocumentCreationException;
+import rdk.model.DocumentStatus;
+import rdk.model.Organization;
+import rdk.model.User;
+import rdk.model.UserRole;
+import rdk.service.DocumentService;
+import rdk.service.OrganizationRegistry;
+import rdk.service.OrganizationService;
+
+
+public class ReplicationTest {
+
+    private static final String LOOPBACK = "127.0.0.1";
+    private static final long TIMEOUT_MILLIS = 5000;
+
+    OrganizationService organizationService;
+    ReplicationLeader leader;
+    ReplicationFollower follower;
+
+    User owner;
+    User admin;
+
+    @Before
+    public void init() throws Exception {
+        organizationService = new OrganizationService(new DocumentService(), new OrganizationRegistry());
+        leader = new ReplicationLeader(0, 16, 4);
+        organizationService.addChangeListener(leader);
+        follower = new ReplicationFollower(LOOPBACK, leader.getPort());
+
+        owner = user("owner").withRole(UserRole.REGULAR).build();
+        admin = user("admin").withRole(UserRole.ADMIN).build();
+    }
+
+    @After
+    public void close() throws Exception {
+        follower.close();
+        leader.close();
+    }
+
+    @Test
+    public void followerAppliesChangesInOrder() throws Exception {
+        Organization organization = prepareActiveOrganizationWithDocument();
+
+        assertThat(follower.awaitSequence(leader.getLastSequence(), TIMEOUT_MILLIS)).isTrue();
+
+        assertThat(follower.isActive("replicated")).isTrue();
+        assertThat(follower.getMembers("replicated")).hasSize(organization.getMembers().size());
+        assertThat(follower.getDocuments("replicated")).hasSize(2);
+        assertThat(follower.getDocuments("replicated").get(0).getStatus()).isEqualTo(DocumentStatus.UNCONFIRMED);
+        assertThat(follower.getFailure()).isNull();
+    }
+
+    @Test
+    public void lateFollowerCatchesUpFromTheBeginning() throws Exception {
+        prepareActiveOrganizationWithDocument();
+
+        ReplicationFollower lateFollower = new ReplicationFollower(LOOPBACK, leader.getPort());
+        try {
+            assertThat(lateFollower.awaitSequence(leader.getLastSequence(), TIMEOUT_MILLIS)).isTrue();
+            assertThat(lateFollower.getDocuments("replicated")).hasSize(2);
+        } finally {
+            lateFollower.close();
+        }
+    }
+
+    @Test
+    public void leaderWaitsForAcknowledgmentsBeyondWindow() throws Exception {
+        Organization organization = organizationService.createNewOrganisation("many members", owner);
+        for (int i = 0; i < 500; i++) {
+            organizationService.addMember(organization, owner, user("member " + i).withRole(UserRole.REGULAR).build());
+        }
+
+        assertThat(leader.awaitAcknowledged(leader.getLastSequence(), TIMEOUT_MILLIS)).isTrue();
+        assertThat(follower.getMembers("many members")).hasSize(500);
+    }
+
+    @Test
+    public void acknowledgmentsAreNotAwaitedWithoutFollowers() throws Exception {
+        follower.close();
+        organizationService.createNewOrganisation("unreplicated", owner);
+
+        assertThat(leader.awaitAcknowledged(leader.getLastSequence(), 200)).isFalse();
+    }
+
+    @Test
+    public void silentClientDoesNotBlockFollowers() throws Exception {
+        Socket silent = new Socket(LOOPBACK, leader.getPort());
+        try {
+            ReplicationFollower otherFollower = new ReplicationFollower(LOOPBACK, leader.getPort());
+            try {
+                prepareActiveOrganizationWithDocument();
+                assertThat(otherFollower.awaitSequence(leader.getLastSequence(), TIMEOUT_MILLIS)).isTrue();
+            } finally {
+                otherFollower.close();
+            }
+        } finally {
+            silent.close();
+        }
+    }
+
+    @Test
+    public void reconnectedFollowerResumesAfterTheLastAppliedChange() throws Exception {
+        ReplicationLeader retainingLeader = new ReplicationLeader(InetAddress.getLoopbackAddress(), 0, 16, 4, 10);
+        organizationService.addChangeListener(retainingLeader);
+        ReplicationFollower retainingFollower = new ReplicationFollower(LOOPBACK, retainingLeader.getPort());
+        try {
+            Organization organization = organizationService.createNewOrganisation("resumed", owner);
+            for (int i = 0; i < 40; i++) {
+                organizationService.addMember(organization, owner, user("member " + i).withRole(UserRole.REGULAR).build());
+                assertThat(retainingLeader.awaitAcknowledged(retainingLeader.getLastSequence(), TIMEOUT_MILLIS)).isTrue();
+            }
+            retainingFollower.close();
+            for (int i = 40; i < 43; i++) {
+                organizationService.addMember(organization, owner, user("member " + i).withRole(UserRole.REGULAR).build());
+            }
+
+            retainingFollower.reconnect();
+
+            assertThat(retainingLeader.getFirstRetainedSequence()).isGreaterThan(1);
+            assertThat(retainingFollower.awaitSequence(retainingLeader.getLastSequence(), TIMEOUT_MILLIS)).isTrue();
+            assertThat(retainingFollower.getMembers("resumed")).hasSize(43);
+            assertThat(retainingFollower.getFailure()).isNull();
+        } finally {
+            organizationService.removeChangeListener(retainingLeader);
+            retainingFollower.close();
+            retainingLeader.close();
+        }
+    }
+
+    @Test
+    public void acknowledgedRecordsAreDiscardedBeyondRetention() throws Exception {
+        ReplicationLeader retainingLeader = new ReplicationLeader(0, 16, 4, 10);
+        organizationService.addChangeListener(retainingLeader);
+        ReplicationFollower retainingFollower = new ReplicationFollower(LOOPBACK, retainingLeader.getPort());
+        try {
+            Organization organization = organizationService.createNewOrganisation("retained", owner);
+            for (int i = 0; i < 40; i++) {
+                organizationService.addMember(organization, owner, user("member " + i).withRole(UserRole.REGULAR).build());
+                assertThat(retainingLeader.awaitAcknowledged(retainingLeader.getLastSequence(), TIMEOUT_MILLIS)).isTrue();
+            }
+            assertThat(retainingLeader.getFirstRetainedSequence()).isGreaterThan(1);
+            assertThat(retainingFollower.getMembers("retained")).hasSize(40);
+
+            ReplicationFollower lateFollower = new ReplicationFollower(LOOPBACK, retainingLeader.getPort());
+            try {
+                assertThat(lateFollower.awaitSequence(1, 500)).isFalse();
+            } finally {
+                lateFollower.close();
+            }
+        } finally {
+            organizationService.removeChangeListener(retainingLeader);
+            retainingFollower.close();
+            retainingLeader.close();
+        }
+    }
+
+    @Test
+    public void unknownOrganizationIsEmptyOnFollower() {
+        assertThat(follower.isActive("unknown")).isFalse();
+        assertThat(follower.getMembers("unknown")).isEmpty();
+        assertThat(follower.getDocuments("unknown")).isEmpty();
+    }
+
+    private Organization prepareActiveOrganizationWithDocument() throws UnauthorizedAccessException,
+            UnauthorizedDocumentCreationException {
+        User representative = user("representative").withRole(UserRole.REPRESENTATIVE).build();
+        User regular = user("regular").withRole(UserRole.REGULAR).build();
+
+        Organization organization = organizationService.createNewOrganisation("replicated", owner);
+        organizationService.requestForActivation(organization, owner);
+        organizationService.addMember(organization, owner, representative);
+        organizationService.addMember(organization, owner, regular);
+        organizationService.activateOrganisation(organization, admin);
+        organizationService.setNumOfRequiredAcknowledgments(organization, 1, owner);
+        organizationService.promoteMemberBy(organization, regular, representative);
+        organizationService.addNewDocumentByUser(organization, representative);
+        organizationService.addNewDocumentByUser(organization, regular);
+
+        return organization;
+    }
+
+    @Test
+    public void followerKeepsTheLeadersVersionsThroughCascades() throws Exception {
+        Organization organization = prepareActiveOrganizationWithDocument();
+        User representative = null;
+        for (User member : organization.getMembers()) {
+            if (member.getName().equals("representative")) {
+                representative = member;
+            }
+        }
+        organizationService.cancelMemberRepresentativeRole(organization, representative, owner, true);
+
+        assertThat(follower.awaitSequence(leader.getLastSequence(), TIMEOUT_MILLIS)).isTrue();
+
+        assertThat(follower.getVersion("replicated")).isEqualTo(organization.getVersion());
+        assertThat(follower.getFailure()).isNull();
+    }
+
+    @Test
+    public void followerReplaysConfirmationsAndDefaultThresholds() throws Exception {
+        Organization organization = prepareActiveOrganizationWithDocument();
+        User representative = user("representative").withRole(UserRole.REPRESENTATIVE).build();
+        organizationService.setDefaultNumOfRequiredDocumentConfirmations(1, admin);
+        for (User member : organization.getMembers()) {
+            if (member.getName().equals(representative.getName())) {
+                organizationService.confirmDocumentBy(organization, organization.getDocuments().get(1), member);
+            }
+        }
+
+        assertThat(follower.awaitSequence(leader.getLastSequence(), TIMEOUT_MILLIS)).isTrue();
+
+        assertThat(organization.getDocuments().get(1).getStatus()).isEqualTo(DocumentStatus.CONFIRMED);
+        assertThat(follower.getDocuments("replicated").get(0).getStatus()).isEqualTo(DocumentStatus.UNCONFIRMED);
+        assertThat(follower.getDocuments("replicated").get(1).getStatus()).isEqualTo(DocumentStatus.CONFIRMED);
+        assertThat(follower.getFailure()).isNull();
+    }
+}
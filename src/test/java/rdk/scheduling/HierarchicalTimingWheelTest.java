@@ -0,0 +1,66 @@
+package rdk.scheduling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import rdk.scheduling.HierarchicalTimingWheel.Timeout;
+
+
+public class HierarchicalTimingWheelTest {
+
+    List<Long> expired = new ArrayList<Long>();
+
+    List<Long> lateness = new ArrayList<Long>();
+
+    HierarchicalTimingWheel<Long> wheel = new HierarchicalTimingWheel<Long>(10, 8, 3, 0, new HierarchicalTimingWheel.ExpiryHandler<Long>() {
+        @Override
+        public void expired(Long deadline) {
+            expired.add(deadline);
+            lateness.add(wheel.getCurrentTime() - deadline);
+        }
+    });
+
+    @Test
+    public void expiresTimeoutsOfEveryLevelWithinOneTickAfterTheirDeadline() {
+        long[] deadlines = { 5, 10, 79, 80, 81, 639, 640, 5119, 5120, 20000 };
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+
+        for (long now = 0; now <= 20010; now += 10) {
+            wheel.advanceTo(now);
+        }
+
+        assertThat(expired).containsOnly(5L, 10L, 79L, 80L, 81L, 639L, 640L, 5119L, 5120L, 20000L);
+        for (long late : lateness) {
+            assertThat(late).isBetween(0L, 9L);
+        }
+        assertThat(wheel.size()).isZero();
+    }
+
+    @Test
+    public void doesNotExpireCancelledTimeouts() {
+        Timeout<Long> cancelled = wheel.schedule(700, 700L);
+        wheel.schedule(701, 701L);
+
+        assertThat(cancelled.cancel()).isTrue();
+        assertThat(cancelled.cancel()).isFalse();
+        wheel.advanceTo(1000);
+
+        assertThat(expired).containsExactly(701L);
+    }
+
+    @Test
+    public void expiresOverdueTimeoutsOnNextAdvance() {
+        wheel.advanceTo(100);
+        wheel.schedule(50, 50L);
+
+        wheel.advanceTo(100);
+
+        assertThat(expired).containsExactly(50L);
+    }
+}
@@ -0,0 +1,110 @@
+package rdk.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rdk.model.User.UserBuilder.user;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import rdk.event.ChangeType;
+import rdk.event.OrganizationChange;
+import rdk.event.OrganizationChangeListener;
+import rdk.model.Document;
+import rdk.model.DocumentStatus;
+import rdk.model.Organization;
+import rdk.model.User;
+import rdk.model.UserRole;
+
+
+public class DocumentExpiryTest {
+
+    private static final long TIME_TO_LIVE = 60000;
+
+    final AtomicLong now = new AtomicLong(1000);
+
+    OrganizationService organizationService = new OrganizationService(new DocumentService(), new OrganizationRegistry());
+
+    DocumentExpiry documentExpiry = new DocumentExpiry(organizationService, TIME_TO_LIVE, 100, 64, 3, new LongSupplier() {
+        @Override
+        public long getAsLong() {
+            return now.get();
+        }
+    });
+
+    User owner = user("owner").withRole(UserRole.REGULAR).build();
+
+    User representative = user("representative").withRole(UserRole.REPRESENTATIVE).build();
+
+    Organization organization;
+
+    @Before
+    public void createActiveOrganization() throws Exception {
+        organization = organizationService.createNewOrganisation("expiring", owner);
+        organizationService.addMember(organization, owner, representative);
+        organizationService.activateOrganisation(organization, user("admin").withRole(UserRole.ADMIN).build());
+        organizationService.setNumOfRequiredDocumentConfirmations(organization, 1, owner);
+    }
+
+    @Test
+    public void expiresDocumentsThatStayUnconfirmed() throws Exception {
+        organizationService.addNewDocumentByUser(organization, representative);
+        Document document = organization.getDocuments().get(0);
+
+        now.addAndGet(TIME_TO_LIVE - 100);
+        documentExpiry.expireDue();
+        assertThat(document.getStatus()).isEqualTo(DocumentStatus.UNCONFIRMED);
+
+        now.addAndGet(200);
+        documentExpiry.expireDue();
+        assertThat(document.getStatus()).isEqualTo(DocumentStatus.EXPIRED);
+        assertThat(organization.getStatistics().getNumOfDocuments(DocumentStatus.EXPIRED)).isEqualTo(1);
+        assertThat(organization.getStatistics().getNumOfDocuments(DocumentStatus.UNCONFIRMED)).isZero();
+        assertThat(documentExpiry.getNumOfPendingDocuments()).isZero();
+    }
+
+    @Test
+    public void cancelsExpiryOfConfirmedDocuments() throws Exception {
+        organizationService.addNewDocumentByUser(organization, representative);
+        Document document = organization.getDocuments().get(0);
+
+        organizationService.confirmDocumentBy(organization, document, representative);
+        assertThat(documentExpiry.getNumOfPendingDocuments()).isZero();
+
+        now.addAndGet(2 * TIME_TO_LIVE);
+        documentExpiry.expireDue();
+        assertThat(document.getStatus()).isEqualTo(DocumentStatus.CONFIRMED);
+    }
+
+    @Test
+    public void expiresDocumentsInTheOrganizationsMailbox() throws Exception {
+        OrganizationExecutor executor = new OrganizationExecutor(organizationService, 2);
+        try {
+            final AtomicReference<String> expiringThread = new AtomicReference<String>();
+            final CountDownLatch expired = new CountDownLatch(1);
+            organizationService.addChangeListener(new OrganizationChangeListener() {
+                @Override
+                public void onChange(OrganizationChange change) {
+                    if (change.getType() == ChangeType.DOCUMENT_EXPIRED) {
+                        expiringThread.set(Thread.currentThread().getName());
+                        expired.countDown();
+                    }
+                }
+            });
+            organizationService.addNewDocumentByUser(organization, representative);
+
+            now.addAndGet(TIME_TO_LIVE + 100);
+            documentExpiry.expireDue();
+
+            assertThat(expired.await(5, TimeUnit.SECONDS)).isTrue();
+            assertThat(expiringThread.get()).startsWith("organization-worker-");
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
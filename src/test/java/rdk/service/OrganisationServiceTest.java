@@ -1,12 +1,16 @@
 package rdk.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
 import static org.mockito.Mockito.when;
 import static rdk.builders.OrganizationBuilder.organization;
 import static rdk.assertions.OrganisationAssert.assertThat;
 import static rdk.assertions.UserAssert.assertThat;
 import static rdk.model.User.UserBuilder.user;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -14,12 +18,20 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 
+import rdk.event.ChangeType;
+import rdk.event.OrganizationChange;
+import rdk.event.OrganizationChangeListener;
 import rdk.exception.UnauthorizedAccessException;
 import rdk.exception.UnauthorizedDocumentCreationException;
 import rdk.model.Document;
+import rdk.model.DocumentStatus;
 import rdk.model.Organization;
+import rdk.model.OrganizationStatistics;
+import rdk.model.PromotionGraph;
+import rdk.model.ReevaluationReport;
 import rdk.model.User;
 import rdk.model.UserRole;
+import rdk.ratelimit.DocumentRateLimiter;
 
 @RunWith(MockitoJUnitRunner.class)
 public class OrganisationServiceTest {
@@ -165,10 +177,410 @@ public class OrganisationServiceTest {
         User newMember = user("new user").withRole(UserRole.REPRESENTATIVE).build();
         Organization organisation = organization("name").ownedBy(someUser).withMembers(newMember).active().build();
         
-        when(documentService.createDocumentByUser(newMember)).thenReturn(new Document(newMember));
+        when(documentService.createDocumentByUser(organisation, newMember)).thenReturn(new Document(newMember));
         
         organisationService.addNewDocumentByUser(organisation, newMember);
         
         assertThat(organisation).hasNumOfDocuments(1);
     }
+    
+    @Test
+    public void countsMembersByRole() throws UnauthorizedAccessException {
+        User representative = user("representative").withRole(UserRole.REPRESENTATIVE).build();
+        Organization organisation = organization("name").ownedBy(someUser).withMembers(representative).build();
+        
+        organisationService.addMember(organisation, someUser, user("regular").withRole(UserRole.REGULAR).build());
+        organisationService.addMember(organisation, someUser, representative);
+        
+        OrganizationStatistics statistics = organisationService.getStatistics(organisation);
+        assertThat(statistics.getNumOfMembers()).isEqualTo(2);
+        assertThat(statistics.getNumOfMembers(UserRole.REPRESENTATIVE)).isEqualTo(1);
+        assertThat(statistics.getNumOfMembers(UserRole.REGULAR)).isEqualTo(1);
+        assertThat(statistics.getNumOfMembers(UserRole.OWNER)).isEqualTo(0);
+    }
+    
+    @Test
+    public void countsPendingPromotionsUntilMemberBecomesRepresentative() throws UnauthorizedAccessException {
+        User firstPromotor = user("first representative").withRole(UserRole.REPRESENTATIVE).build();
+        User secondPromotor = user("second representative").withRole(UserRole.REPRESENTATIVE).build();
+        User newMember = user("new user").withRole(UserRole.REGULAR).build();
+        Organization organisation = organization("name").ownedBy(someUser).withMembers(firstPromotor, secondPromotor, newMember).active().build();
+        organisationService.setNumOfRequiredAcknowledgments(organisation, 2, someUser);
+        
+        organisationService.promoteMemberBy(organisation, newMember, firstPromotor);
+        
+        assertThat(organisationService.getStatistics(organisation).getNumOfPendingPromotions()).isEqualTo(1);
+        
+        organisationService.promoteMemberBy(organisation, newMember, secondPromotor);
+        
+        OrganizationStatistics statistics = organisationService.getStatistics(organisation);
+        assertThat(statistics.getNumOfPendingPromotions()).isEqualTo(0);
+        assertThat(statistics.getNumOfMembers(UserRole.REPRESENTATIVE)).isEqualTo(3);
+        assertThat(statistics.getNumOfMembers(UserRole.REGULAR)).isEqualTo(0);
+    }
+    
+    @Test
+    public void countsDemotedRepresentativeAsRegularMember() throws UnauthorizedAccessException {
+        User representative = user("representative").withRole(UserRole.REPRESENTATIVE).build();
+        Organization organisation = organization("name").ownedBy(someUser).withMembers(representative).active().build();
+        
+        organisationService.cancelMemberRepresentativeRole(organisation, representative, someUser);
+        
+        OrganizationStatistics statistics = organisationService.getStatistics(organisation);
+        assertThat(statistics.getNumOfMembers(UserRole.REPRESENTATIVE)).isEqualTo(0);
+        assertThat(statistics.getNumOfMembers(UserRole.REGULAR)).isEqualTo(1);
+    }
+
+    @Test
+    public void countersStayConsistentWhenSharedMemberIsDemotedElsewhere() throws UnauthorizedAccessException {
+        User representative = user("representative").withRole(UserRole.REPRESENTATIVE).build();
+        User otherOwner = user("other owner").withRole(UserRole.REGULAR).build();
+        Organization organisation = organization("name").ownedBy(someUser).withMembers(representative).active().build();
+        Organization other = organization("other").ownedBy(otherOwner).withMembers(representative).active().build();
+
+        organisationService.cancelMemberRepresentativeRole(other, representative, otherOwner);
+        organisationService.cancelMemberRepresentativeRole(organisation, representative, someUser);
+
+        OrganizationStatistics statistics = organisationService.getStatistics(organisation);
+        assertThat(statistics.getNumOfMembers(UserRole.REPRESENTATIVE)).isEqualTo(0);
+        assertThat(statistics.getNumOfMembers(UserRole.REGULAR)).isEqualTo(1);
+    }
+    
+    @Test
+    public void countsDocumentsByStatus() throws UnauthorizedDocumentCreationException {
+        User newMember = user("new user").withRole(UserRole.REPRESENTATIVE).build();
+        Organization organisation = organization("name").ownedBy(someUser).withMembers(newMember).active().build();
+        when(documentService.createDocumentByUser(organisation, newMember)).thenReturn(new Document(newMember));
+        
+        organisationService.addNewDocumentByUser(organisation, newMember);
+        organisationService.addNewDocumentByUser(organisation, newMember);
+        
+        OrganizationStatistics statistics = organisationService.getStatistics(organisation);
+        assertThat(statistics.getNumOfDocuments()).isEqualTo(2);
+        assertThat(statistics.getNumOfDocuments(DocumentStatus.UNCONFIRMED)).isEqualTo(2);
+        assertThat(statistics.getNumOfDocuments(DocumentStatus.CONFIRMED)).isEqualTo(0);
+    }
+    
+    @Test
+    public void rejectsDocumentWithoutExceptionWhenRateIsExceeded() throws UnauthorizedDocumentCreationException {
+        User newMember = user("new user").withRole(UserRole.REPRESENTATIVE).build();
+        Organization organisation = organization("name").ownedBy(someUser).withMembers(newMember).active().build();
+        when(documentService.createDocumentByUser(organisation, newMember)).thenReturn(new Document(newMember));
+        organisationService.setDocumentRateLimiter(new DocumentRateLimiter(1, 1, 1, 1, 10));
+        
+        assertThat(organisationService.addNewDocumentByUser(organisation, newMember)).isTrue();
+        assertThat(organisationService.addNewDocumentByUser(organisation, newMember)).isFalse();
+        
+        assertThat(organisation).hasNumOfDocuments(1);
+    }
+
+    @Test
+    public void retriedDocumentCreationReturnsDocumentCreatedForTheSameKey() throws UnauthorizedDocumentCreationException {
+        User newMember = user("new user").withRole(UserRole.REPRESENTATIVE).build();
+        Organization organisation = organization("name").ownedBy(someUser).withMembers(newMember).active().build();
+        when(documentService.createDocumentByUser(organisation, newMember)).thenReturn(new Document(newMember), new Document(newMember));
+
+        Document created = organisationService.addNewDocumentByUser(organisation, newMember, "request-1");
+
+        assertThat(organisationService.addNewDocumentByUser(organisation, newMember, "request-1")).isSameAs(created);
+        assertThat(organisation).hasNumOfDocuments(1);
+        assertThat(organisationService.addNewDocumentByUser(organisation, newMember, "request-2")).isNotSameAs(created);
+        assertThat(organisation).hasNumOfDocuments(2);
+    }
+
+    @Test
+    public void documentIsConfirmedWhenItGetsEnoughConfirmations() throws Exception {
+        User creator = user("creator").withRole(UserRole.REPRESENTATIVE).build();
+        User confirming = user("confirming").withRole(UserRole.REPRESENTATIVE).build();
+        Organization organisation = organization("name").ownedBy(someUser).withMembers(creator, confirming).active().build();
+        Document document = new Document(creator);
+        organisation.addDocumentByUser(document, creator);
+        organisationService.setNumOfRequiredDocumentConfirmations(organisation, 2, someUser);
+        
+        organisationService.confirmDocumentBy(organisation, document, creator);
+        
+        assertThat(document.getStatus()).isEqualTo(DocumentStatus.UNCONFIRMED);
+        
+        organisationService.confirmDocumentBy(organisation, document, confirming);
+        
+        assertThat(document.getStatus()).isEqualTo(DocumentStatus.CONFIRMED);
+        assertThat(organisationService.getStatistics(organisation).getNumOfDocuments(DocumentStatus.CONFIRMED)).isEqualTo(1);
+    }
+    
+    @Test
+    public void indexesPendingDocumentsByStatus() throws Exception {
+        User creator = user("creator").withRole(UserRole.REPRESENTATIVE).build();
+        Organization organisation = organization("name").ownedBy(someUser).withMembers(creator).active().build();
+        Document[] documents = new Document[5];
+        for (int i = 0; i < documents.length; i++) {
+            documents[i] = new Document(creator);
+            organisation.addDocumentByUser(documents[i], creator);
+        }
+        organisationService.setNumOfRequiredDocumentConfirmations(organisation, 1, someUser);
+        
+        organisationService.confirmDocumentBy(organisation, documents[0], creator);
+        organisationService.confirmDocumentBy(organisation, documents[3], creator);
+        organisationService.expireDocument(organisation, documents[1]);
+        
+        assertThat(organisationService.getPendingDocuments(organisation)).containsOnly(documents[2], documents[4]);
+        assertThat(organisation.getDocuments(DocumentStatus.CONFIRMED)).containsOnly(documents[0], documents[3]);
+        assertThat(organisation.getDocuments(DocumentStatus.EXPIRED)).containsOnly(documents[1]);
+        assertThat(organisation.getNumOfDocuments(DocumentStatus.UNCONFIRMED)).isEqualTo(2);
+    }
+    
+    @Test
+    public void pendingDocumentsAreNotChangedByLaterConfirmations() throws Exception {
+        User creator = user("creator").withRole(UserRole.REPRESENTATIVE).build();
+        Organization organisation = organization("name").ownedBy(someUser).withMembers(creator).active().build();
+        Document first = new Document(creator);
+        Document second = new Document(creator);
+        organisation.addDocumentByUser(first, creator);
+        organisation.addDocumentByUser(second, creator);
+        organisationService.setNumOfRequiredDocumentConfirmations(organisation, 1, someUser);
+        
+        List<Document> pending = organisationService.getPendingDocuments(organisation);
+        organisationService.confirmDocumentBy(organisation, first, creator);
+        
+        assertThat(pending).containsOnly(first, second);
+        assertThat(organisationService.getPendingDocuments(organisation)).containsOnly(second);
+    }
+    
+    @Test(expected=UnauthorizedAccessException.class)
+    public void regularUserCannotConfirmDocument() throws Exception {
+        User creator = user("creator").withRole(UserRole.REPRESENTATIVE).build();
+        User regularUser = user("regular").withRole(UserRole.REGULAR).build();
+        Organization organisation = organization("name").ownedBy(someUser).withMembers(creator, regularUser).active().build();
+        Document document = new Document(creator);
+        organisation.addDocumentByUser(document, creator);
+        
+        organisationService.confirmDocumentBy(organisation, document, regularUser);
+    }
+    
+    @Test
+    public void loweringAcknowledgmentsPromotesMembersWhoAlreadyHaveEnough() throws UnauthorizedAccessException {
+        User promotor = user("representative user").withRole(UserRole.REPRESENTATIVE).build();
+        User newMember = user("new user").withRole(UserRole.REGULAR).build();
+        Organization organisation = organization("name").ownedBy(someUser).withMembers(promotor, newMember).active().build();
+        organisationService.promoteMemberBy(organisation, newMember, promotor);
+        
+        assertThat(newMember).hasRole(UserRole.REGULAR);
+        
+        ReevaluationReport report = organisationService.setNumOfRequiredAcknowledgments(organisation, 1, someUser);
+        
+        assertThat(newMember).hasRole(UserRole.REPRESENTATIVE);
+        assertThat(report.getNumOfMembersScanned()).isEqualTo(2);
+        assertThat(report.getNumOfPromotedMembers()).isEqualTo(1);
+        assertThat(organisationService.getStatistics(organisation).getNumOfPendingPromotions()).isEqualTo(0);
+        assertThat(organisationService.getStatistics(organisation).getNumOfMembers(UserRole.REPRESENTATIVE)).isEqualTo(2);
+    }
+    
+    @Test
+    public void loweringDocumentConfirmationsConfirmsDocumentsWhichAlreadyHaveEnough() throws Exception {
+        User creator = user("creator").withRole(UserRole.REPRESENTATIVE).build();
+        Organization organisation = organization("name").ownedBy(someUser).withMembers(creator).active().build();
+        Document document = new Document(creator);
+        organisation.addDocumentByUser(document, creator);
+        organisationService.confirmDocumentBy(organisation, document, creator);
+        
+        ReevaluationReport report = organisationService.setNumOfRequiredDocumentConfirmations(organisation, 1, someUser);
+        
+        assertThat(document.getStatus()).isEqualTo(DocumentStatus.CONFIRMED);
+        assertThat(report.getNumOfConfirmedDocuments()).isEqualTo(1);
+        assertThat(organisationService.getPendingDocuments(organisation)).isEmpty();
+    }
+    
+    @Test
+    public void defaultAcknowledgmentsApplyOnlyToOrganisationsWithoutTheirOwn() throws UnauthorizedAccessException {
+        User admin = user("admin").withRole(UserRole.ADMIN).build();
+        User otherOwner = user("other owner").withRole(UserRole.REGULAR).build();
+        Organization usingDefault = organisationService.createNewOrganisation("using default", someUser);
+        Organization customized = organisationService.createNewOrganisation("customized", otherOwner);
+        organisationService.setNumOfRequiredAcknowledgments(customized, 5, otherOwner);
+        
+        organisationService.setDefaultNumOfRequiredAcknowledgments(1, admin);
+        
+        assertThat(usingDefault.getNumOfRequiredAcknowledgments()).isEqualTo(1);
+        assertThat(customized.getNumOfRequiredAcknowledgments()).isEqualTo(5);
+        assertThat(organisationService.createNewOrganisation("created later", user("late").withRole(UserRole.REGULAR).build())
+                .getNumOfRequiredAcknowledgments()).isEqualTo(1);
+    }
+    
+    @Test(expected=UnauthorizedAccessException.class)
+    public void onlyAdminChangesDefaultAcknowledgments() throws UnauthorizedAccessException {
+        organisationService.setDefaultNumOfRequiredAcknowledgments(1, someUser);
+    }
+    
+    @Test(expected=UnauthorizedAccessException.class)
+    public void onlyOwnerChangesDocumentConfirmations() throws UnauthorizedAccessException {
+        Organization organisation = organisationService.createNewOrganisation("name", someUser);
+
+        organisationService.setNumOfRequiredDocumentConfirmations(organisation, 1, user("not owner").withRole(UserRole.REGULAR).build());
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void requiresAtLeastOneAcknowledgment() throws UnauthorizedAccessException {
+        Organization organisation = organisationService.createNewOrganisation("name", someUser);
+
+        organisationService.setNumOfRequiredAcknowledgments(organisation, 0, someUser);
+    }
+
+    @Test
+    public void rejectsDefaultOfNoAcknowledgmentsBeforeApplyingIt() throws UnauthorizedAccessException {
+        User admin = user("admin").withRole(UserRole.ADMIN).build();
+        Organization organisation = organisationService.createNewOrganisation("name", someUser);
+
+        try {
+            organisationService.setDefaultNumOfRequiredAcknowledgments(0, admin);
+            fail("A default of no acknowledgments was accepted");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+
+        assertThat(organisation.getNumOfRequiredAcknowledgments()).isEqualTo(Organization.DEFAULT_NUM_OF_ACKNOWLEDGMENTS);
+    }
+
+    @Test(expected=IllegalArgumentException.class)
+    public void requiresAtLeastOneDocumentConfirmation() throws UnauthorizedAccessException {
+        Organization organisation = organisationService.createNewOrganisation("name", someUser);
+
+        organisationService.setNumOfRequiredDocumentConfirmations(organisation, 0, someUser);
+    }
+
+    @Test
+    public void publishesMembersAndDocumentsChangedByDefaults() throws Exception {
+        User admin = user("admin").withRole(UserRole.ADMIN).build();
+        User promotor = user("representative user").withRole(UserRole.REPRESENTATIVE).build();
+        User newMember = user("new user").withRole(UserRole.REGULAR).build();
+        Organization organisation = organisationService.createNewOrganisation("name", someUser);
+        organisationService.addMember(organisation, someUser, promotor);
+        organisationService.addMember(organisation, someUser, newMember);
+        organisationService.activateOrganisation(organisation, admin);
+        organisationService.promoteMemberBy(organisation, newMember, promotor);
+        Document document = new Document(promotor);
+        when(documentService.createDocumentByUser(organisation, promotor)).thenReturn(document);
+        organisationService.addNewDocumentByUser(organisation, promotor);
+        organisationService.confirmDocumentBy(organisation, document, promotor);
+        final List<OrganizationChange> changes = new ArrayList<OrganizationChange>();
+        organisationService.addChangeListener(new OrganizationChangeListener() {
+            @Override
+            public void onChange(OrganizationChange change) {
+                changes.add(change);
+            }
+        });
+
+        organisationService.setDefaultNumOfRequiredAcknowledgments(1, admin);
+        organisationService.setDefaultNumOfRequiredDocumentConfirmations(1, admin);
+
+        assertThat(changes).extracting("type").containsExactly(ChangeType.DEFAULT_ACKNOWLEDGMENTS_CHANGED, ChangeType.ACKNOWLEDGMENTS_CHANGED,
+                ChangeType.MEMBER_ROLE_CHANGED, ChangeType.DEFAULT_DOCUMENT_CONFIRMATIONS_CHANGED, ChangeType.DOCUMENT_CONFIRMATIONS_CHANGED,
+                ChangeType.DOCUMENT_STATUS_CHANGED);
+        assertThat(changes.get(2).getSubject()).isSameAs(newMember);
+        assertThat(changes.get(5).getDocument()).isSameAs(document);
+        assertThat(changes.get(5).getVersion()).isEqualTo(organisation.getVersion());
+    }
+
+    @Test
+    public void deduplicatesOrganisationAndUserNames() {
+        User owner = user(new String("duplicated name")).withRole(UserRole.REGULAR).build();
+        User otherOwner = user(new String("duplicated name")).withRole(UserRole.REGULAR).build();
+        
+        Organization organisation = organisationService.createNewOrganisation(new String("duplicated name"), owner);
+        
+        assertThat(owner.getName()).isSameAs(otherOwner.getName());
+        assertThat(organisation.getName()).isSameAs(owner.getName());
+    }
+    
+    @Test
+    public void incrementsVersionOnlyOnAppliedChanges() throws UnauthorizedAccessException {
+        Organization organisation = organisationService.createNewOrganisation("versioned", someUser);
+        long created = organisation.getVersion();
+        
+        organisationService.addMember(organisation, someUser, user("member").withRole(UserRole.REGULAR).build());
+        try {
+            organisationService.addMember(organisation, user("not owner").withRole(UserRole.REGULAR).build(), someUser);
+        } catch (UnauthorizedAccessException e) {
+            // rejected changes keep the version
+        }
+        
+        assertThat(created).isEqualTo(1);
+        assertThat(organisation.getVersion()).isEqualTo(2);
+    }
+    
+    @Test
+    public void findsTransitiveEndorsementsAndRings() throws UnauthorizedAccessException {
+        User first = user("first").withRole(UserRole.REPRESENTATIVE).build();
+        User second = user("second").withRole(UserRole.REPRESENTATIVE).build();
+        User third = user("third").withRole(UserRole.REPRESENTATIVE).build();
+        User endorsed = user("endorsed").withRole(UserRole.REGULAR).build();
+        User outsider = user("outsider").withRole(UserRole.REPRESENTATIVE).build();
+        Organization organisation = organization("name").ownedBy(someUser).withMembers(first, second, third, endorsed, outsider)
+                .active().build();
+        
+        organisationService.promoteMemberBy(organisation, second, first);
+        organisationService.promoteMemberBy(organisation, third, second);
+        organisationService.promoteMemberBy(organisation, first, third);
+        organisationService.promoteMemberBy(organisation, endorsed, third);
+        organisationService.promoteMemberBy(organisation, endorsed, outsider);
+        organisationService.promoteMemberBy(organisation, endorsed, outsider);
+        
+        PromotionGraph graph = organisationService.getPromotionGraph(organisation);
+        assertThat(graph.getNumOfPromotions()).isEqualTo(5);
+        assertThat(graph.transitivelyEndorsedBy(first)).containsOnly(first, second, third, endorsed);
+        assertThat(graph.transitivelyEndorsedBy(outsider)).containsOnly(endorsed);
+        assertThat(graph.endorsementRings()).hasSize(1);
+        assertThat(graph.endorsementRings().get(0)).containsOnly(first, second, third);
+    }
+    
+    @Test
+    public void recordsPromotionsAlreadyAcknowledgedInAnotherOrganization() throws UnauthorizedAccessException {
+        User promotor = user("promotor").withRole(UserRole.REPRESENTATIVE).build();
+        User newMember = user("new user").withRole(UserRole.REGULAR).build();
+        Organization first = organization("first").ownedBy(someUser).withMembers(promotor, newMember).active().build();
+        Organization second = organization("second").ownedBy(someUser).withMembers(promotor, newMember).active().build();
+
+        organisationService.promoteMemberBy(first, newMember, promotor);
+        organisationService.promoteMemberBy(second, newMember, promotor);
+
+        assertThat(organisationService.getPromotionGraph(second).getNumOfPromotions()).isEqualTo(1);
+        assertThat(organisationService.getPromotionGraph(second).transitivelyEndorsedBy(promotor)).containsOnly(newMember);
+    }
+    
+    @Test
+    public void demotionRevokesAcknowledgmentsGivenByTheDemotedRepresentative() throws UnauthorizedAccessException {
+        User promotor = user("promotor").withRole(UserRole.REPRESENTATIVE).build();
+        User newMember = user("new user").withRole(UserRole.REGULAR).build();
+        Organization organisation = organization("name").ownedBy(someUser).withMembers(promotor, newMember).active().build();
+        organisationService.promoteMemberBy(organisation, newMember, promotor);
+        
+        organisationService.cancelMemberRepresentativeRole(organisation, promotor, someUser);
+        
+        assertThat(newMember.getPromoters()).isEmpty();
+        assertThat(organisationService.getPromotionGraph(organisation).getNumOfPromotions()).isZero();
+        assertThat(organisationService.getStatistics(organisation).getNumOfPendingPromotions()).isZero();
+    }
+    
+    @Test
+    public void cascadingDemotionDemotesRepresentativesLeftWithoutEnoughAcknowledgments() throws UnauthorizedAccessException {
+        User first = user("first").withRole(UserRole.REPRESENTATIVE).build();
+        User other = user("other").withRole(UserRole.REPRESENTATIVE).build();
+        User second = user("second").withRole(UserRole.REGULAR).build();
+        User third = user("third").withRole(UserRole.REGULAR).build();
+        User fourth = user("fourth").withRole(UserRole.REGULAR).build();
+        Organization organisation = organization("name").ownedBy(someUser).withMembers(first, other, second, third, fourth)
+                .active().build();
+        organisationService.setNumOfRequiredAcknowledgments(organisation, 1, someUser);
+        organisationService.promoteMemberBy(organisation, second, first);
+        organisationService.promoteMemberBy(organisation, third, second);
+        organisationService.promoteMemberBy(organisation, fourth, second);
+        organisationService.promoteMemberBy(organisation, fourth, other);
+        
+        List<User> cascaded = organisationService.cancelMemberRepresentativeRole(organisation, first, someUser, true);
+        
+        assertThat(cascaded).containsExactly(second, third);
+        assertThat(second).hasRole(UserRole.REGULAR);
+        assertThat(third).hasRole(UserRole.REGULAR);
+        assertThat(fourth).hasRole(UserRole.REPRESENTATIVE);
+        assertThat(fourth.getPromoters()).containsOnly(other);
+        assertThat(organisationService.getStatistics(organisation).getNumOfMembers(UserRole.REPRESENTATIVE)).isEqualTo(2);
+    }
 }
@@ -0,0 +1,160 @@
+package rdk.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rdk.model.User.UserBuilder.user;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import rdk.event.ChangeType;
+import rdk.event.OrganizationChange;
+import rdk.event.OrganizationChangeListener;
+import rdk.exception.UnauthorizedAccessException;
+import rdk.model.Organization;
+import rdk.model.User;
+import rdk.model.UserRole;
+
+
+public class OrganizationExecutorTest {
+
+    private static final int NUM_OF_ORGANIZATIONS = 50;
+    private static final int NUM_OF_MEMBERS = 200;
+
+    OrganizationService organizationService = new OrganizationService(new DocumentService(), new OrganizationRegistry());
+
+    OrganizationExecutor executor = new OrganizationExecutor(organizationService, 4);
+
+    @After
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void appliesMutationsOfManyOrganizationsWithoutLosingAny() throws Exception {
+        List<Organization> organizations = new ArrayList<Organization>();
+        List<CompletableFuture<Void>> results = new ArrayList<CompletableFuture<Void>>();
+
+        for (int i = 0; i < NUM_OF_ORGANIZATIONS; i++) {
+            User owner = user("owner " + i).withRole(UserRole.REGULAR).build();
+            organizations.add(organizationService.createNewOrganisation("organization " + i, owner));
+        }
+        for (int m = 0; m < NUM_OF_MEMBERS; m++) {
+            for (Organization organization : organizations) {
+                User member = user("member " + m).withRole(UserRole.REGULAR).build();
+                results.add(executor.addMember(organization, organization.getOwner(), member));
+            }
+        }
+
+        CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[results.size()])).get(10, TimeUnit.SECONDS);
+
+        for (Organization organization : organizations) {
+            assertThat(organization.getMembers()).hasSize(NUM_OF_MEMBERS);
+        }
+    }
+
+    @Test
+    public void appliesMutationsOfOneOrganizationInSubmissionOrder() throws Exception {
+        User owner = user("owner").withRole(UserRole.REGULAR).build();
+        User admin = user("admin").withRole(UserRole.ADMIN).build();
+        User representative = user("representative").withRole(UserRole.REPRESENTATIVE).build();
+        Organization organization = organizationService.createNewOrganisation("ordered", owner);
+
+        executor.addMember(organization, owner, representative);
+        executor.activateOrganisation(organization, admin);
+        CompletableFuture<Boolean> document = executor.addNewDocumentByUser(organization, representative);
+
+        assertThat(document.get(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(organization.getDocuments()).hasSize(1);
+    }
+
+    @Test
+    public void completesExceptionallyWhenMutationIsRejected() throws Exception {
+        User owner = user("owner").withRole(UserRole.REGULAR).build();
+        User notOwner = user("not owner").withRole(UserRole.REGULAR).build();
+        Organization organization = organizationService.createNewOrganisation("rejecting", owner);
+
+        CompletableFuture<Void> result = executor.addMember(organization, notOwner, user("member").withRole(UserRole.REGULAR).build());
+
+        try {
+            result.get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(UnauthorizedAccessException.class);
+        }
+        assertThat(result.isCompletedExceptionally()).isTrue();
+        assertThat(organization.getMembers()).isEmpty();
+    }
+
+    @Test
+    public void dropsMailboxesOfOrganizationsWithoutPendingMutations() throws Exception {
+        User owner = user("owner").withRole(UserRole.REGULAR).build();
+        Organization organization = organizationService.createNewOrganisation("idle", owner);
+
+        for (int i = 0; i < 100; i++) {
+            executor.addMember(organization, owner, user("member " + i).withRole(UserRole.REGULAR).build());
+        }
+        executor.addMember(organization, owner, user("last").withRole(UserRole.REGULAR).build()).get(5, TimeUnit.SECONDS);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (executor.getNumOfMailboxes() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(1);
+        }
+        assertThat(executor.getNumOfMailboxes()).isZero();
+        assertThat(organization.getMembers()).hasSize(101);
+
+        executor.addMember(organization, owner, user("after idle").withRole(UserRole.REGULAR).build()).get(5, TimeUnit.SECONDS);
+        assertThat(organization.getMembers()).hasSize(102);
+    }
+
+    @Test
+    public void appliesDefaultsInTheMailboxesOfTheOrganizations() throws Exception {
+        User admin = user("admin").withRole(UserRole.ADMIN).build();
+        for (int i = 0; i < NUM_OF_ORGANIZATIONS; i++) {
+            organizationService.createNewOrganisation("organization " + i, user("owner " + i).withRole(UserRole.REGULAR).build());
+        }
+        final List<String> threads = new CopyOnWriteArrayList<String>();
+        organizationService.addChangeListener(new OrganizationChangeListener() {
+            @Override
+            public void onChange(OrganizationChange change) {
+                if (change.getType() == ChangeType.ACKNOWLEDGMENTS_CHANGED) {
+                    threads.add(Thread.currentThread().getName());
+                }
+            }
+        });
+
+        organizationService.setDefaultNumOfRequiredAcknowledgments(1, admin);
+
+        assertThat(threads).hasSize(NUM_OF_ORGANIZATIONS);
+        for (String thread : threads) {
+            assertThat(thread).startsWith("organization-worker-");
+        }
+    }
+
+    @Test
+    public void completesExceptionallyAfterShutdown() throws Exception {
+        User owner = user("owner").withRole(UserRole.REGULAR).build();
+        Organization organization = organizationService.createNewOrganisation("shut down", owner);
+        executor.shutdown();
+
+        CompletableFuture<Void> first = executor.addMember(organization, owner, user("first").withRole(UserRole.REGULAR).build());
+        CompletableFuture<Void> second = executor.addMember(organization, owner, user("second").withRole(UserRole.REGULAR).build());
+
+        assertThat(first.isCompletedExceptionally()).isTrue();
+        assertThat(second.isCompletedExceptionally()).isTrue();
+        try {
+            second.get();
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(RejectedExecutionException.class);
+        }
+        assertThat(organization.getMembers()).isEmpty();
+    }
+}
@@ -0,0 +1,140 @@
+package rdk.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static rdk.builders.OrganizationBuilder.organization;
+import static rdk.model.User.UserBuilder.user;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import rdk.exception.UnauthorizedDocumentCreationException;
+import rdk.model.Document;
+import rdk.model.Organization;
+import rdk.model.User;
+import rdk.model.UserRole;
+
+
+public class OrganizationExportServiceTest {
+
+    OrganizationRegistry registry = new OrganizationRegistry();
+
+    OrganizationService organizationService = new OrganizationService(new DocumentService(), registry);
+
+    OrganizationExportService exportService = new OrganizationExportService(registry, organizationService);
+
+    Organization organization;
+
+    User representative;
+
+    @Before
+    public void init() throws UnauthorizedDocumentCreationException {
+        User owner = user("owner").withRole(UserRole.OWNER).build();
+        representative = user("representative").withRole(UserRole.REPRESENTATIVE).build();
+        User regular = user("regular, with comma").withRole(UserRole.REGULAR).build();
+
+        organization = organization("exported").ownedBy(owner).withMembers(representative, regular).active().build();
+        organization.addDocumentByUser(new Document(representative), representative);
+    }
+
+    @Test
+    public void exportsOneJsonLinePerOrganizationMemberAndDocument() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ExportResult result = exportService.export(Arrays.asList(organization), ExportFormat.JSON_LINES, out);
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        assertThat(result.getNumOfRows()).isEqualTo(4);
+        assertThat(lines).hasSize(4);
+
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode header = mapper.readTree(lines[0]);
+        assertThat(header.get("type").asText()).isEqualTo("organization");
+        assertThat(header.get("owner").asText()).isEqualTo("owner");
+        assertThat(header.get("active").asBoolean()).isTrue();
+        JsonNode document = mapper.readTree(lines[3]);
+        assertThat(document.get("type").asText()).isEqualTo("document");
+        assertThat(document.get("status").asText()).isEqualTo("UNCONFIRMED");
+    }
+
+    @Test
+    public void exportsCsvWithQuotedValues() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        ExportResult result = exportService.export(Arrays.asList(organization), ExportFormat.CSV, out);
+
+        String csv = new String(out.toByteArray(), StandardCharsets.UTF_8);
+        assertThat(result.getNumOfRows()).isEqualTo(4);
+        assertThat(csv).startsWith("organization,type,name,role,active,status\n");
+        assertThat(csv).contains("exported,member,\"regular, with comma\",REGULAR,,\n");
+        assertThat(csv).contains("exported,document,representative,,,UNCONFIRMED\n");
+    }
+
+    @Test
+    public void quotesValuesWithCarriageReturns() throws IOException {
+        User owner = user("owner").withRole(UserRole.OWNER).build();
+        Organization carriageReturn = organization("line\rbreak").ownedBy(owner).build();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exportService.export(Arrays.asList(carriageReturn), ExportFormat.CSV, out);
+
+        assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8)).contains("\"line\rbreak\",organization,owner,OWNER,false,\n");
+    }
+
+    @Test
+    public void snapshotsOrganizationsInTheirMailboxes() throws Exception {
+        OrganizationExecutor executor = new OrganizationExecutor(organizationService, 2);
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            executor.addNewDocumentByUser(organization, representative);
+
+            ExportResult result = exportService.export(Arrays.asList(organization), ExportFormat.CSV, out);
+
+            assertThat(result.getNumOfRows()).isEqualTo(5);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void streamsLargeOrganizationWithoutBufferingIt() throws IOException {
+        User owner = user("owner").withRole(UserRole.OWNER).build();
+        Organization large = organization("large").ownedBy(owner).build();
+        for (int i = 0; i < 100000; i++) {
+            large.getMembers().add(user("member " + i).withRole(UserRole.REGULAR).build());
+        }
+        CountingOutputStream out = new CountingOutputStream();
+
+        ExportResult result = exportService.export(Arrays.asList(large), ExportFormat.JSON_LINES, out);
+
+        assertThat(result.getNumOfRows()).isEqualTo(100001);
+        assertThat(out.count).isGreaterThan(100000L * 50);
+        assertThat(out.largestWrite).isLessThanOrEqualTo(64 * 1024);
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+
+        long count;
+        int largestWrite;
+
+        @Override
+        public void write(int b) {
+            count++;
+            largestWrite = Math.max(largestWrite, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+            largestWrite = Math.max(largestWrite, len);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package rdk.stress;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * Wing and Gong's linearizability check with memoization of visited configurations. A
+ * history is linearizable when its calls can be ordered so that every call takes effect
+ * between its invocation and response and the sequential model returns the recorded
+ * result for each of them. Histories are limited to 64 calls.
+ */
+class LinearizabilityChecker<O> {
+
+    interface Model<O> {
+
+        Model<O> copy();
+
+        /**
+         * Applies the operation and returns its result in the form recorded by the history.
+         * Implementations must define equals and hashCode over their state.
+         */
+        String apply(O operation);
+    }
+
+    static class Call<O> {
+
+        final int thread;
+
+        final O operation;
+
+        final long invoked;
+
+        final long responded;
+
+        final String result;
+
+        Call(int thread, O operation, long invoked, long responded, String result) {
+            this.thread = thread;
+            this.operation = operation;
+            this.invoked = invoked;
+            this.responded = responded;
+            this.result = result;
+        }
+
+        @Override
+        public String toString() {
+            return "thread " + thread + " [" + invoked + ", " + responded + "] " + operation + " -> " + result;
+        }
+    }
+
+    private final List<Call<O>> history;
+
+    private final Set<Configuration<O>> visited = new HashSet<Configuration<O>>();
+
+    LinearizabilityChecker(List<Call<O>> history) {
+        if (history.size() > 64) {
+            throw new IllegalArgumentException("History of " + history.size() + " calls is longer than 64");
+        }
+        this.history = history;
+    }
+
+    boolean isLinearizable(Model<O> initial) {
+        visited.clear();
+        return search(0L, initial);
+    }
+
+    private boolean search(long linearized, Model<O> model) {
+        int remaining = history.size() - Long.bitCount(linearized);
+        if (remaining == 0) {
+            return true;
+        }
+        if (!visited.add(new Configuration<O>(linearized, model))) {
+            return false;
+        }
+        long earliestResponse = Long.MAX_VALUE;
+        for (int i = 0; i < history.size(); i++) {
+            if ((linearized & (1L << i)) == 0) {
+                earliestResponse = Math.min(earliestResponse, history.get(i).responded);
+            }
+        }
+        for (int i = 0; i < history.size(); i++) {
+            Call<O> call = history.get(i);
+            if ((linearized & (1L << i)) == 0 && call.invoked < earliestResponse) {
+                Model<O> next = model.copy();
+                if (next.apply(call.operation).equals(call.result) && search(linearized | (1L << i), next)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static class Configuration<O> {
+
+        private final long linearized;
+
+        private final Model<O> model;
+
+        Configuration(long linearized, Model<O> model) {
+            this.linearized = linearized;
+            this.model = model;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Configuration)) {
+                return false;
+            }
+            Configuration<?> configuration = (Configuration<?>) other;
+            return linearized == configuration.linearized && model.equals(configuration.model);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Long.hashCode(linearized) + model.hashCode();
+        }
+    }
+}
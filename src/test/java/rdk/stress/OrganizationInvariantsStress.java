@@ -0,0 +1,458 @@
+package rdk.stress;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static rdk.model.User.UserBuilder.user;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.After;
+import org.junit.Test;
+
+import rdk.exception.UnauthorizedAccessException;
+import rdk.exception.UnauthorizedDocumentCreationException;
+import rdk.model.Document;
+import rdk.model.DocumentStatus;
+import rdk.model.Organization;
+import rdk.model.OrganizationStatistics;
+import rdk.model.User;
+import rdk.model.UserRole;
+import rdk.service.DocumentExpiry;
+import rdk.service.DocumentService;
+import rdk.service.OrganizationExecutor;
+import rdk.service.OrganizationRegistry;
+import rdk.service.OrganizationService;
+import rdk.stress.LinearizabilityChecker.Call;
+import rdk.stress.OrganizationModel.Kind;
+import rdk.stress.OrganizationModel.Operation;
+
+
+/**
+ * Hammers organizations from many threads through {@link OrganizationExecutor}, the
+ * supported way of sharing an organization, and checks the recorded histories against
+ * {@link OrganizationModel} as well as the domain invariants of the final state. Users
+ * shared by several organizations are changed concurrently with document expiry and
+ * changes of the global defaults, after which every organization must count its members
+ * and documents as a recount does. Run with
+ * {@code mvn test -Pstress}; a failing seed is reported and can be replayed with
+ * {@code -Dstress.seed}.
+ */
+public class OrganizationInvariantsStress {
+
+    private static final int NUM_OF_ACKNOWLEDGMENTS = 2;
+
+    private static final int NUM_OF_SEEDED_REPRESENTATIVES = 2;
+
+    private static final long SEED = Long.getLong("stress.seed", System.nanoTime());
+
+    OrganizationService organizationService = new OrganizationService(new DocumentService(), new OrganizationRegistry());
+
+    OrganizationExecutor executor = new OrganizationExecutor(organizationService, 8);
+
+    User admin = user("admin").withRole(UserRole.ADMIN).build();
+
+    Set<User> promotedByOwner = Collections.newSetFromMap(new ConcurrentHashMap<User, Boolean>());
+
+    @After
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void historiesOfConcurrentMutationsAreLinearizable() throws Exception {
+        Random random = new Random(SEED);
+        for (int round = 0; round < 500; round++) {
+            User[] users = usersOf(round, 6);
+            Organization organization = newOrganization("linearizable " + round, users);
+
+            List<Call<Operation>> history = run(organization, users, 4, 16, random.nextLong());
+
+            OrganizationModel model = new OrganizationModel(NUM_OF_ACKNOWLEDGMENTS, rolesOf(users));
+            if (!new LinearizabilityChecker<Operation>(history).isLinearizable(model)) {
+                fail("History of round " + round + " with seed " + SEED + " is not linearizable:\n" + describe(history));
+            }
+            assertInvariants(organization, users);
+        }
+    }
+
+    @Test
+    public void keepsInvariantsUnderHeavyLoad() throws Exception {
+        Random random = new Random(SEED);
+        List<Organization> organizations = new ArrayList<Organization>();
+        List<User[]> usersOfOrganizations = new ArrayList<User[]>();
+        for (int i = 0; i < 16; i++) {
+            User[] users = usersOf(i, 24);
+            usersOfOrganizations.add(users);
+            organizations.add(newOrganization("loaded " + i, users));
+        }
+
+        final Set<User> added = Collections.newSetFromMap(new ConcurrentHashMap<User, Boolean>());
+        List<Thread> threads = new ArrayList<Thread>();
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+        for (int t = 0; t < 16; t++) {
+            final Random threadRandom = new Random(random.nextLong());
+            final List<Organization> targets = organizations;
+            final List<User[]> targetUsers = usersOfOrganizations;
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < 5000; i++) {
+                            int index = threadRandom.nextInt(targets.size());
+                            Operation operation = randomOperation(threadRandom, targetUsers.get(index).length);
+                            String result = execute(targets.get(index), targetUsers.get(index), operation);
+                            if (operation.kind == Kind.ADD_MEMBER && result.equals(OrganizationModel.OK)) {
+                                added.add(targetUsers.get(index)[operation.member]);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(failures).isEmpty();
+        for (int i = 0; i < organizations.size(); i++) {
+            Organization organization = organizations.get(i);
+            for (User user : usersOfOrganizations.get(i)) {
+                assertThat(organization.getMembers().contains(user)).isEqualTo(added.contains(user));
+            }
+            assertInvariants(organization, usersOfOrganizations.get(i));
+        }
+    }
+
+    @Test
+    public void keepsCountersOfUsersSharedAcrossOrganizations() throws Exception {
+        Random random = new Random(SEED);
+        final User[] shared = usersOf(-1, 13);
+        final List<Organization> organizations = new ArrayList<Organization>();
+        for (int i = 0; i < 8; i++) {
+            organizations.add(organizationService.createNewOrganisation("shared " + i,
+                    user("shared owner " + i).withRole(UserRole.REGULAR).build()));
+        }
+        DocumentExpiry expiry = new DocumentExpiry(organizationService, 2, 1);
+        expiry.start();
+
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+        final Random defaultsRandom = new Random(random.nextLong());
+        Thread defaults = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    while (running.get()) {
+                        organizationService.setDefaultNumOfRequiredAcknowledgments(1 + defaultsRandom.nextInt(3), admin);
+                        organizationService.setDefaultNumOfRequiredDocumentConfirmations(1 + defaultsRandom.nextInt(3), admin);
+                    }
+                } catch (Throwable e) {
+                    failures.add(e);
+                }
+            }
+        });
+        List<Thread> threads = new ArrayList<Thread>();
+        final CountDownLatch start = new CountDownLatch(1);
+        for (int t = 0; t < 8; t++) {
+            final Random threadRandom = new Random(random.nextLong());
+            Thread thread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int i = 0; i < 2000; i++) {
+                            executeShared(organizations.get(threadRandom.nextInt(organizations.size())), shared, threadRandom);
+                        }
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        defaults.start();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        running.set(false);
+        defaults.join();
+        expiry.close();
+
+        assertThat(failures).isEmpty();
+        for (Organization organization : organizations) {
+            executor.submit(organization, new OrganizationExecutor.OrganizationTask<Void>() {
+                @Override
+                public Void execute(OrganizationService service, Organization organization) {
+                    return null;
+                }
+            }).get(10, TimeUnit.SECONDS);
+        }
+        for (Organization organization : organizations) {
+            AssertionError error = executor.submit(organization, new OrganizationExecutor.OrganizationTask<AssertionError>() {
+                @Override
+                public AssertionError execute(OrganizationService service, Organization organization) {
+                    try {
+                        assertCountedAsRecounted(organization);
+                        return null;
+                    } catch (AssertionError e) {
+                        return e;
+                    }
+                }
+            }).get(10, TimeUnit.SECONDS);
+            if (error != null) {
+                throw error;
+            }
+        }
+    }
+
+    /**
+     * One random mutation through the service, which recounts the users in their other
+     * organizations. Rejected mutations are expected.
+     */
+    private void executeShared(Organization organization, final User[] shared, final Random random) throws Exception {
+        final User member = shared[1 + random.nextInt(shared.length - 1)];
+        final User promotor = random.nextInt(10) == 0 ? organization.getOwner() : shared[1 + random.nextInt(shared.length - 1)];
+        final int kind = random.nextInt(100);
+        final int documentNumber = random.nextInt(64);
+        try {
+            executor.submit(organization, new OrganizationExecutor.OrganizationTask<Void>() {
+                @Override
+                public Void execute(OrganizationService service, Organization organization) throws Exception {
+                    User owner = organization.getOwner();
+                    if (kind < 20) {
+                        service.addMember(organization, owner, member);
+                    } else if (kind < 50) {
+                        service.promoteMemberBy(organization, member, promotor);
+                    } else if (kind < 60) {
+                        service.cancelMemberRepresentativeRole(organization, member, owner, true);
+                    } else if (kind < 63) {
+                        service.activateOrganisation(organization, admin);
+                    } else if (kind < 80) {
+                        service.addNewDocumentByUser(organization, member);
+                    } else if (documentNumber < organization.getDocuments().size()) {
+                        service.confirmDocumentBy(organization, organization.getDocuments().get(documentNumber), member);
+                    }
+                    return null;
+                }
+            }).get(10, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof UnauthorizedAccessException || e.getCause() instanceof UnauthorizedDocumentCreationException)) {
+                throw e;
+            }
+        }
+    }
+
+    private static void assertCountedAsRecounted(Organization organization) {
+        OrganizationStatistics statistics = organization.getStatistics();
+        Map<UserRole, Integer> roles = new EnumMap<UserRole, Integer>(UserRole.class);
+        int pending = 0;
+        for (UserRole role : UserRole.values()) {
+            roles.put(role, 0);
+        }
+        for (User member : organization.getMembers()) {
+            roles.put(member.getRole(), roles.get(member.getRole()) + 1);
+            if (member.getRole() != UserRole.REPRESENTATIVE && !member.getPromoters().isEmpty()) {
+                pending++;
+            }
+        }
+        for (UserRole role : UserRole.values()) {
+            assertThat(statistics.getNumOfMembers(role)).as("%s of %s", role, organization.getName()).isEqualTo(roles.get(role));
+        }
+        assertThat(statistics.getNumOfPendingPromotions()).as("pending promotions of %s", organization.getName()).isEqualTo(pending);
+        for (DocumentStatus status : DocumentStatus.values()) {
+            assertThat(statistics.getNumOfDocuments(status)).as("%s documents of %s", status, organization.getName())
+                    .isEqualTo(organization.getDocuments(status).size());
+        }
+        int numOfDocuments = 0;
+        for (DocumentStatus status : DocumentStatus.values()) {
+            numOfDocuments += statistics.getNumOfDocuments(status);
+        }
+        assertThat(numOfDocuments).isEqualTo(organization.getDocuments().size());
+    }
+
+    private List<Call<Operation>> run(final Organization organization, final User[] users, int numOfThreads,
+            final int numOfOperations, long seed) throws InterruptedException {
+        final AtomicLong clock = new AtomicLong();
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Call<Operation>> history = Collections.synchronizedList(new ArrayList<Call<Operation>>());
+        Random random = new Random(seed);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < numOfThreads; t++) {
+            final int thread = t;
+            final Random threadRandom = new Random(random.nextLong());
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    for (int i = 0; i < numOfOperations; i++) {
+                        Operation operation = randomOperation(threadRandom, users.length);
+                        long invoked = clock.incrementAndGet();
+                        String result = execute(organization, users, operation);
+                        history.add(new Call<Operation>(thread, operation, invoked, clock.incrementAndGet(), result));
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return new ArrayList<Call<Operation>>(history);
+    }
+
+    private static Operation randomOperation(Random random, int numOfUsers) {
+        int member = random.nextInt(numOfUsers);
+        int promotor = random.nextInt(10) == 0 ? OrganizationModel.OWNER : 1 + random.nextInt(numOfUsers - 1);
+        int kind = random.nextInt(100);
+        if (kind < 25) {
+            return new Operation(Kind.ADD_MEMBER, member, promotor);
+        } else if (kind < 50) {
+            return new Operation(Kind.PROMOTE, member, promotor);
+        } else if (kind < 58) {
+            return new Operation(Kind.CANCEL_REPRESENTATIVE, member, promotor);
+        } else if (kind < 62) {
+            return new Operation(Kind.ACTIVATE, member, promotor);
+        } else if (kind < 80) {
+            return new Operation(Kind.ADD_DOCUMENT, member, promotor);
+        }
+        return new Operation(Kind.READ_MEMBER, member, promotor);
+    }
+
+    private String execute(Organization organization, final User[] users, final Operation operation) {
+        try {
+            String result = executor.submit(organization, new OrganizationExecutor.OrganizationTask<String>() {
+                @Override
+                public String execute(OrganizationService service, Organization organization) throws Exception {
+                    return apply(organization, users, operation);
+                }
+            }).get(10, TimeUnit.SECONDS);
+            if (operation.kind == Kind.PROMOTE && operation.promotor == OrganizationModel.OWNER) {
+                promotedByOwner.add(users[operation.member]);
+            }
+            return result;
+        } catch (ExecutionException e) {
+            return e.getCause().getClass().getSimpleName();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String apply(Organization organization, User[] users, Operation operation) throws Exception {
+        User member = users[operation.member];
+        User owner = users[OrganizationModel.OWNER];
+        switch (operation.kind) {
+        case ADD_MEMBER:
+            organization.addMemberBy(member, owner);
+            return OrganizationModel.OK;
+        case PROMOTE:
+            organization.promote(member, users[operation.promotor]);
+            return OrganizationModel.OK;
+        case CANCEL_REPRESENTATIVE:
+            organization.cancelMembersRepresentative(member, owner, true);
+            return OrganizationModel.OK;
+        case ACTIVATE:
+            organization.activateBy(admin);
+            return OrganizationModel.OK;
+        case ADD_DOCUMENT:
+            Document document = new Document(member);
+            organization.addDocumentByUser(document, member);
+            return OrganizationModel.OK + ":" + document.getNumber();
+        default:
+            return OrganizationModel.describe(organization.getMembers().contains(member), member.getRole(),
+                    member.getPromoters().size());
+        }
+    }
+
+    private Organization newOrganization(String name, User[] users) throws Exception {
+        Organization organization = organizationService.createNewOrganisation(name, users[OrganizationModel.OWNER]);
+        organizationService.setNumOfRequiredAcknowledgments(organization, NUM_OF_ACKNOWLEDGMENTS, users[OrganizationModel.OWNER]);
+        return organization;
+    }
+
+    private static User[] usersOf(int organization, int numOfUsers) {
+        User[] users = new User[numOfUsers];
+        users[OrganizationModel.OWNER] = user("owner " + organization).withRole(UserRole.REGULAR).build();
+        for (int i = 1; i < numOfUsers; i++) {
+            UserRole role = i <= NUM_OF_SEEDED_REPRESENTATIVES ? UserRole.REPRESENTATIVE : UserRole.REGULAR;
+            users[i] = user("user " + organization + "." + i).withRole(role).build();
+        }
+        return users;
+    }
+
+    private static UserRole[] rolesOf(User[] users) {
+        UserRole[] roles = new UserRole[users.length];
+        for (int i = 0; i < users.length; i++) {
+            roles[i] = i <= NUM_OF_SEEDED_REPRESENTATIVES ? UserRole.REPRESENTATIVE : UserRole.REGULAR;
+        }
+        return roles;
+    }
+
+    private void assertInvariants(Organization organization, User[] users) {
+        assertThat(organization.getMembers()).doesNotContain(organization.getOwner());
+        if (!organization.isActive()) {
+            assertThat(organization.getDocuments()).isEmpty();
+        }
+        for (int i = 0; i < organization.getDocuments().size(); i++) {
+            assertThat(organization.getDocuments().get(i).getNumber()).isEqualTo(i);
+        }
+
+        int representatives = 0;
+        int pending = 0;
+        for (User member : organization.getMembers()) {
+            if (member.getRole() == UserRole.REPRESENTATIVE) {
+                representatives++;
+            } else if (!member.getPromoters().isEmpty()) {
+                pending++;
+            }
+        }
+        OrganizationStatistics statistics = organization.getStatistics();
+        assertThat(statistics.getNumOfMembers()).isEqualTo(organization.getMembers().size());
+        assertThat(statistics.getNumOfMembers(UserRole.REPRESENTATIVE)).isEqualTo(representatives);
+        assertThat(statistics.getNumOfPendingPromotions()).isEqualTo(pending);
+        assertThat(statistics.getNumOfDocuments(DocumentStatus.UNCONFIRMED)).isEqualTo(organization.getDocuments().size());
+
+        for (int i = NUM_OF_SEEDED_REPRESENTATIVES + 1; i < users.length; i++) {
+            if (users[i].getRole() == UserRole.REPRESENTATIVE) {
+                assertThat(users[i].getPromoters().size() >= NUM_OF_ACKNOWLEDGMENTS || promotedByOwner.contains(users[i]))
+                        .as("representative %s without enough acknowledgments", users[i].getName()).isTrue();
+            }
+        }
+    }
+
+    private static String describe(List<Call<Operation>> history) {
+        StringBuilder description = new StringBuilder();
+        for (Call<Operation> call : history) {
+            description.append(call).append('\n');
+        }
+        return description.toString();
+    }
+}
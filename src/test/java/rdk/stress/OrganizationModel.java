@@ -0,0 +1,178 @@
+package rdk.stress;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+import rdk.model.UserRole;
+
+
+/**
+ * Sequential specification of an {@link rdk.model.Organization} with a handful of users,
+ * identified by their index. User 0 is the owner.
+ */
+class OrganizationModel implements LinearizabilityChecker.Model<OrganizationModel.Operation> {
+
+    static final int OWNER = 0;
+
+    static final String OK = "ok";
+
+    static final String UNAUTHORIZED_ACCESS = "UnauthorizedAccessException";
+
+    static final String UNAUTHORIZED_DOCUMENT_CREATION = "UnauthorizedDocumentCreationException";
+
+    enum Kind {
+        ADD_MEMBER, PROMOTE, CANCEL_REPRESENTATIVE, ACTIVATE, ADD_DOCUMENT, READ_MEMBER
+    }
+
+    static class Operation {
+
+        final Kind kind;
+
+        final int member;
+
+        final int promotor;
+
+        Operation(Kind kind, int member, int promotor) {
+            this.kind = kind;
+            this.member = member;
+            this.promotor = promotor;
+        }
+
+        @Override
+        public String toString() {
+            return kind + "(" + member + ", " + promotor + ")";
+        }
+    }
+
+    private final int numOfAcknowledgments;
+
+    private boolean active;
+
+    private int members;
+
+    private final UserRole[] roles;
+
+    private final int[] promoters;
+
+    private int numOfDocuments;
+
+    OrganizationModel(int numOfAcknowledgments, UserRole... roles) {
+        this.numOfAcknowledgments = numOfAcknowledgments;
+        this.roles = roles.clone();
+        this.roles[OWNER] = UserRole.OWNER;
+        this.promoters = new int[roles.length];
+    }
+
+    private OrganizationModel(OrganizationModel model) {
+        this.numOfAcknowledgments = model.numOfAcknowledgments;
+        this.active = model.active;
+        this.members = model.members;
+        this.roles = model.roles.clone();
+        this.promoters = model.promoters.clone();
+        this.numOfDocuments = model.numOfDocuments;
+    }
+
+    @Override
+    public OrganizationModel copy() {
+        return new OrganizationModel(this);
+    }
+
+    @Override
+    public String apply(Operation operation) {
+        int member = operation.member;
+        switch (operation.kind) {
+        case ADD_MEMBER:
+            if (member == OWNER) {
+                return UNAUTHORIZED_ACCESS;
+            }
+            members |= 1 << member;
+            return OK;
+        case PROMOTE:
+            return promote(member, operation.promotor);
+        case CANCEL_REPRESENTATIVE:
+            cancelRepresentative(member);
+            return OK;
+        case ACTIVATE:
+            active = true;
+            return OK;
+        case ADD_DOCUMENT:
+            if (!isMember(member) || !active) {
+                return UNAUTHORIZED_DOCUMENT_CREATION;
+            }
+            return OK + ":" + numOfDocuments++;
+        case READ_MEMBER:
+            return describe(isMember(member), roles[member], Integer.bitCount(promoters[member]));
+        default:
+            throw new IllegalArgumentException("Unknown operation " + operation);
+        }
+    }
+
+    static String describe(boolean member, UserRole role, int numOfPromoters) {
+        return (member ? "member " : "stranger ") + role + " " + numOfPromoters;
+    }
+
+    private String promote(int member, int promotor) {
+        if (!active) {
+            if (promotor != OWNER) {
+                return UNAUTHORIZED_ACCESS;
+            }
+            if (isMember(member)) {
+                roles[member] = UserRole.REPRESENTATIVE;
+            }
+            return OK;
+        }
+        if (!isMember(member) || !isMember(promotor) || roles[promotor] != UserRole.REPRESENTATIVE) {
+            return UNAUTHORIZED_ACCESS;
+        }
+        promoters[member] |= 1 << promotor;
+        if (Integer.bitCount(promoters[member]) >= numOfAcknowledgments) {
+            roles[member] = UserRole.REPRESENTATIVE;
+        }
+        return OK;
+    }
+
+    /**
+     * Demotes the user, revokes its acknowledgments and cascades to the representatives
+     * that fall below the required number of them.
+     */
+    private void cancelRepresentative(int user) {
+        roles[user] = UserRole.REGULAR;
+        Deque<Integer> demoted = new ArrayDeque<Integer>();
+        demoted.add(user);
+        while (!demoted.isEmpty()) {
+            int promotor = demoted.poll();
+            for (int promoted = 0; promoted < promoters.length; promoted++) {
+                if ((promoters[promoted] & (1 << promotor)) != 0) {
+                    boolean hadEnough = Integer.bitCount(promoters[promoted]) >= numOfAcknowledgments;
+                    promoters[promoted] &= ~(1 << promotor);
+                    if (roles[promoted] == UserRole.REPRESENTATIVE && hadEnough
+                            && Integer.bitCount(promoters[promoted]) < numOfAcknowledgments) {
+                        roles[promoted] = UserRole.REGULAR;
+                        demoted.add(promoted);
+                    }
+                }
+            }
+        }
+    }
+
+    private boolean isMember(int user) {
+        return (members & (1 << user)) != 0;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof OrganizationModel)) {
+            return false;
+        }
+        OrganizationModel model = (OrganizationModel) other;
+        return active == model.active && members == model.members && numOfDocuments == model.numOfDocuments
+                && Arrays.equals(roles, model.roles) && Arrays.equals(promoters, model.promoters);
+    }
+
+    @Override
+    public int hashCode() {
+        return ((Boolean.hashCode(active) * 31 + members) * 31 + numOfDocuments) * 31 + Arrays.hashCode(roles) * 17
+                + Arrays.hashCode(promoters);
+    }
+}
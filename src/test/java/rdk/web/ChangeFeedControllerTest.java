@@ -0,0 +1,190 @@
+package rdk.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static rdk.model.User.UserBuilder.user;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import rdk.feed.ChangeFeed;
+import rdk.model.Organization;
+import rdk.model.User;
+import rdk.model.UserRole;
+import rdk.service.DocumentService;
+import rdk.service.OrganizationRegistry;
+import rdk.service.OrganizationService;
+
+
+public class ChangeFeedControllerTest {
+
+    MockMvc mockMvc;
+
+    ChangeFeed changeFeed = new ChangeFeed();
+
+    ChangeFeedController controller = new ChangeFeedController();
+
+    OrganizationService organizationService = new OrganizationService(new DocumentService(), new OrganizationRegistry());
+
+    User owner = user("owner").withRole(UserRole.REGULAR).build();
+
+    Organization organization;
+
+    @Before
+    public void init() {
+        organizationService.addChangeListener(changeFeed);
+        organization = organizationService.createNewOrganisation("followed", owner);
+
+        ReflectionTestUtils.setField(controller, "organizationService", organizationService);
+        ReflectionTestUtils.setField(controller, "changeFeed", changeFeed);
+
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @After
+    public void shutdown() {
+        controller.shutdown();
+    }
+
+    @Test
+    public void completesLongPollWithTheNextChange() throws Exception {
+        MvcResult result = mockMvc.perform(get("/organizations/followed/changes").param("since", "1"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        organizationService.addMember(organization, owner, user("member").withRole(UserRole.REGULAR).build());
+
+        mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("\"type\":\"MEMBER_ADDED\"")))
+            .andExpect(content().string(containsString("\"nextSequence\":2")));
+    }
+
+    @Test
+    public void streamsChangesAsServerSentEvents() throws Exception {
+        ClientResponse response = new ClientResponse();
+        stream(response);
+
+        organizationService.addMember(organization, owner, user("member").withRole(UserRole.REGULAR).build());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!response.client.received().endsWith("\n\n") && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(response.getContentType()).startsWith("text/event-stream");
+        assertThat(response.client.received()).startsWith("id: 2\nevent: changes\ndata: {").contains("\"subject\":\"member\"");
+        assertThat(changeFeed.getNumOfSubscribers(organization)).isEqualTo(1);
+    }
+
+    @Test
+    public void dropsSubscribersThatStopTakingChanges() throws Exception {
+        ClientResponse response = new ClientResponse();
+        response.client.stallAfterWrite = true;
+        stream(response);
+
+        organizationService.addMember(organization, owner, user("member").withRole(UserRole.REGULAR).build());
+        long deadline = System.currentTimeMillis() + 5000;
+        while (response.client.ready && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        organizationService.addMember(organization, owner, user("other member").withRole(UserRole.REGULAR).build());
+
+        controller.reap(0, ChangeFeedController.MAX_FEED_IDLE_MILLIS);
+
+        assertThat(controller.getNumOfOpenStreams()).isZero();
+        assertThat(changeFeed.getNumOfSubscribers(organization)).isZero();
+        assertThat(response.client.received()).doesNotContain("other member");
+    }
+
+    @Test
+    public void evictsFeedsNobodyFollows() throws Exception {
+        controller.reap(ChangeFeedController.MAX_STALL_MILLIS, -1000);
+
+        assertThat(changeFeed.getNumOfFeeds()).isZero();
+        mockMvc.perform(get("/organizations/followed/changes").param("since", "0").param("timeout", "1000"))
+            .andExpect(request().asyncStarted());
+    }
+
+    private void stream(ClientResponse response) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/organizations/followed/changes/stream");
+        request.setAsyncSupported(true);
+        request.addHeader("Last-Event-ID", "1");
+        controller.stream("followed", 0, 300000, request, response);
+    }
+
+    private static class ClientResponse extends MockHttpServletResponse {
+
+        final ClientStream client = new ClientStream();
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return client;
+        }
+    }
+
+    /**
+     * Client side of a non-blocking stream, which can stop taking data after a write.
+     */
+    private static class ClientStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream received = new ByteArrayOutputStream();
+
+        volatile boolean ready = true;
+
+        volatile boolean stallAfterWrite = false;
+
+        @Override
+        public boolean isReady() {
+            return ready;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            try {
+                writeListener.onWritePossible();
+            } catch (IOException e) {
+                writeListener.onError(e);
+            }
+        }
+
+        @Override
+        public synchronized void write(int b) {
+            received.write(b);
+        }
+
+        @Override
+        public synchronized void write(byte[] b, int off, int len) {
+            received.write(b, off, len);
+            ready = !stallAfterWrite;
+        }
+
+        synchronized String received() {
+            return new String(received.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    public void rejectsUnknownOrganization() throws Exception {
+        mockMvc.perform(get("/organizations/unknown/changes"))
+            .andExpect(status().isNotFound());
+    }
+}
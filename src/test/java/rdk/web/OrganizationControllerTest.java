@@ -0,0 +1,111 @@
+package rdk.web;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static rdk.model.User.UserBuilder.user;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import rdk.model.Organization;
+import rdk.model.User;
+import rdk.model.UserRole;
+import rdk.service.DocumentService;
+import rdk.service.OrganizationExecutor;
+import rdk.service.OrganizationRegistry;
+import rdk.service.OrganizationService;
+
+
+public class OrganizationControllerTest {
+
+    MockMvc mockMvc;
+
+    OrganizationService organizationService = new OrganizationService(new DocumentService(), new OrganizationRegistry());
+
+    User owner = user("owner").withRole(UserRole.REGULAR).build();
+
+    Organization organization;
+
+    @Before
+    public void init() {
+        organization = organizationService.createNewOrganisation("viewed", owner);
+
+        OrganizationController controller = new OrganizationController();
+        ReflectionTestUtils.setField(controller, "organizationService", organizationService);
+
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    public void servesOrganizationWithVersionTag() throws Exception {
+        mockMvc.perform(get("/organizations/viewed"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", OrganizationController.eTagOf(organization, 1)))
+            .andExpect(content().string(containsString("\"version\":1")))
+            .andExpect(content().string(containsString("\"members\":[]")));
+    }
+
+    @Test
+    public void answersNotModifiedUntilOrganizationChanges() throws Exception {
+        String eTag = OrganizationController.eTagOf(organization, organization.getVersion());
+
+        mockMvc.perform(get("/organizations/viewed").header("If-None-Match", eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+
+        organizationService.addMember(organization, owner, user("member").withRole(UserRole.REGULAR).build());
+
+        mockMvc.perform(get("/organizations/viewed").header("If-None-Match", eTag))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("{\"name\":\"member\",\"role\":\"REGULAR\"}")));
+    }
+
+    @Test
+    public void answersModifiedWhenMemberIsPromotedInAnotherOrganization() throws Exception {
+        User member = user("member").withRole(UserRole.REGULAR).build();
+        User otherOwner = user("other owner").withRole(UserRole.REGULAR).build();
+        Organization other = organizationService.createNewOrganisation("other", otherOwner);
+        organizationService.addMember(organization, owner, member);
+        organizationService.addMember(other, otherOwner, member);
+        String eTag = OrganizationController.eTagOf(organization, organization.getVersion());
+
+        organizationService.promoteMemberBy(other, member, otherOwner);
+
+        mockMvc.perform(get("/organizations/viewed").header("If-None-Match", eTag))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("{\"name\":\"member\",\"role\":\"REPRESENTATIVE\"}")));
+    }
+
+    @Test
+    public void tagsWithTheNameAndVersion() throws Exception {
+        assertThat(OrganizationController.eTagOf(organization, 3)).isEqualTo("\"viewed-3\"");
+    }
+
+    @Test
+    public void rendersInTheOrganizationsMailbox() throws Exception {
+        OrganizationExecutor executor = new OrganizationExecutor(organizationService, 2);
+        try {
+            executor.addMember(organization, owner, user("member").withRole(UserRole.REGULAR).build()).get();
+
+            mockMvc.perform(get("/organizations/viewed"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", OrganizationController.eTagOf(organization, 2)))
+                .andExpect(content().string(containsString("{\"name\":\"member\",\"role\":\"REGULAR\"}")));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void rejectsUnknownOrganization() throws Exception {
+        mockMvc.perform(get("/organizations/unknown"))
+            .andExpect(status().isNotFound());
+    }
+}
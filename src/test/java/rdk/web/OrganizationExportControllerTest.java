@@ -0,0 +1,56 @@
+package rdk.web;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static rdk.model.User.UserBuilder.user;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import rdk.model.UserRole;
+import rdk.service.DocumentService;
+import rdk.service.OrganizationExportService;
+import rdk.service.OrganizationRegistry;
+import rdk.service.OrganizationService;
+
+
+public class OrganizationExportControllerTest {
+
+    MockMvc mockMvc;
+
+    @Before
+    public void init() {
+        OrganizationRegistry registry = new OrganizationRegistry();
+        OrganizationService organizationService = new OrganizationService(new DocumentService(), registry);
+        organizationService.createNewOrganisation("exported", user("owner").withRole(UserRole.REGULAR).build());
+
+        OrganizationExportController controller = new OrganizationExportController();
+        ReflectionTestUtils.setField(controller, "organizationService", organizationService);
+        ReflectionTestUtils.setField(controller, "organizationExportService", new OrganizationExportService(registry, organizationService));
+
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    public void streamsCsvExport() throws Exception {
+        mockMvc.perform(get("/organizations/export").param("format", "csv"))
+            .andExpect(status().isOk())
+            .andExpect(content().string("organization,type,name,role,active,status\nexported,organization,owner,OWNER,false,\n"));
+    }
+
+    @Test
+    public void rejectsUnknownOrganization() throws Exception {
+        mockMvc.perform(get("/organizations/export").param("organization", "unknown"))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void rejectsUnknownFormat() throws Exception {
+        mockMvc.perform(get("/organizations/export").param("format", "xml"))
+            .andExpect(status().isBadRequest());
+    }
+}